@@ -0,0 +1,176 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates TTCN-3 and ASN.1 projects of controllable size and shape.
+ * <p>
+ * Modules only import modules generated before them, so the import graph is acyclic. ASN.1 modules
+ * only import ASN.1 modules, TTCN-3 modules import both.
+ */
+public final class CorpusGenerator {
+	/**
+	 * Shape of a generated project
+	 *
+	 * @param modules number of modules
+	 * @param moduleLines approximate number of lines per module
+	 * @param fanOut number of imports per module
+	 * @param smellsPer100Lines density of code smells in function bodies
+	 * @param asn1Share share of ASN.1 modules, between 0 and 1
+	 * @param seed random seed, the same spec always generates the same project
+	 */
+	public record Spec(int modules, int moduleLines, int fanOut, double smellsPer100Lines, double asn1Share, long seed) {
+		public Spec {
+			if (modules < 1 || moduleLines < 10 || fanOut < 0 || smellsPer100Lines < 0 || asn1Share < 0 || asn1Share > 1) {
+				throw new IllegalArgumentException("Invalid corpus spec: " + this);
+			}
+		}
+	}
+
+	private final Spec spec;
+	private final Random random;
+	private final List<String> ttcnModules = new ArrayList<>();
+	private final List<String> asnModules = new ArrayList<>();
+
+	private CorpusGenerator(final Spec spec) {
+		this.spec = spec;
+		this.random = new Random(spec.seed());
+	}
+
+	/**
+	 * Writes the project into a new temporary directory.
+	 */
+	public static SyntheticProject generate(final Spec spec) throws IOException {
+		final SyntheticProject project = new SyntheticProject(Files.createTempDirectory("ttcn3-corpus"), spec.moduleLines());
+		new CorpusGenerator(spec).generate(project);
+		return project;
+	}
+
+	private void generate(final SyntheticProject project) throws IOException {
+		for (int i = 0; i < spec.modules(); i++) {
+			final String group = "group" + (i % 32);
+			if (random.nextDouble() < spec.asn1Share()) {
+				final String name = "Asn" + i;
+				project.add("asn1/" + group + "/" + name + ".asn", asn1Module(name));
+				asnModules.add(name);
+			} else {
+				final String name = "Suite_" + i;
+				project.add("ttcn3/" + group + "/" + name + ".ttcn", ttcnModule(name));
+				ttcnModules.add(name);
+			}
+		}
+	}
+
+	private List<String> pickImports(final boolean asn1Only) {
+		final List<String> candidates = new ArrayList<>(asnModules);
+		if (!asn1Only) {
+			candidates.addAll(ttcnModules);
+		}
+		final List<String> imports = new ArrayList<>();
+		for (int i = 0; i < spec.fanOut() && !candidates.isEmpty(); i++) {
+			imports.add(candidates.remove(random.nextInt(candidates.size())));
+		}
+		return imports;
+	}
+
+	private String ttcnModule(final String name) {
+		final StringBuilder out = new StringBuilder();
+		int lines = 0;
+		out.append("module ").append(name).append(" {\n");
+		for (final String imported : pickImports(false)) {
+			out.append("  import from ").append(imported).append(" all;\n");
+			lines++;
+		}
+		out.append("\n  type component CT_").append(name).append(" {\n    var integer v_counter := 0;\n  }\n\n");
+		out.append("  type record R_").append(name).append(" {\n    integer id,\n    charstring label optional\n  }\n\n");
+		out.append("  const integer c_").append(name).append("_base := ").append(random.nextInt(100)).append(";\n\n");
+		lines += 14;
+
+		int function = 0;
+		while (lines < spec.moduleLines() - 2) {
+			final StringBuilder body = new StringBuilder();
+			final int statements = 3 + random.nextInt(6);
+			for (int s = 0; s < statements; s++) {
+				body.append(statement(name, s));
+			}
+			final boolean testcase = function % 5 == 4;
+			if (testcase) {
+				out.append("  testcase tc_").append(name).append('_').append(function)
+					.append("() runs on CT_").append(name).append(" {\n")
+					.append("    var integer v_res := c_").append(name).append("_base;\n")
+					.append(body)
+					.append("    if (v_res >= 0) { setverdict(pass); } else { setverdict(fail); }\n")
+					.append("  }\n\n");
+			} else {
+				out.append("  function f_").append(name).append('_').append(function).append("(integer p_x) return integer {\n")
+					.append("    var integer v_res := p_x + c_").append(name).append("_base;\n")
+					.append(body)
+					.append("    return v_res;\n")
+					.append("  }\n\n");
+			}
+			lines += body.chars().filter(c -> c == '\n').count() + 5;
+			function++;
+		}
+		out.append("}\n");
+		return out.toString();
+	}
+
+	private String statement(final String name, final int index) {
+		if (random.nextDouble() * 100 < spec.smellsPer100Lines()) {
+			switch (random.nextInt(4)) {
+			case 0:
+				return "    if (v_res > " + random.nextInt(1000) + ") { }\n";
+			case 1:
+				return "    var integer v_unused_" + index + " := " + random.nextInt(1000) + ";\n";
+			case 2:
+				return "    v_res := v_res * " + (2 + random.nextInt(9999)) + ";\n";
+			default:
+				return "    for (var integer i := 0; i < 10; i := i + 1) { }\n";
+			}
+		}
+		switch (random.nextInt(3)) {
+		case 0:
+			return "    v_res := v_res + c_" + name + "_base;\n";
+		case 1:
+			return "    if (v_res > c_" + name + "_base) { v_res := v_res - 1; }\n";
+		default:
+			return "    log(\"" + name + ": \", v_res);\n";
+		}
+	}
+
+	private String asn1Module(final String name) {
+		final StringBuilder out = new StringBuilder();
+		out.append(name).append(" DEFINITIONS AUTOMATIC TAGS ::=\nBEGIN\n\n");
+		final List<String> imports = pickImports(true);
+		if (!imports.isEmpty()) {
+			out.append("IMPORTS\n");
+			for (final String imported : imports) {
+				out.append("  ").append(imported).append("-Type0 FROM ").append(imported).append('\n');
+			}
+			out.append(";\n\n");
+		}
+		int lines = 4 + (imports.isEmpty() ? 0 : imports.size() + 3);
+		int type = 0;
+		while (lines < spec.moduleLines() - 2) {
+			out.append(name).append("-Type").append(type).append(" ::= SEQUENCE {\n")
+				.append("  id INTEGER (0..").append(1 + random.nextInt(65535)).append("),\n")
+				.append("  label IA5String OPTIONAL,\n")
+				.append("  flag BOOLEAN DEFAULT FALSE\n")
+				.append("}\n\n");
+			lines += 6;
+			type++;
+		}
+		out.append("END\n");
+		return out.toString();
+	}
+}
@@ -0,0 +1,89 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.eclipse.sonarttcn3.report.ReportLineParser;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of classifying report lines, without any file lookup or save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineParsingBenchmark {
+	@Param({ "100000" })
+	public int lines;
+
+	@Param({ "ISSUE", "METRIC", "UNMATCHED", "CUSTOM", "MIXED" })
+	public SyntheticReport.Kind kind;
+
+	private String[] reportLines;
+	private Pattern customPattern;
+
+	@Setup
+	public void setUp() {
+		final List<String> modules = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			modules.add("src/group" + (i % 16) + "/Module" + i + ".ttcn");
+		}
+		reportLines = SyntheticReport.lines(kind, lines, modules, 500);
+		customPattern = kind == SyntheticReport.Kind.CUSTOM ? Pattern.compile(SyntheticReport.CUSTOM_REGEX) : null;
+	}
+
+	@Benchmark
+	public long parse(final Blackhole blackhole) {
+		final ReportLineParser parser = new ReportLineParser(new BlackholeSink(blackhole), customPattern);
+		for (final String line : reportLines) {
+			parser.parseLine(line);
+		}
+		return parser.getUnmatchedLines();
+	}
+
+	private static final class BlackholeSink implements ReportRecordSink {
+		private final Blackhole blackhole;
+
+		BlackholeSink(final Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void issue(final String file, final int line, final String ruleKey, final String message) {
+			blackhole.consume(file);
+			blackhole.consume(line);
+			blackhole.consume(ruleKey);
+			blackhole.consume(message);
+		}
+
+		@Override
+		public void metric(final String file, final String metric, final int value) {
+			blackhole.consume(file);
+			blackhole.consume(metric);
+			blackhole.consume(value);
+		}
+	}
+}
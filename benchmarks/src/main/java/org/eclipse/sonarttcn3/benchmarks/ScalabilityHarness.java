@@ -0,0 +1,228 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.sonarttcn3.Ttcn3Sensor;
+import org.eclipse.sonarttcn3.settings.Ttcn3Properties;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Runs the sensor on generated projects of growing size and records time, allocation and peak heap,
+ * to catch non-linear scaling.
+ * <p>
+ * Options (all optional):
+ * <pre>
+ * --sizes 10,100,1000,10000   module counts
+ * --modes report,bundled      report: sensor reads a generated report, bundled: sensor runs the bundled analyzer
+ * --lines 200                 lines per module
+ * --fan-out 3                 imports per module
+ * --smells 2                  smells per 100 lines, also the issue density of generated reports
+ * --asn1 0.1                  share of ASN.1 modules
+ * --runs 3                    measured runs per point, after one warm-up run
+ * --output scalability.json   result file
+ * --fail-on-nonlinear         exit with status 2 if the time grows faster than the size
+ * </pre>
+ * Allocation is measured on the sensor thread; work done on pool threads (parallel report parsing) is not included.
+ */
+public final class ScalabilityHarness {
+	private static final String REPORT = ".ttcn3-bench-report";
+	/** time exponent between two sizes above which the scaling is reported as non-linear */
+	private static final double NONLINEAR_EXPONENT = 1.25;
+	/** points faster than this are too noisy to judge the scaling */
+	private static final double MIN_JUDGED_MS = 50;
+
+	/**
+	 * Measurements of one project size in one mode, medians over the measured runs
+	 */
+	record Point(String mode, int modules, long lines, double timeMs, double allocatedMb, double peakHeapMb, int issues) {}
+
+	private ScalabilityHarness() {
+	}
+
+	public static void main(final String[] args) throws IOException {
+		final Map<String, String> options = parseOptions(args);
+		final int[] sizes = Arrays.stream(options.getOrDefault("sizes", "10,100,1000,10000").split(","))
+			.mapToInt(size -> Integer.parseInt(size.trim())).toArray();
+		final List<String> modes = List.of(options.getOrDefault("modes", "report,bundled").split(","));
+		final int lines = Integer.parseInt(options.getOrDefault("lines", "200"));
+		final int fanOut = Integer.parseInt(options.getOrDefault("fan-out", "3"));
+		final double smells = Double.parseDouble(options.getOrDefault("smells", "2"));
+		final double asn1 = Double.parseDouble(options.getOrDefault("asn1", "0.1"));
+		final int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+		final Path output = Path.of(options.getOrDefault("output", "scalability.json"));
+
+		final List<Point> points = new ArrayList<>();
+		for (final int size : sizes) {
+			final SyntheticProject project = CorpusGenerator.generate(new CorpusGenerator.Spec(size, lines, fanOut, smells, asn1, size));
+			final Path workDir = Files.createTempDirectory("ttcn3-work");
+			try {
+				final int reportLines = (int) Math.max(1, size * (long) lines * smells / 100 / 0.8);
+				SyntheticReport.write(project.getBaseDir().resolve(REPORT), SyntheticReport.Kind.MIXED, reportLines,
+					project.getModules(), lines);
+				for (final String mode : modes) {
+					final Point point = measure(project, workDir, mode.trim(), runs);
+					points.add(point);
+					System.out.printf(Locale.ROOT, "%-8s %7d modules %10.1f ms %10.1f MB allocated %8.1f MB peak heap %8d issues%n",
+						point.mode(), point.modules(), point.timeMs(), point.allocatedMb(), point.peakHeapMb(), point.issues());
+				}
+			} finally {
+				project.delete();
+				deleteQuietly(workDir);
+			}
+		}
+
+		try (final Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+			new GsonBuilder().setPrettyPrinting().create().toJson(points, writer);
+		}
+		System.out.println("Results written to " + output.toAbsolutePath());
+
+		if (!checkScaling(points) && options.containsKey("fail-on-nonlinear")) {
+			System.exit(2);
+		}
+	}
+
+	private static Point measure(final SyntheticProject project, final Path workDir, final String mode, final int runs) {
+		final ActiveRules activeRules = SyntheticProject.activeRules();
+		final double[] times = new double[runs];
+		final double[] allocations = new double[runs];
+		final double[] peaks = new double[runs];
+		int issues = 0;
+		for (int run = -1; run < runs; run++) {
+			final SensorContextTester context = project.newContext();
+			context.fileSystem().setWorkDir(workDir);
+			context.settings().setProperty(Ttcn3Properties.INCREMENTAL_KEY, false);
+			switch (mode) {
+			case "report":
+				context.settings().setProperty(Ttcn3Properties.REPORT_PATHS_KEY, REPORT);
+				break;
+			case "bundled":
+				context.settings().setProperty(Ttcn3Properties.REPORT_PATHS_KEY, "no-report-in-bundled-mode");
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown mode: " + mode);
+			}
+
+			System.gc();
+			resetPeakHeap();
+			final long allocatedBefore = allocatedBytes();
+			final long start = System.nanoTime();
+			new Ttcn3Sensor(activeRules, System.err::println).execute(context);
+			final long nanos = System.nanoTime() - start;
+			final long allocated = allocatedBytes() - allocatedBefore;
+			if (run >= 0) {
+				times[run] = nanos / 1e6;
+				allocations[run] = allocated / 1048576.0;
+				peaks[run] = peakHeap() / 1048576.0;
+				issues = context.allIssues().size();
+			}
+		}
+		long lines = 0;
+		for (final String module : project.getModules()) {
+			try (var moduleLines = Files.lines(project.getBaseDir().resolve(module))) {
+				lines += moduleLines.count();
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return new Point(mode, project.getModules().size(), lines, median(times), median(allocations), median(peaks), issues);
+	}
+
+	/**
+	 * Prints the time exponent between consecutive sizes of each mode.
+	 *
+	 * @return {@code false} if some exponent exceeds {@link #NONLINEAR_EXPONENT}
+	 */
+	static boolean checkScaling(final List<Point> points) {
+		boolean linear = true;
+		final Map<String, Point> previous = new HashMap<>();
+		for (final Point point : points) {
+			final Point before = previous.put(point.mode(), point);
+			if (before == null || point.modules() <= before.modules() || point.timeMs() < MIN_JUDGED_MS) {
+				continue;
+			}
+			final double exponent = Math.log(point.timeMs() / Math.max(before.timeMs(), 1e-3))
+				/ Math.log((double) point.modules() / before.modules());
+			final boolean ok = exponent <= NONLINEAR_EXPONENT;
+			linear &= ok;
+			System.out.printf(Locale.ROOT, "%-8s %7d -> %7d modules: time ~ size^%.2f%s%n", point.mode(), before.modules(),
+				point.modules(), exponent, ok ? "" : "  NON-LINEAR");
+		}
+		return linear;
+	}
+
+	private static Map<String, String> parseOptions(final String[] args) {
+		final Map<String, String> options = new HashMap<>();
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("--")) {
+				throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+			}
+			final String name = args[i].substring(2);
+			if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+				options.put(name, args[++i]);
+			} else {
+				options.put(name, "true");
+			}
+		}
+		return options;
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+	}
+
+	private static void resetPeakHeap() {
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	private static long peakHeap() {
+		long peak = 0;
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	private static double median(final double[] values) {
+		final double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		final int middle = sorted.length / 2;
+		return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+	}
+
+	private static void deleteQuietly(final Path directory) {
+		try (var paths = Files.walk(directory)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		} catch (IOException e) {
+			// temporary directory, nothing to do
+		}
+	}
+}
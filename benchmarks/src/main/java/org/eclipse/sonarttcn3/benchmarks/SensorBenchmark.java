@@ -0,0 +1,82 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.sonarttcn3.Ttcn3Sensor;
+import org.eclipse.sonarttcn3.settings.Ttcn3Properties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+/**
+ * End-to-end sensor run on a report file, including file lookup and issue and measure saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SensorBenchmark {
+	private static final String REPORT = "report.txt";
+
+	@Param({ "200" })
+	public int modules;
+
+	@Param({ "100000" })
+	public int lines;
+
+	@Param({ "MIXED", "CUSTOM" })
+	public SyntheticReport.Kind kind;
+
+	private SyntheticProject project;
+	private ActiveRules activeRules;
+	private SensorContextTester context;
+
+	@Setup(Level.Trial)
+	public void createProject() throws IOException {
+		project = SyntheticProject.create(modules, 500);
+		activeRules = SyntheticProject.activeRules();
+		SyntheticReport.write(project.getBaseDir().resolve(REPORT), kind, lines, project.getModules(),
+			project.getModuleLines());
+	}
+
+	@Setup(Level.Invocation)
+	public void createContext() {
+		context = project.newContext();
+		context.settings().setProperty(Ttcn3Properties.REPORT_PATHS_KEY, REPORT);
+		if (kind == SyntheticReport.Kind.CUSTOM) {
+			context.settings().setProperty("sonar.titan.regex", SyntheticReport.CUSTOM_REGEX);
+		}
+	}
+
+	@Benchmark
+	public int execute() {
+		new Ttcn3Sensor(activeRules, warning -> { }).execute(context);
+		return context.allIssues().size();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteProject() throws IOException {
+		project.delete();
+	}
+}
@@ -0,0 +1,135 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.sonarttcn3.languages.Ttcn3Language;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.rule.internal.NewActiveRule;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.rule.RuleKey;
+
+/**
+ * A generated TTCN-3 project on disk, with the matching input files and active rules
+ * for running the sensor on a {@link SensorContextTester}.
+ */
+public final class SyntheticProject {
+	private static final String MODULE_KEY = "bench";
+
+	private final Path baseDir;
+	private final List<String> modules = new ArrayList<>();
+	private final List<DefaultInputFile> inputFiles = new ArrayList<>();
+	private final int moduleLines;
+
+	SyntheticProject(final Path baseDir, final int moduleLines) {
+		this.baseDir = baseDir;
+		this.moduleLines = moduleLines;
+	}
+
+	/**
+	 * Writes {@code moduleCount} modules of {@code moduleLines} lines each into a new temporary directory.
+	 * Every module imports its predecessor, so the import graph is a chain.
+	 */
+	public static SyntheticProject create(final int moduleCount, final int moduleLines) throws IOException {
+		final SyntheticProject project = new SyntheticProject(Files.createTempDirectory("ttcn3-bench"), moduleLines);
+		for (int i = 0; i < moduleCount; i++) {
+			project.addModule(i);
+		}
+		return project;
+	}
+
+	private void addModule(final int i) throws IOException {
+		final String name = "Module" + i;
+		final String relativePath = "src/group" + (i % 16) + "/" + name + ".ttcn";
+		final StringBuilder contents = new StringBuilder();
+		contents.append("module ").append(name).append(" {\n");
+		if (i > 0) {
+			contents.append("  import from Module").append(i - 1).append(" all;\n");
+		}
+		for (int line = i > 0 ? 2 : 1; line < moduleLines - 1; line++) {
+			contents.append("  const integer c_").append(line).append(" := ").append(line).append(";\n");
+		}
+		contents.append("}\n");
+		add(relativePath, contents.toString());
+	}
+
+	/**
+	 * Writes a module and adds it to the project.
+	 */
+	void add(final String relativePath, final String contents) throws IOException {
+		final Path file = baseDir.resolve(relativePath);
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, contents, StandardCharsets.UTF_8);
+
+		modules.add(relativePath);
+		inputFiles.add(TestInputFileBuilder.create(MODULE_KEY, relativePath)
+			.setModuleBaseDir(baseDir)
+			.setLanguage(Ttcn3Language.KEY)
+			.setCharset(StandardCharsets.UTF_8)
+			.initMetadata(contents)
+			.build());
+	}
+
+	public Path getBaseDir() {
+		return baseDir;
+	}
+
+	/**
+	 * @return the relative module paths
+	 */
+	public List<String> getModules() {
+		return modules;
+	}
+
+	public int getModuleLines() {
+		return moduleLines;
+	}
+
+	/**
+	 * @return a fresh sensor context holding every module of the project
+	 */
+	public SensorContextTester newContext() {
+		final SensorContextTester context = SensorContextTester.create(baseDir);
+		for (final DefaultInputFile inputFile : inputFiles) {
+			context.fileSystem().add(inputFile);
+		}
+		return context;
+	}
+
+	/**
+	 * @return the generic Titanium rule and every synthetic report rule as active rules
+	 */
+	public static ActiveRules activeRules() {
+		final ActiveRulesBuilder builder = new ActiveRulesBuilder();
+		for (final String rule : SyntheticReport.RULES) {
+			builder.addRule(new NewActiveRule.Builder().setRuleKey(RuleKey.of(Ttcn3Language.KEY, rule)).build());
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Deletes the project directory.
+	 */
+	public void delete() throws IOException {
+		try (final Stream<Path> paths = Files.walk(baseDir)) {
+			for (final Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates analyzer report lines for a set of module paths.
+ */
+public final class SyntheticReport {
+	/** custom issue format used with {@code sonar.titan.regex} */
+	public static final String CUSTOM_REGEX = "(?<file>[^|]+)\\|(?<line>[0-9]+)\\|(?<rulekey>[^|]+)\\|(?<message>.+)";
+
+	static final String[] RULES = {
+		"EmptyStatementBlock", "UnusedLocalDefinition", "UnreachableCode", "MagicNumber",
+		"TooManyParameters", "LazyParameter", "Titanium"
+	};
+
+	private static final String[] METRICS = {
+		"NOF_STATEMENTS", "NOF_FUNCTIONS", "LINES_OF_CODE", "EFFERENT_COUPLING", "INSTABILITY"
+	};
+
+	/**
+	 * Kinds of report lines
+	 */
+	public enum Kind {
+		/** issues in the default format */
+		ISSUE,
+		/** module metrics */
+		METRIC,
+		/** lines matching neither format, e.g. compiler noise */
+		UNMATCHED,
+		/** issues in the custom {@link #CUSTOM_REGEX} format */
+		CUSTOM,
+		/** 80% issues, 15% metrics, 5% unmatched */
+		MIXED
+	}
+
+	private SyntheticReport() {
+	}
+
+	/**
+	 * @param modules relative module paths
+	 * @param moduleLines number of lines of each module, issues are placed within that range
+	 */
+	public static String[] lines(final Kind kind, final int count, final List<String> modules, final int moduleLines) {
+		final Random random = new Random(count);
+		final String[] lines = new String[count];
+		for (int i = 0; i < count; i++) {
+			lines[i] = line(kind, i, random, modules, moduleLines);
+		}
+		return lines;
+	}
+
+	public static void write(final Path report, final Kind kind, final int count, final List<String> modules,
+			final int moduleLines) throws IOException {
+		final Random random = new Random(count);
+		try (final BufferedWriter writer = Files.newBufferedWriter(report)) {
+			for (int i = 0; i < count; i++) {
+				writer.write(line(kind, i, random, modules, moduleLines));
+				writer.write('\n');
+			}
+		}
+	}
+
+	private static String line(final Kind kind, final int i, final Random random, final List<String> modules,
+			final int moduleLines) {
+		Kind actual = kind;
+		if (kind == Kind.MIXED) {
+			final int roll = random.nextInt(100);
+			actual = roll < 80 ? Kind.ISSUE : roll < 95 ? Kind.METRIC : Kind.UNMATCHED;
+		}
+		final String module = modules.get(random.nextInt(modules.size()));
+		final int line = random.nextInt(moduleLines);
+		final String rule = RULES[random.nextInt(RULES.length)];
+		switch (actual) {
+		case ISSUE:
+			return module + ":::" + line + ":::Finding number " + i + " of " + rule + ":::" + rule;
+		case METRIC:
+			return module + "---" + METRICS[random.nextInt(METRICS.length)] + "---" + random.nextInt(1000);
+		case CUSTOM:
+			return module + "|" + line + "|" + rule + "|Finding number " + i + " of " + rule;
+		default:
+			return "Parsing module " + module + " took " + random.nextInt(100) + " ms";
+		}
+	}
+}
@@ -13,6 +13,7 @@ import org.eclipse.sonarttcn3.measures.ProjectMetrics;
 import org.eclipse.sonarttcn3.rules.TitanRulesDefinition;
 import org.eclipse.sonarttcn3.settings.Ttcn3Properties;
 import org.eclipse.sonarttcn3.web.CustomMetricsDefinition;
+import org.eclipse.sonarttcn3.web.ModuleMetricsWebService;
 
 import org.sonar.api.Plugin;
 
@@ -25,9 +26,11 @@ public class TitanPlugin implements Plugin {
 		context.addExtensions(Ttcn3Language.class, Ttcn3QualityProfile.class);
 		context.addExtensions(Ttcn3Properties.getProperties());
 		context.addExtension(CustomMetricsDefinition.class);
+		context.addExtension(ModuleMetricsWebService.class);
 		context.addExtension(ProjectMetrics.class);
 		context.addExtension(ModuleMetrics.class);
 		context.addExtension(TitanRulesDefinition.class);
 		context.addExtension(Ttcn3Sensor.class);
+		context.addExtension(Ttcn3TokenSensor.class);
 	}
 }
@@ -6,70 +6,74 @@
  ******************************************************************************/
 package org.eclipse.sonarttcn3;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.StringReader;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.regex.Matcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
+import org.eclipse.sonarttcn3.analyzer.Analyzer;
+import org.eclipse.sonarttcn3.analyzer.AnalyzerWatchdog;
+import org.eclipse.sonarttcn3.analyzer.BundledAnalyzer;
+import org.eclipse.sonarttcn3.analyzer.ChangedModulesAnalysis;
+import org.eclipse.sonarttcn3.analyzer.DaemonAnalyzer;
+import org.eclipse.sonarttcn3.analyzer.ForkedAnalyzer;
+import org.eclipse.sonarttcn3.analyzer.IncrementalAnalysis;
+import org.eclipse.sonarttcn3.analyzer.LocalResultCache;
+import org.eclipse.sonarttcn3.analyzer.MultiRootAnalyzer;
+import org.eclipse.sonarttcn3.analyzer.ReportFreshness;
 import org.eclipse.sonarttcn3.languages.Ttcn3Language;
-import org.eclipse.sonarttcn3.measures.ModuleMetrics;
-import org.eclipse.sonarttcn3.measures.ProjectMetrics;
-import org.eclipse.sonarttcn3.rules.TitanRulesDefinition;
+import org.eclipse.sonarttcn3.report.DeduplicatingSink;
+import org.eclipse.sonarttcn3.report.InputFileIndex;
+import org.eclipse.sonarttcn3.report.IssueAggregator;
+import org.eclipse.sonarttcn3.report.IssueExclusionFilter;
+import org.eclipse.sonarttcn3.report.ModuleMetricRollup;
+import org.eclipse.sonarttcn3.report.ReportBuffer;
+import org.eclipse.sonarttcn3.report.ReportFiles;
+import org.eclipse.sonarttcn3.report.ReportLineParser;
+import org.eclipse.sonarttcn3.report.ReportReader;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.eclipse.sonarttcn3.report.SensorContextSink;
+import org.eclipse.sonarttcn3.report.TimingSink;
 import org.eclipse.sonarttcn3.settings.Ttcn3Properties;
-import org.eclipse.titan.lsp.commandline.CommandLineConfiguration;
-import org.eclipse.titan.lsp.commandline.CommandLineExecutor;
+import org.eclipse.sonarttcn3.statistics.ScanStatistics;
+import org.eclipse.sonarttcn3.statistics.ScanStatistics.Counter;
+import org.eclipse.sonarttcn3.statistics.ScanStatistics.Phase;
+import org.eclipse.sonarttcn3.statistics.ThreadTimes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.sonar.api.batch.fs.FilePredicates;
-import org.sonar.api.batch.fs.FileSystem;
-import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.rule.ActiveRules;
-import org.sonar.api.batch.rule.CheckFactory;
-import org.sonar.api.batch.rule.Checks;
-import org.sonar.api.batch.rule.Severity;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
-import org.sonar.api.batch.sensor.issue.NewIssue;
-import org.sonar.api.measures.Metric;
-import org.sonar.api.rule.RuleKey;
-import org.sonar.api.rules.Rule;
+import org.sonar.api.notifications.AnalysisWarnings;
 import org.sonar.api.scanner.sensor.ProjectSensor;
 
 public class Ttcn3Sensor implements ProjectSensor {
-	private static final String REPORT_PATH_KEY = "sonar.ttcn3.reportPaths";
-
-	private static final String DEFAULT_REPORT_PATH = ".titan_compile"; 
 	private static final String REPORT_REGEX_DEF = "sonar.titan.regex";
-	private static final String DEFAULT_REGEX_DEF = "(?<file>[^:]+):::(?<line>[0-9]+):::(?<message>.+):::(?<rulekey>.+)";
-	private static final String DEFAULT_METRIC_REGEX_DEF = "(?<file>[^-]*)---(?<metric>[^-]+)---(?<value>[0-9]+)";
-	private static final String TTCN3 = Ttcn3Language.KEY;
-	
-	private static final String MATCH_GROUP_FILE = "file";
-	private static final String MATCH_GROUP_LINE = "line";
-	private static final String MATCH_GROUP_RULEKEY = "rulekey";
-	private static final String MATCH_GROUP_MESSAGE = "message";
-	private static final String MATCH_GROUP_METRIC_NAME = "metric";
-	private static final String MATCH_GROUP_METRIC_VALUE = "value";
+	private static final String STATISTICS_FILE = "ttcn3-statistics.json";
+	private static final String SONAR_USER_HOME = "sonar.userHome";
+	private static final String LOCAL_CACHE_DIRECTORY = "ttcn3-cache";
+	private static final int PARTITIONS_PER_WORKER_UNDER_TIME_BUDGET = 8;
+	private static final long MIN_WORKER_HEAP_MB = 128;
 
 	private static final Logger LOG = LoggerFactory.getLogger(Ttcn3Sensor.class);
 	
 	protected SensorContext context;
-	private final Checks<Rule> checks;
+	private ScanStatistics statistics;
 	private final ActiveRules activeRules;
+	private final AnalysisWarnings analysisWarnings;
 
-	private Pattern pattern;
-	private Pattern metricPattern;
-	private FileSystem fs;
-	private FilePredicates p;
-	
-	public Ttcn3Sensor(CheckFactory checkFactory, ActiveRules activeRules) {
+	public Ttcn3Sensor(ActiveRules activeRules, AnalysisWarnings analysisWarnings) {
 		this.activeRules = activeRules;	
-		checks = checkFactory.create(TTCN3);
-		checks.addAnnotatedChecks(TitanRulesDefinition.getRules());
+		this.analysisWarnings = analysisWarnings;
 	}
 	
 	@Override
@@ -83,24 +87,214 @@ public class Ttcn3Sensor implements ProjectSensor {
 		this.context = context;
 		LOG.info("TTCN3 Sonarqube plugin");
 
-		processReport();
+		statistics = new ScanStatistics();
+		try {
+			processReport();
+		} finally {
+			statistics.finish();
+			statistics.log(LOG);
+			exportStatistics();
+		}
+	}
+
+	private void exportStatistics() {
+		if (!context.config().getBoolean(Ttcn3Properties.STATISTICS_EXPORT_KEY).orElse(false)) {
+			return;
+		}
+		final Path file = context.fileSystem().workDir().toPath().resolve(STATISTICS_FILE);
+		try {
+			statistics.writeJson(file);
+			LOG.info("Scan statistics written to `{}`", file);
+		} catch (IOException e) {
+			LOG.error("Error while writing scan statistics `{}`: {}", file, e.getMessage());
+		}
 	}
 	
+	/**
+	 * @return the custom issue regex, or {@code null} if the default report format is used
+	 */
 	private String getRegex() {
-	    return context.config().get(REPORT_REGEX_DEF).orElse(DEFAULT_REGEX_DEF);
+	    return context.config().get(REPORT_REGEX_DEF).orElse(null);
 	}
 	
-	// TODO :: support for multiple paths
-	private String getReportPath() {
-	    return context.config().get(REPORT_PATH_KEY).orElse(DEFAULT_REPORT_PATH);
+	private String[] getReportPaths() {
+		final String[] paths = context.config().getStringArray(Ttcn3Properties.REPORT_PATHS_KEY);
+		return paths.length > 0 ? paths : new String[] { Ttcn3Properties.REPORT_PATHS_DEFAULT_VALUE };
+	}
+
+	private IssueAggregator createAggregator(final InputFileIndex index, final ReportRecordSink sink) {
+		return new IssueAggregator(index,
+			context.config().getBoolean(Ttcn3Properties.ISSUES_MERGE_SAME_LINE_KEY).orElse(false),
+			context.config().getInt(Ttcn3Properties.ISSUES_MAX_PER_RULE_KEY).filter(max -> max > 0).orElse(0),
+			context.config().getInt(Ttcn3Properties.ISSUES_MAX_PER_FILE_KEY).filter(max -> max > 0).orElse(0),
+			sink);
+	}
+
+	/**
+	 * The bundled analyzer is not thread safe, sub-roots are only analyzed at the same time by forked workers.
+	 * The daemon serves one request at a time and falls back to the bundled analyzer when it is not reachable.
+	 */
+	private Analyzer createAnalyzer() {
+		final BundledAnalyzer bundled = new BundledAnalyzer(context.config());
+		final String[] subRoots = getSubRoots();
+		final int configuredThreads = context.config().getInt(Ttcn3Properties.SUB_ROOTS_THREADS_KEY)
+			.filter(value -> value > 0)
+			.orElse(Ttcn3Properties.SUB_ROOTS_THREADS_DEFAULT_VALUE);
+		final int threads = isForked() ? configuredThreads : 1;
+		if (subRoots.length > 1 && configuredThreads > 1 && threads == 1) {
+			LOG.info("Sub-roots are analyzed one at a time, set {} to analyze them in parallel forked workers",
+				Ttcn3Properties.FORK_WORKERS_KEY);
+		}
+		final int concurrentRoots = subRoots.length == 0 ? 1 : Math.min(threads, subRoots.length);
+		final Analyzer analyzer = context.config().getInt(Ttcn3Properties.DAEMON_PORT_KEY)
+			.<Analyzer>map(port -> new DaemonAnalyzer(port,
+				context.config().get(Ttcn3Properties.DAEMON_TOKEN_FILE_KEY).map(Path::of).orElse(null), bundled))
+			.orElseGet(() -> createLocalAnalyzer(bundled, concurrentRoots));
+		if (subRoots.length == 0) {
+			return createWatchdog(analyzer);
+		}
+		return createWatchdog(new MultiRootAnalyzer(analyzer, List.of(subRoots), threads));
+	}
+
+	/**
+	 * The heap budget of a forked analyzer is enforced by the maximum heap of its workers, the watchdog only
+	 * checks it against the scanner heap for an analyzer running outside of forked workers.
+	 *
+	 * @return the analyzer limited to the configured time and heap budget, or the analyzer itself without a budget
+	 */
+	private Analyzer createWatchdog(final Analyzer analyzer) {
+		if (!hasBudget()) {
+			return analyzer;
+		}
+		final long minutes = context.config().getLong(Ttcn3Properties.ANALYZER_TIMEOUT_KEY).orElse(0L);
+		final long megabytes = isForked() ? 0 : getMaxHeapMb();
+		final String[] suffixes = context.config().getStringArray(Ttcn3Properties.FILE_SUFFIXES_KEY);
+		return new AnalyzerWatchdog(analyzer, Math.max(0, minutes) * 60_000, megabytes << 20,
+			context.fileSystem().workDir().toPath(),
+			suffixes.length > 0 ? suffixes : Ttcn3Properties.FILE_SUFFIXES_DEFAULT_VALUE.split(","), analysisWarnings);
+	}
+
+	private boolean hasBudget() {
+		return hasTimeBudget() || getMaxHeapMb() > 0;
+	}
+
+	private boolean hasTimeBudget() {
+		return context.config().getLong(Ttcn3Properties.ANALYZER_TIMEOUT_KEY).orElse(0L) > 0;
+	}
+
+	private long getMaxHeapMb() {
+		return Math.max(0, context.config().getLong(Ttcn3Properties.ANALYZER_MAX_HEAP_KEY).orElse(0L));
+	}
+
+	/**
+	 * @return whether the bundled analyzer runs in forked workers, see {@link #createLocalAnalyzer}
+	 */
+	private boolean isForked() {
+		return context.config().getInt(Ttcn3Properties.DAEMON_PORT_KEY).isEmpty()
+			&& (getForkWorkers() > 0 || hasBudget());
+	}
+
+	private int getForkWorkers() {
+		return context.config().getInt(Ttcn3Properties.FORK_WORKERS_KEY).filter(value -> value > 0).orElse(0);
+	}
+
+	/**
+	 * The bundled analyzer cannot be stopped inside the scanner JVM, under a time or heap budget it runs
+	 * in a single forked worker unless more are configured. The heap budget is shared by the workers of every
+	 * sub-root analyzed at the same time and gives their maximum heap. Under a time budget the modules are split
+	 * into several partitions per worker, so the partitions finished before the cancellation keep their records.
+	 *
+	 * @param concurrentRoots number of sub-roots analyzed at the same time, each with its own workers
+	 * @return an analyzer forking worker JVMs if configured or needed for the budget, the bundled analyzer otherwise
+	 */
+	private Analyzer createLocalAnalyzer(final BundledAnalyzer bundled, final int concurrentRoots) {
+		if (!isForked()) {
+			return bundled;
+		}
+		final int workers = Math.max(1, getForkWorkers());
+		final int partitions = hasTimeBudget() ? workers * PARTITIONS_PER_WORKER_UNDER_TIME_BUDGET : workers;
+		String maxHeap = context.config().get(Ttcn3Properties.FORK_MAX_HEAP_KEY).orElse(Ttcn3Properties.FORK_MAX_HEAP_DEFAULT_VALUE);
+		if (getMaxHeapMb() > 0) {
+			final long share = Math.max(MIN_WORKER_HEAP_MB, getMaxHeapMb() / ((long) workers * concurrentRoots));
+			LOG.info("Heap budget of {} MB shared by {} forked workers, -Xmx{}m each instead of -Xmx{}",
+				getMaxHeapMb(), (long) workers * concurrentRoots, share, maxHeap);
+			maxHeap = share + "m";
+		}
+		final String[] suffixes = context.config().getStringArray(Ttcn3Properties.FILE_SUFFIXES_KEY);
+		return new ForkedAnalyzer(bundled, workers, partitions, maxHeap,
+			context.config().get(Ttcn3Properties.FORK_STACK_SIZE_KEY).orElse(Ttcn3Properties.FORK_STACK_SIZE_DEFAULT_VALUE),
+			context.fileSystem().workDir().toPath(),
+			suffixes.length > 0 ? suffixes : Ttcn3Properties.FILE_SUFFIXES_DEFAULT_VALUE.split(","));
+	}
+
+	private String[] getSubRoots() {
+		return context.config().getStringArray(Ttcn3Properties.SUB_ROOTS_KEY);
+	}
+
+	/**
+	 * @return whether the scanner lets unchanged files be skipped, and the changed-only analysis is not disabled
+	 */
+	private boolean isChangedModulesOnly() {
+		return context.canSkipUnchangedFiles()
+			&& context.config().getBoolean(Ttcn3Properties.CHANGED_MODULES_ONLY_KEY).orElse(true);
+	}
+
+	private boolean isIncremental() {
+		return context.config().getBoolean(Ttcn3Properties.INCREMENTAL_KEY).orElse(true)
+			&& (context.isCacheEnabled() || getLocalCacheSize() > 0);
+	}
+
+	private double getMaxStaleRatio() {
+		return context.config().getDouble(Ttcn3Properties.REPORT_MAX_STALE_RATIO_KEY)
+			.filter(ratio -> ratio >= 0)
+			.orElse(Ttcn3Properties.REPORT_MAX_STALE_RATIO_DEFAULT_VALUE);
+	}
+
+	private long getLocalCacheSize() {
+		return context.config().getLong(Ttcn3Properties.LOCAL_CACHE_MAX_SIZE_KEY)
+			.orElse(Ttcn3Properties.LOCAL_CACHE_MAX_SIZE_DEFAULT_VALUE);
+	}
+
+	/**
+	 * The scanner cleans its work directory at the start of every scan, so the local cache lives in the Sonar user home.
+	 *
+	 * @return the local result cache, or {@code null} if it is disabled or cannot be opened
+	 */
+	private LocalResultCache openLocalCache(final Path baseDir) {
+		final long megabytes = getLocalCacheSize();
+		if (megabytes <= 0) {
+			return null;
+		}
+		final Path root = context.config().get(Ttcn3Properties.LOCAL_CACHE_PATH_KEY)
+			.map(baseDir::resolve)
+			.orElseGet(() -> Path.of(context.config().get(SONAR_USER_HOME)
+				.orElse(Path.of(System.getProperty("user.home"), ".sonar").toString()), LOCAL_CACHE_DIRECTORY));
+		try {
+			return LocalResultCache.open(root, BundledAnalyzer.getVersion(), megabytes << 20);
+		} catch (IOException e) {
+			LOG.warn("Local result cache `{}` cannot be used: {}", root, e.getMessage());
+			return null;
+		}
+	}
+
+	private int getReportThreads() {
+		return context.config().getInt(Ttcn3Properties.REPORT_THREADS_KEY)
+			.filter(threads -> threads > 0)
+			.orElse(Runtime.getRuntime().availableProcessors());
+	}
+
+	private long getParallelThreshold() {
+		return context.config().getLong(Ttcn3Properties.REPORT_PARALLEL_THRESHOLD_KEY)
+			.filter(megabytes -> megabytes >= 0)
+			.orElse(Ttcn3Properties.REPORT_PARALLEL_THRESHOLD_DEFAULT_VALUE) * 1024 * 1024;
 	}
 
 	private boolean checkMandatoryMatchingGroups(final String regex) {
 		final String[] groups = { 
-			MATCH_GROUP_FILE,
-			MATCH_GROUP_LINE,
-			MATCH_GROUP_MESSAGE,
-			MATCH_GROUP_RULEKEY
+			ReportLineParser.MATCH_GROUP_FILE,
+			ReportLineParser.MATCH_GROUP_LINE,
+			ReportLineParser.MATCH_GROUP_MESSAGE,
+			ReportLineParser.MATCH_GROUP_RULEKEY
 		};
 
 		boolean isMissing = false;
@@ -115,148 +309,219 @@ public class Ttcn3Sensor implements ProjectSensor {
 	}
 
 	protected void processReport() {
-	    String reportRegex = getRegex();
-	    LOG.debug("Using regex {}", reportRegex);
-
-	    pattern = null;
-		metricPattern = null;
-	    try {
-	    	pattern = Pattern.compile(reportRegex);
-			metricPattern = Pattern.compile(DEFAULT_METRIC_REGEX_DEF);
-	    } catch (PatternSyntaxException e) {
-	    	LOG.error("Failed to compile report regex.");
-	    	return;
+	    final String reportRegex = getRegex();
+	    Pattern pattern = null;
+	    if (reportRegex != null) {
+		    LOG.debug("Using regex {}", reportRegex);
+		    try {
+		    	pattern = Pattern.compile(reportRegex);
+		    } catch (PatternSyntaxException e) {
+		    	LOG.error("Failed to compile report regex.");
+		    	return;
+		    }
+			if (checkMandatoryMatchingGroups(reportRegex)) {
+				return;
+			}
 	    }
-		if (checkMandatoryMatchingGroups(reportRegex)) {
-			return;
-		}
 
-		final String reportPath = getReportPath();
-	    LOG.info("Report path: {}", reportPath);
+		final String[] reportPaths = getReportPaths();
+	    LOG.info("Report paths: {}", String.join(",", reportPaths));
 
-		fs = context.fileSystem();
-	    p = fs.predicates();
+		final InputFileIndex index = new InputFileIndex(context.fileSystem());
+		final SensorContextSink sink = new SensorContextSink(context, activeRules, index);
+		final ModuleMetricRollup rollup = new ModuleMetricRollup(index, sink);
+		final IssueAggregator aggregator = createAggregator(index, rollup);
 	    final Path baseDir = context.fileSystem().baseDir().toPath();
-		final Path report = baseDir.resolve(reportPath);
-
-		if (!Files.exists(report)) {
-			LOG.info("Report file `{}` not found, executing compiler", report);
-			final CommandLineConfiguration config = new CommandLineConfiguration();
-			config.rootFolder = fs.baseDir().getAbsolutePath();
-			config.saFormat = "%f:::%l:::%m:::%k";
-			config.suppressStdout = true;
-			config.ttcnErrorMarkers = false;
-			config.ttcnWarningMarkers = false;
-			config.showMetrics = true;
-			config.oopEnabled = context.config().getBoolean(Ttcn3Properties.ENABLE_OOP_KEY).orElse(false);
-			config.realtimeEnabled = context.config().getBoolean(Ttcn3Properties.ENABLE_REALTIME_KEY).orElse(false);
-			final CommandLineExecutor executor = new CommandLineExecutor(config);
-			String analyzerOutput = "";
-			try {
-				analyzerOutput = executor.runCommandLineAnalyzer();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+		final List<Path> reports = ReportFiles.resolve(baseDir, reportPaths);
 
-			try (final BufferedReader br = new BufferedReader(new StringReader(analyzerOutput))) {
-				processReader(br);
+		final ReportFreshness freshness = reports.isEmpty() ? null : ReportFreshness.check(index, reports, getMaxStaleRatio());
+		if (freshness == null || freshness.getDecision() == ReportFreshness.Decision.FULL) {
+			LOG.info(freshness == null ? "No report file found, executing compiler" : "Executing compiler instead of reading the stale reports");
+			final Analyzer analyzer = createAnalyzer();
+			/** sub-roots sharing a module would report it more than once */
+			final IssueExclusionFilter exclusions = createExclusions(baseDir,
+				getSubRoots().length > 0 ? new DeduplicatingSink(index, aggregator) : aggregator);
+			final TimingSink timed = new TimingSink(exclusions);
+			final long start = System.nanoTime();
+			boolean partial = false;
+			if (isChangedModulesOnly()) {
+				final ChangedModulesAnalysis changed = new ChangedModulesAnalysis(context, index, analyzer);
+				changed.analyze(timed);
+				partial = changed.isPartial();
+			} else if (isIncremental()) {
+				new IncrementalAnalysis(context, index, analyzer, openLocalCache(baseDir)).analyze(timed);
+			} else {
+				analyzer.analyze(baseDir, timed);
 			}
-	        catch (IOException e) {
-	            e.printStackTrace();
-	        }
-
+			statistics.addTime(Phase.ANALYZER, System.nanoTime() - start - timed.getDownstreamNanos());
+			countRecords(timed, 0);
+			countExclusions(exclusions);
+			aggregator.flush();
+			if (partial) {
+				/** roll-ups of the changed modules alone would replace those of the whole project on the server */
+				LOG.info("Module metric roll-ups skipped, only the changed modules were analyzed");
+			} else {
+				rollup.save(context);
+			}
+			collectStatistics(index, sink);
+			logPlacementSummary(index, sink);
 			return;
 		}
 
-		try (final BufferedReader br = Files.newBufferedReader(report)) {
-			processReader(br);
+		/**
+		 * several reports are merged, identical findings are kept once even if a report repeats them; the findings
+		 * of a single report go to the aggregator as they are, which counts repeats as occurrences when same-line
+		 * merging is on and collapses them otherwise
+		 */
+		final DeduplicatingSink merger = reports.size() > 1 ? new DeduplicatingSink(index, aggregator) : null;
+		final IssueExclusionFilter exclusions = createExclusions(baseDir, merger != null ? merger : aggregator);
+		final TimingSink timed = new TimingSink(freshness.skipRegenerated(exclusions));
+		final long start = System.nanoTime();
+		final long unmatched;
+		final long readNanos;
+		final long replaced;
+		if (reports.size() == 1) {
+			final ReportReader reader = new ReportReader(pattern, getParallelThreshold(), getReportThreads());
+			unmatched = parseReport(reports.get(0), timed, reader);
+			readNanos = reader.getReadNanos();
+			replaced = reader.getReplacementCount();
+		} else {
+			final ThreadTimes readTimes = new ThreadTimes();
+			final LongAdder replacements = new LongAdder();
+			unmatched = parseReports(reports, timed, pattern, readTimes, replacements);
+			readNanos = readTimes.getMax();
+			replaced = replacements.sum();
+		}
+		final long readingAndParsing = System.nanoTime() - start - timed.getDownstreamNanos();
+		statistics.addTime(Phase.REPORT_READING, Math.min(readNanos, readingAndParsing));
+		statistics.addTime(Phase.LINE_PARSING, readingAndParsing - Math.min(readNanos, readingAndParsing));
+		countRecords(timed, unmatched);
+		statistics.add(Counter.REPLACED_CHARACTERS, replaced);
+		if (replaced > 0) {
+			LOG.warn("{} malformed UTF-8 sequences in the reports replaced by U+FFFD", replaced);
+		}
+		if (freshness.getDecision() == ReportFreshness.Decision.PARTIAL) {
+			final TimingSink regenerated = new TimingSink(exclusions);
+			final long analyzerStart = System.nanoTime();
+			final boolean success = freshness.regenerate(context, createAnalyzer(), regenerated);
+			statistics.addTime(Phase.ANALYZER, System.nanoTime() - analyzerStart - regenerated.getDownstreamNanos());
+			countRecords(regenerated, 0);
+			if (!success) {
+				analysisWarnings.addUnique(String.format(Locale.ROOT,
+					"The TTCN3 analyzer failed to regenerate the stale modules, the findings of %d modules come from "
+					+ "the stale reports and may be out of date", freshness.getStaleFallbackCount()));
+			}
+		}
+		countExclusions(exclusions);
+		if (unmatched > 0) {
+			LOG.info("{} report lines skipped as unmatched", unmatched);
 		}
-		catch (IOException e) {
-			LOG.error("Error while reading compilation file.");
+		if (merger != null && (merger.getDuplicateIssueCount() > 0 || merger.getConflictingMetricCount() > 0)) {
+			LOG.info("Merged {} duplicate issues and {} conflicting metric values across reports",
+				merger.getDuplicateIssueCount(), merger.getConflictingMetricCount());
 		}
+		aggregator.flush();
+		rollup.save(context);
+		collectStatistics(index, sink);
+		logPlacementSummary(index, sink);
 	}
 
-	private void processReader(final BufferedReader reader) throws IOException {
-		String str;
-		while ((str = reader.readLine()) != null) {
-			processLine(str);
+	/**
+	 * The exclusions come first in the chain, so excluded findings are never resolved to input files.
+	 */
+	private IssueExclusionFilter createExclusions(final Path baseDir, final ReportRecordSink next) {
+		return IssueExclusionFilter.create(context.config().getStringArray(Ttcn3Properties.ISSUES_EXCLUSIONS_KEY), baseDir, next);
+	}
+
+	private void countExclusions(final IssueExclusionFilter exclusions) {
+		statistics.add(Counter.EXCLUDED_ISSUES, exclusions.getExcludedCount());
+		if (exclusions.getExcludedCount() > 0) {
+			LOG.info("{} issues excluded by sonar.ttcn3.issues.exclusions", exclusions.getExcludedCount());
 		}
 	}
 
-	private void processLine(final String inputLine) {
-		final Matcher matcher = pattern.matcher(inputLine);
-		if (matcher.matches()) {
-			final String filename = matcher.group(MATCH_GROUP_FILE);
-			final String line = matcher.group(MATCH_GROUP_LINE);
-			final String message = matcher.group(MATCH_GROUP_MESSAGE);
-			final String rulekey = matcher.group(MATCH_GROUP_RULEKEY);
-			
-			int lineNr = 0;
-			try {
-				/** Sonarqube line numbers start from 1, while titan indexes from 0 */
-				lineNr = Integer.parseInt(line) + 1;
-				if (lineNr < 1) {
-					return;
-				}
-			} catch (NumberFormatException e) {
-				LOG.warn("Illegal line number {}", lineNr);
-				return;
-			}
-			
-			RuleKey key = RuleKey.of(TTCN3, rulekey);
-			if (activeRules.find(key) == null) {
-				key = RuleKey.of(TTCN3, "Titanium");
+	private void countRecords(final TimingSink timed, final long unmatched) {
+		statistics.add(Counter.ISSUE_RECORDS, timed.getIssueCount());
+		statistics.add(Counter.METRIC_RECORDS, timed.getMetricCount());
+		statistics.add(Counter.UNMATCHED_LINES, unmatched);
+		statistics.add(Counter.REPORT_LINES, timed.getIssueCount() + timed.getMetricCount() + unmatched);
+	}
+
+	private void collectStatistics(final InputFileIndex index, final SensorContextSink sink) {
+		statistics.addTime(Phase.FILE_RESOLUTION, index.getLookupNanos());
+		statistics.addTime(Phase.ISSUE_SAVES, sink.getIssueSaveNanos());
+		statistics.addTime(Phase.MEASURE_SAVES, sink.getMeasureSaveNanos());
+		statistics.add(Counter.FILE_LOOKUPS, index.getLookupCount());
+		statistics.add(Counter.UNKNOWN_FILES, index.getUnknownFileCount());
+		statistics.add(Counter.OUT_OF_RANGE_ISSUES, sink.getLineOutOfRangeCount());
+		statistics.add(Counter.SAVED_ISSUES, sink.getSavedIssueCount());
+		statistics.add(Counter.SAVED_MEASURES, sink.getSavedMeasureCount());
+	}
+
+	/**
+	 * Parses a single report straight into the sink.
+	 *
+	 * @return the number of unmatched lines
+	 */
+	private long parseReport(final Path report, final ReportRecordSink sink, final ReportReader reader) {
+		LOG.info("Reading report `{}`", report);
+		try {
+			return reader.read(report, sink);
+		} catch (IOException e) {
+			LOG.error("Error while reading compilation file `{}`: {}", report, e.getMessage());
+			return 0;
+		}
+	}
+
+	/**
+	 * Parses the reports concurrently on a bounded pool, then replays them on the sensor thread
+	 * in report order, as sensor context saves are not thread-safe.
+	 * The reports are already read in parallel, each of them is parsed on a single thread.
+	 *
+	 * @param readTimes receives the read time of every report, on the thread that read it
+	 * @param replacements receives the number of malformed UTF-8 sequences replaced
+	 * @return the number of unmatched lines
+	 */
+	private long parseReports(final List<Path> reports, final ReportRecordSink sink, final Pattern pattern,
+			final ThreadTimes readTimes, final LongAdder replacements) {
+		final int threads = Math.min(reports.size(), getReportThreads());
+		LOG.info("Reading {} reports on {} threads", reports.size(), threads);
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		final List<Future<ReportBuffer>> buffers = new ArrayList<>();
+		final AtomicLong unmatched = new AtomicLong();
+		try {
+			for (final Path report : reports) {
+				buffers.add(pool.submit(() -> {
+					final ReportBuffer buffer = new ReportBuffer();
+					final ReportReader reader = new ReportReader(pattern, getParallelThreshold(), 1);
+					unmatched.addAndGet(parseReport(report, buffer, reader));
+					readTimes.add(reader.getReadNanos());
+					replacements.add(reader.getReplacementCount());
+					return buffer;
+				}));
 			}
-			if (fs.hasFiles(p.hasPath(filename))) {
-				final InputFile input = fs.inputFile(p.hasPath(filename));
-				final NewIssue newIssue = context.newIssue();
+			for (int i = 0; i < buffers.size(); i++) {
 				try {
-					newIssue
-						.forRule(key)
-						.at(newIssue.newLocation()
-							.on(input)
-							.at(input.selectLine(lineNr))
-							.message(message))
-						.overrideSeverity(Severity.MINOR)
-						.save();
-				} catch (IllegalArgumentException e) {
-					LOG.warn("File `{}` has no line number {}", filename, lineNr);
-				}
-			}
-		} 
-		
-		final Matcher metricMatcher = metricPattern.matcher(inputLine);
-		if (metricMatcher.matches()) {
-			final String file = metricMatcher.group(MATCH_GROUP_FILE);
-			final String metric = metricMatcher.group(MATCH_GROUP_METRIC_NAME);
-			final String value = metricMatcher.group(MATCH_GROUP_METRIC_VALUE);
-			
-			if (file.isEmpty()) {
-				// Project metric
-				Metric<Integer> projectMetric = ProjectMetrics.getMetric(metric);
-				if (projectMetric != null) {
-					context.<Integer>newMeasure()
-						.forMetric(projectMetric)
-						.withValue(Integer.parseInt(value))
-						.on(context.project())
-						.save();
-				}
-			} else {
-				// file metric
-				Metric<Integer> moduleMetric = ModuleMetrics.getMetric(metric);
-				if (moduleMetric != null) {
-					final InputFile input = fs.inputFile(fs.predicates().hasRelativePath(file));
-					if (input != null) {
-						context.<Integer>newMeasure()
-							.forMetric(moduleMetric)
-							.withValue(Integer.parseInt(value))
-							.on(input)
-							.save();
-					} else {
-						LOG.error("File not found: " + file);
-					}
+					buffers.get(i).get().replay(sink);
+				} catch (ExecutionException e) {
+					LOG.error("Error while reading report `{}`", reports.get(i), e.getCause());
 				}
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOG.error("Interrupted while reading reports");
+		} finally {
+			pool.shutdownNow();
+		}
+		return unmatched.get();
+	}
+
+	private void logPlacementSummary(final InputFileIndex index, final SensorContextSink sink) {
+		if (index.getUnknownFileCount() > 0) {
+			LOG.warn("{} records skipped for {} unknown files", index.getUnknownLookupCount(), index.getUnknownFileCount());
+		}
+		if (sink.getLineOutOfRangeCount() > 0) {
+			LOG.warn("{} issues skipped with out of range line numbers", sink.getLineOutOfRangeCount());
 		}
 	}
 }
@@ -0,0 +1,152 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3;
+
+import java.nio.CharBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.sonarttcn3.analyzer.ModuleGraph;
+import org.eclipse.sonarttcn3.languages.Ttcn3Language;
+import org.eclipse.sonarttcn3.lexer.LexedFile;
+import org.eclipse.sonarttcn3.lexer.SourceReader;
+import org.eclipse.sonarttcn3.lexer.Ttcn3Lexer;
+import org.eclipse.sonarttcn3.lexer.TokenType;
+import org.eclipse.sonarttcn3.settings.Ttcn3Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.cpd.NewCpdTokens;
+import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.scanner.sensor.ProjectSensor;
+
+/**
+ * Saves the syntax highlighting, the copy-paste detection tokens and the {@code ncloc} and {@code comment_lines}
+ * measures of the TTCN-3 and ASN.1 files, from a single pass of {@link Ttcn3Lexer} over each file.
+ * <p>
+ * Files are read and lexed in parallel, the results are saved on the sensor thread as they complete.
+ * At most a few files per thread are lexed ahead of the saves, so memory does not grow with the project.
+ */
+public class Ttcn3TokenSensor implements ProjectSensor {
+	private static final Logger LOG = LoggerFactory.getLogger(Ttcn3TokenSensor.class);
+	private static final int FILES_AHEAD_PER_THREAD = 4;
+
+	private final ThreadLocal<SourceReader> readers = ThreadLocal.withInitial(SourceReader::new);
+
+	@Override
+	public void describe(SensorDescriptor descriptor) {
+		descriptor.name("TTCN3 highlighting, duplication tokens and size measures");
+		descriptor.onlyOnLanguage(Ttcn3Language.KEY);
+	}
+
+	@Override
+	public void execute(SensorContext context) {
+		final FileSystem fs = context.fileSystem();
+		final List<InputFile> files = new ArrayList<>();
+		for (final InputFile inputFile : fs.inputFiles(fs.predicates().hasLanguage(Ttcn3Language.KEY))) {
+			if (!context.canSkipUnchangedFiles() || inputFile.status() != InputFile.Status.SAME) {
+				files.add(inputFile);
+			}
+		}
+		if (files.isEmpty()) {
+			return;
+		}
+
+		final int threads = Math.min(getThreads(context), files.size());
+		final long start = System.nanoTime();
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		long tokens = 0;
+		try {
+			final Deque<Pending> pending = new ArrayDeque<>();
+			for (final InputFile inputFile : files) {
+				if (pending.size() >= threads * FILES_AHEAD_PER_THREAD) {
+					tokens += save(context, pending.poll());
+				}
+				pending.add(new Pending(inputFile, executor.submit(() -> lex(inputFile))));
+			}
+			while (!pending.isEmpty()) {
+				tokens += save(context, pending.poll());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOG.warn("Lexing interrupted");
+		} finally {
+			executor.shutdownNow();
+		}
+		LOG.info("Lexed {} files ({} tokens) with {} threads in {} ms", files.size(), tokens, threads,
+			(System.nanoTime() - start) / 1_000_000);
+	}
+
+	private LexedFile lex(final InputFile inputFile) throws Exception {
+		final CharBuffer content = readers.get().read(Path.of(inputFile.uri()), inputFile.charset());
+		return Ttcn3Lexer.lex(content.array(), content.limit(), ModuleGraph.isAsn1(inputFile.filename()));
+	}
+
+	/**
+	 * @return the number of tokens saved
+	 */
+	private static int save(final SensorContext context, final Pending pending) throws InterruptedException {
+		final InputFile inputFile = pending.inputFile();
+		final LexedFile lexed;
+		try {
+			lexed = pending.result().get();
+		} catch (ExecutionException e) {
+			LOG.warn("Failed to read {}: {}", inputFile, e.getCause().getMessage());
+			return 0;
+		}
+
+		/** duplications and size measures are only computed for main files */
+		final boolean main = inputFile.type() == InputFile.Type.MAIN;
+		try {
+			final NewHighlighting highlighting = context.newHighlighting().onFile(inputFile);
+			final NewCpdTokens cpdTokens = main ? context.newCpdTokens().onFile(inputFile) : null;
+			for (int token = 0; token < lexed.getTokenCount(); token++) {
+				final TokenType type = lexed.getType(token);
+				if (type.getHighlighting() != null) {
+					highlighting.highlight(lexed.getStartLine(token), lexed.getStartOffset(token),
+						lexed.getEndLine(token), lexed.getEndOffset(token), type.getHighlighting());
+				}
+				if (cpdTokens != null && !type.isComment()) {
+					cpdTokens.addToken(lexed.getStartLine(token), lexed.getStartOffset(token),
+						lexed.getEndLine(token), lexed.getEndOffset(token), lexed.getImage(token));
+				}
+			}
+			highlighting.save();
+			if (main) {
+				cpdTokens.save();
+				context.<Integer>newMeasure().on(inputFile).forMetric(CoreMetrics.NCLOC)
+					.withValue(lexed.getCodeLines()).save();
+				context.<Integer>newMeasure().on(inputFile).forMetric(CoreMetrics.COMMENT_LINES)
+					.withValue(lexed.getCommentLines()).save();
+			}
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			/** token ranges not matching the file, e.g. decoded with a different charset than the one indexed */
+			LOG.warn("Failed to save the tokens of {}: {}", inputFile, e.getMessage());
+			return 0;
+		}
+		return lexed.getTokenCount();
+	}
+
+	private static int getThreads(final SensorContext context) {
+		return context.config().getInt(Ttcn3Properties.LEXER_THREADS_KEY)
+			.filter(threads -> threads > 0)
+			.orElse(Runtime.getRuntime().availableProcessors());
+	}
+
+	private record Pending(InputFile inputFile, Future<LexedFile> result) {}
+}
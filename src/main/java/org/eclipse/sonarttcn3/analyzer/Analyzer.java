@@ -0,0 +1,28 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.nio.file.Path;
+
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+
+/**
+ * Runs the Titan compiler and the Titanium static analyzer on a root folder.
+ */
+public interface Analyzer {
+	/**
+	 * Analyzes every module under the root folder and passes the findings to the sink.
+	 *
+	 * @return {@code false} if the analyzer failed
+	 */
+	boolean analyze(Path rootFolder, ReportRecordSink sink);
+
+	/**
+	 * @return a key identifying the analyzer version and the settings that affect its results
+	 */
+	String getSettingsKey();
+}
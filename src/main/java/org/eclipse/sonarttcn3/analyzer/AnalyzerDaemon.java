@@ -0,0 +1,195 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import org.eclipse.sonarttcn3.report.ReportLineWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long-lived analyzer process. Repeated analyses run on a warm JVM, with the Titan classes
+ * already loaded and compiled, instead of starting from scratch inside every scanner run.
+ * <p>
+ * The daemon only listens on the loopback interface and serves one request at a time. On startup it writes
+ * a random token to a file only its owner can read and rejects requests without it (see {@link DaemonProtocol}).
+ * Usage: {@code AnalyzerDaemon [--port N] [--idle-minutes N] [--token-file PATH]}
+ */
+public final class AnalyzerDaemon {
+	public static final int DEFAULT_PORT = 7450;
+
+	private static final Logger LOG = LoggerFactory.getLogger(AnalyzerDaemon.class);
+
+	private static final int TOKEN_BYTES = 32;
+
+	private final Map<String, BundledAnalyzer> analyzers = new HashMap<>();
+	private byte[] token;
+
+	private AnalyzerDaemon() {
+	}
+
+	public static void main(final String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		int idleMinutes = 0;
+		Path tokenFile = null;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+			case "--port":
+				port = Integer.parseInt(args[i + 1]);
+				break;
+			case "--idle-minutes":
+				idleMinutes = Integer.parseInt(args[i + 1]);
+				break;
+			case "--token-file":
+				tokenFile = Path.of(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+		}
+		new AnalyzerDaemon().serve(port, idleMinutes, tokenFile != null ? tokenFile : DaemonProtocol.defaultTokenFile(port));
+	}
+
+	private void serve(final int port, final int idleMinutes, final Path tokenFile) throws IOException {
+		try (final ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			if (idleMinutes > 0) {
+				server.setSoTimeout(idleMinutes * 60_000);
+			}
+			writeToken(tokenFile);
+			LOG.info("TTCN3 analyzer daemon listening on port {}, token written to `{}`", server.getLocalPort(), tokenFile);
+			try {
+				accept(server, idleMinutes);
+			} finally {
+				Files.deleteIfExists(tokenFile);
+			}
+		}
+	}
+
+	/**
+	 * Writes a new token to a file created readable and writable by its owner only.
+	 */
+	private void writeToken(final Path tokenFile) throws IOException {
+		final byte[] secret = new byte[TOKEN_BYTES];
+		new SecureRandom().nextBytes(secret);
+		final String hex = HexFormat.of().formatHex(secret);
+		token = hex.getBytes(StandardCharsets.UTF_8);
+
+		final Path parent = tokenFile.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Files.deleteIfExists(tokenFile);
+		if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			Files.createFile(tokenFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} else {
+			Files.createFile(tokenFile);
+			final File file = tokenFile.toFile();
+			if (!(file.setReadable(false, false) && file.setReadable(true, true)
+					&& file.setWritable(false, false) && file.setWritable(true, true))) {
+				throw new IOException("Cannot restrict the access to the token file `" + tokenFile + "`");
+			}
+		}
+		Files.writeString(tokenFile, hex + "\n", StandardCharsets.UTF_8);
+	}
+
+	private void accept(final ServerSocket server, final int idleMinutes) {
+		while (true) {
+			try (final Socket socket = server.accept()) {
+				if (!handle(socket)) {
+					LOG.info("TTCN3 analyzer daemon stopped");
+					return;
+				}
+			} catch (SocketTimeoutException e) {
+				LOG.info("TTCN3 analyzer daemon idle for {} minutes, stopping", idleMinutes);
+				return;
+			} catch (IOException e) {
+				LOG.warn("Request failed", e);
+			}
+		}
+	}
+
+	/**
+	 * @return {@code false} if the daemon should stop
+	 */
+	private boolean handle(final Socket socket) throws IOException {
+		final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+		final Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+		final String command = in.readLine();
+		if (command == null) {
+			return true;
+		}
+		final Map<String, String> headers = new HashMap<>();
+		String line;
+		while ((line = in.readLine()) != null && !line.isEmpty()) {
+			final int separator = line.indexOf('=');
+			if (separator > 0) {
+				headers.put(line.substring(0, separator), line.substring(separator + 1));
+			}
+		}
+
+		final String requestToken = headers.get(DaemonProtocol.TOKEN);
+		if (requestToken == null || !MessageDigest.isEqual(token, requestToken.getBytes(StandardCharsets.UTF_8))) {
+			LOG.warn("Request from port {} rejected, it has no valid token", socket.getPort());
+			fail(out, "invalid token");
+			return true;
+		}
+		if (command.equals(DaemonProtocol.SHUTDOWN)) {
+			out.write(DaemonProtocol.END + DaemonProtocol.OK + "\n");
+			out.flush();
+			return false;
+		}
+		if (!command.equals(DaemonProtocol.ANALYZE + " " + DaemonProtocol.VERSION)) {
+			fail(out, "unsupported request `" + command + "`");
+			return true;
+		}
+
+		final String root = headers.get(DaemonProtocol.ROOT);
+		if (root == null || !Files.isDirectory(Path.of(root))) {
+			fail(out, "root folder `" + root + "` not found");
+			return true;
+		}
+		final boolean oop = Boolean.parseBoolean(headers.get(DaemonProtocol.OOP));
+		final boolean realtime = Boolean.parseBoolean(headers.get(DaemonProtocol.REALTIME));
+		final BundledAnalyzer analyzer = analyzers.computeIfAbsent(oop + "/" + realtime,
+			key -> new BundledAnalyzer(oop, realtime));
+
+		final long start = System.currentTimeMillis();
+		final boolean success = analyzer.analyze(Path.of(root), new ReportLineWriter(out));
+		LOG.info("Analyzed `{}` in {} ms", root, System.currentTimeMillis() - start);
+		if (success) {
+			out.write(DaemonProtocol.END + DaemonProtocol.OK + "\n");
+			out.flush();
+		} else {
+			fail(out, "analyzer failed");
+		}
+		return true;
+	}
+
+	private static void fail(final Writer out, final String message) throws IOException {
+		out.write(DaemonProtocol.END + DaemonProtocol.ERROR + " " + message + "\n");
+		out.flush();
+	}
+}
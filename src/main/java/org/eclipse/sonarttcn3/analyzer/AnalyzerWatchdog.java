@@ -0,0 +1,259 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import com.sun.management.GcInfo;
+import org.eclipse.sonarttcn3.report.ReportBuffer;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.notifications.AnalysisWarnings;
+
+/**
+ * Enforces a time and heap budget on the runs of an analyzer.
+ * <p>
+ * The analyzer runs on its own thread, polled by the calling thread. Its records are buffered and replayed on the
+ * calling thread once the run is over, as the sinks of the sensor are not thread safe. When the run takes longer than
+ * the time budget, or the heap still in use after garbage collections grows above the heap budget, it is interrupted:
+ * forked workers are killed and the partitions and sub-roots already finished pass on their records. The sensor runs
+ * the bundled analyzer in a forked worker under a budget for this reason; an analyzer running in the scanner JVM does
+ * not react to interruption, its thread is abandoned. Records arriving after a grace period are rejected, and
+ * everything received until then is replayed.
+ * <p>
+ * The modules of the run without a single record are listed in a warning, shown in the Sonarqube UI as well,
+ * and in {@value #UNANALYZED_MODULES_FILE} in the work directory.
+ */
+public class AnalyzerWatchdog implements Analyzer {
+	public static final String UNANALYZED_MODULES_FILE = "ttcn3-unanalyzed-modules.txt";
+
+	private static final Logger LOG = LoggerFactory.getLogger(AnalyzerWatchdog.class);
+	private static final long POLL_MILLIS = 200;
+	private static final long GRACE_MILLIS = 30_000;
+	private static final int LOGGED_MODULES = 20;
+
+	private final Analyzer analyzer;
+	private final long timeoutMillis;
+	private final long maxHeapBytes;
+	private final Path workDir;
+	private final String[] suffixes;
+	private final AnalysisWarnings warnings;
+
+	/**
+	 * @param timeoutMillis time budget of a run, 0 for none
+	 * @param maxHeapBytes heap budget of the scanner JVM, 0 for none
+	 * @param workDir directory of the list of unanalyzed modules
+	 * @param suffixes file suffixes of the analyzed modules
+	 */
+	public AnalyzerWatchdog(final Analyzer analyzer, final long timeoutMillis, final long maxHeapBytes, final Path workDir,
+			final String[] suffixes, final AnalysisWarnings warnings) {
+		this.analyzer = analyzer;
+		this.timeoutMillis = timeoutMillis;
+		this.maxHeapBytes = maxHeapBytes;
+		this.workDir = workDir.toAbsolutePath();
+		this.suffixes = suffixes.clone();
+		this.warnings = warnings;
+	}
+
+	@Override
+	public String getSettingsKey() {
+		return analyzer.getSettingsKey();
+	}
+
+	@Override
+	public boolean analyze(final Path rootFolder, final ReportRecordSink sink) {
+		if (timeoutMillis <= 0 && maxHeapBytes <= 0) {
+			return analyzer.analyze(rootFolder, sink);
+		}
+
+		final Path root = rootFolder.toAbsolutePath().normalize();
+		final GuardedBuffer guarded = new GuardedBuffer(root);
+		final boolean[] success = new boolean[1];
+		final Thread thread = new Thread(() -> {
+			try {
+				success[0] = analyzer.analyze(rootFolder, guarded);
+			} catch (CancellationException e) {
+				LOG.debug("Analyzer run on `{}` stopped after cancellation", root);
+			}
+		}, "ttcn3-analyzer");
+		thread.setDaemon(true);
+
+		final long start = System.nanoTime();
+		thread.start();
+		String exceeded = null;
+		try {
+			while (exceeded == null) {
+				thread.join(POLL_MILLIS);
+				if (!thread.isAlive()) {
+					guarded.replay(sink);
+					return success[0];
+				}
+				exceeded = checkBudget(start);
+			}
+
+			LOG.warn("The analyzer exceeded its {}, cancelling it", exceeded);
+			thread.interrupt();
+			thread.join(GRACE_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			thread.interrupt();
+			guarded.replay(sink);
+			LOG.error("Interrupted while waiting for the analyzer");
+			return false;
+		}
+		if (thread.isAlive()) {
+			LOG.warn("The analyzer did not stop within {} s, abandoning its thread", GRACE_MILLIS / 1000);
+		}
+		guarded.replay(sink);
+		reportUnanalyzed(root, guarded.getReported(), exceeded);
+		return false;
+	}
+
+	/**
+	 * @return the description of the exceeded budget, or {@code null}
+	 */
+	private String checkBudget(final long start) {
+		final long millis = (System.nanoTime() - start) / 1_000_000;
+		if (timeoutMillis > 0 && millis > timeoutMillis) {
+			return String.format(Locale.ROOT, "time budget of %d s", timeoutMillis / 1000);
+		}
+		if (maxHeapBytes > 0) {
+			final long heap = liveHeap();
+			if (heap > maxHeapBytes) {
+				return String.format(Locale.ROOT, "heap budget of %d MB (%d MB in use after garbage collection)",
+					maxHeapBytes >> 20, heap >> 20);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The collection usage of the memory pools is not suitable: G1 only updates it for the old generation
+	 * after mixed collections.
+	 *
+	 * @return the heap in use after the latest garbage collection, so a transient peak of garbage does not count,
+	 * or the current usage before the first collection
+	 */
+	static long liveHeap() {
+		GcInfo latest = null;
+		for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (collector instanceof com.sun.management.GarbageCollectorMXBean) {
+				final GcInfo info = ((com.sun.management.GarbageCollectorMXBean) collector).getLastGcInfo();
+				if (info != null && (latest == null || info.getEndTime() > latest.getEndTime())) {
+					latest = info;
+				}
+			}
+		}
+		if (latest == null) {
+			return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+		}
+		long used = 0;
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			final MemoryUsage usage = latest.getMemoryUsageAfterGc().get(pool.getName());
+			if (pool.getType() == MemoryType.HEAP && usage != null) {
+				used += usage.getUsed();
+			}
+		}
+		return used;
+	}
+
+	private void reportUnanalyzed(final Path root, final Set<Path> reported, final String exceeded) {
+		final List<String> unanalyzed = new ArrayList<>();
+		try {
+			for (final Path module : ModuleGraph.findModules(root, workDir, suffixes)) {
+				if (!reported.contains(module)) {
+					unanalyzed.add(root.relativize(module).toString().replace('\\', '/'));
+				}
+			}
+		} catch (IOException e) {
+			LOG.warn("Failed to list the modules under `{}`: {}", root, e.getMessage());
+		}
+		unanalyzed.sort(null);
+
+		final Path list = workDir.resolve(UNANALYZED_MODULES_FILE);
+		try {
+			Files.write(list, unanalyzed, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			LOG.warn("Failed to write `{}`: {}", list, e.getMessage());
+		}
+		final String shown = String.join(", ", unanalyzed.subList(0, Math.min(LOGGED_MODULES, unanalyzed.size())))
+			+ (unanalyzed.size() > LOGGED_MODULES ? ", ..." : "");
+		LOG.warn("The analyzer was cancelled after exceeding its {}. The findings received so far are saved, "
+			+ "{} modules were not analyzed (listed in `{}`): {}", exceeded, unanalyzed.size(), list, shown);
+		warnings.addUnique(String.format(Locale.ROOT,
+			"The TTCN3 analyzer was cancelled after exceeding its %s, %d modules were not analyzed: %s",
+			exceeded, unanalyzed.size(), shown));
+	}
+
+	/**
+	 * Buffers the records of the analyzer thread and notes the modules they belong to. Once replayed, records are
+	 * rejected with a {@link CancellationException}, which stops a parser still feeding records.
+	 */
+	private static final class GuardedBuffer implements ReportRecordSink {
+		private final Path root;
+		private final ReportBuffer buffer = new ReportBuffer();
+		private final Set<String> files = new HashSet<>();
+		private boolean replayed;
+
+		GuardedBuffer(final Path root) {
+			this.root = root;
+		}
+
+		@Override
+		public synchronized void issue(final String file, final int line, final String ruleKey, final String message) {
+			checkReplayed();
+			files.add(file);
+			buffer.issue(file, line, ruleKey, message);
+		}
+
+		@Override
+		public synchronized void metric(final String file, final String metric, final int value) {
+			checkReplayed();
+			if (!file.isEmpty()) {
+				files.add(file);
+			}
+			buffer.metric(file, metric, value);
+		}
+
+		private void checkReplayed() {
+			if (replayed) {
+				throw new CancellationException("Analyzer run cancelled");
+			}
+		}
+
+		/**
+		 * Passes the buffered records to the sink on the calling thread, no record is accepted afterwards.
+		 */
+		synchronized void replay(final ReportRecordSink sink) {
+			replayed = true;
+			buffer.replay(sink);
+		}
+
+		synchronized Set<Path> getReported() {
+			final Set<Path> reported = new HashSet<>();
+			for (final String file : files) {
+				reported.add(root.resolve(file).normalize());
+			}
+			return reported;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.sonarttcn3.report.ReportLineWriter;
+
+/**
+ * Entry point of the child JVMs started by {@link ForkedAnalyzer}. Runs the bundled analyzer on a root folder
+ * and streams the records to standard output in the default report format. Anything else the analyzer prints
+ * goes to standard error, so it cannot corrupt the record stream.
+ * <p>
+ * Usage: {@code AnalyzerWorker <root folder> [--oop] [--realtime]}, exits with {@link #EXIT_OK},
+ * {@link #EXIT_ANALYZER_FAILED} or {@link #EXIT_USAGE}. The JVM exits with {@link #EXIT_ERROR} on an error
+ * thrown outside the analyzer, e.g. a class missing from the class path, and with {@link #EXIT_OUT_OF_MEMORY}
+ * when it runs out of memory with {@code -XX:+ExitOnOutOfMemoryError}.
+ */
+public final class AnalyzerWorker {
+	static final int EXIT_OK = 0;
+	static final int EXIT_ERROR = 1;
+	static final int EXIT_USAGE = 2;
+	static final int EXIT_OUT_OF_MEMORY = 3;
+	static final int EXIT_ANALYZER_FAILED = 4;
+
+	private AnalyzerWorker() {
+	}
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 1 || !Files.isDirectory(Path.of(args[0]))) {
+			System.err.println("Usage: AnalyzerWorker <root folder> [--oop] [--realtime]");
+			System.exit(EXIT_USAGE);
+		}
+		final List<String> options = Arrays.asList(args).subList(1, args.length);
+		final BundledAnalyzer analyzer = new BundledAnalyzer(options.contains("--oop"), options.contains("--realtime"));
+
+		final Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8));
+		System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err), true, StandardCharsets.UTF_8));
+		boolean success;
+		try {
+			success = analyzer.analyze(Path.of(args[0]), new ReportLineWriter(out));
+		} catch (StackOverflowError e) {
+			System.err.println("The analyzer overflowed its stack: " + e);
+			success = false;
+		}
+		out.flush();
+		System.exit(success ? EXIT_OK : EXIT_ANALYZER_FAILED);
+	}
+
+	/**
+	 * @return whether the exit status of a worker tells a failure caused by the analyzed modules: the analyzer
+	 * failed, ran out of memory or the JVM was killed by a signal (e.g. a crash), so a smaller set of modules may pass
+	 */
+	static boolean isModuleFailure(final int status) {
+		return status == EXIT_ANALYZER_FAILED || status == EXIT_OUT_OF_MEMORY || status > 128 || status < 0;
+	}
+}
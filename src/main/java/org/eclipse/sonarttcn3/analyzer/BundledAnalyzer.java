@@ -0,0 +1,91 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.nio.file.Path;
+
+import org.eclipse.sonarttcn3.report.ReportLineParser;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.eclipse.sonarttcn3.settings.Ttcn3Properties;
+import org.eclipse.titan.lsp.commandline.CommandLineConfiguration;
+import org.eclipse.titan.lsp.commandline.CommandLineExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.config.Configuration;
+
+/**
+ * Runs the Titan compiler and the Titanium static analyzer inside the current JVM
+ * and passes the findings to a {@link ReportRecordSink}.
+ */
+public class BundledAnalyzer implements Analyzer {
+	private static final Logger LOG = LoggerFactory.getLogger(BundledAnalyzer.class);
+
+	private final boolean oopEnabled;
+	private final boolean realtimeEnabled;
+
+	public BundledAnalyzer(final Configuration settings) {
+		this(settings.getBoolean(Ttcn3Properties.ENABLE_OOP_KEY).orElse(false),
+			settings.getBoolean(Ttcn3Properties.ENABLE_REALTIME_KEY).orElse(false));
+	}
+
+	public BundledAnalyzer(final boolean oopEnabled, final boolean realtimeEnabled) {
+		this.oopEnabled = oopEnabled;
+		this.realtimeEnabled = realtimeEnabled;
+	}
+
+	public boolean isOopEnabled() {
+		return oopEnabled;
+	}
+
+	public boolean isRealtimeEnabled() {
+		return realtimeEnabled;
+	}
+
+	/**
+	 * @return the version of the bundled Titan analyzer, or {@code unknown}
+	 */
+	public static String getVersion() {
+		final String version = CommandLineExecutor.class.getPackage().getImplementationVersion();
+		return version != null ? version : "unknown";
+	}
+
+	@Override
+	public String getSettingsKey() {
+		return "titan=" + getVersion() + ";oop=" + oopEnabled + ";realtime=" + realtimeEnabled;
+	}
+
+	@Override
+	public boolean analyze(final Path rootFolder, final ReportRecordSink sink) {
+		final CommandLineExecutor executor = new CommandLineExecutor(createConfiguration(rootFolder));
+		final String analyzerOutput;
+		try {
+			analyzerOutput = executor.runCommandLineAnalyzer();
+		} catch (Exception e) {
+			LOG.error("Titan analyzer failed on `{}`", rootFolder, e);
+			return false;
+		}
+		if (analyzerOutput == null) {
+			return true;
+		}
+
+		new ReportLineParser(sink).parseText(analyzerOutput);
+		return true;
+	}
+
+	private CommandLineConfiguration createConfiguration(final Path rootFolder) {
+		final CommandLineConfiguration config = new CommandLineConfiguration();
+		config.rootFolder = rootFolder.toAbsolutePath().toString();
+		config.saFormat = ReportLineParser.ISSUE_FORMAT;
+		config.suppressStdout = true;
+		config.ttcnErrorMarkers = false;
+		config.ttcnWarningMarkers = false;
+		config.showMetrics = true;
+		config.oopEnabled = oopEnabled;
+		config.realtimeEnabled = realtimeEnabled;
+		return config;
+	}
+}
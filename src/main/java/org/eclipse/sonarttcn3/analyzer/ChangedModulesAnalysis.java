@@ -0,0 +1,112 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.sonarttcn3.analyzer.ModuleGraph.Module;
+import org.eclipse.sonarttcn3.report.InputFileIndex;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+
+/**
+ * Analyzes only the modules changed since the reference analysis and the modules depending on them,
+ * and reports only on those. Used when the scanner allows unchanged files to be skipped (e.g. pull requests),
+ * in which case the server keeps the results of the other files. Project measures rolled up from the module
+ * metrics would only cover the reported modules, see {@link #isPartial()}.
+ */
+public class ChangedModulesAnalysis {
+	private static final Logger LOG = LoggerFactory.getLogger(ChangedModulesAnalysis.class);
+
+	private final SensorContext context;
+	private final InputFileIndex index;
+	private final Analyzer analyzer;
+	private boolean partial;
+
+	public ChangedModulesAnalysis(final SensorContext context, final InputFileIndex index, final Analyzer analyzer) {
+		this.context = context;
+		this.index = index;
+		this.analyzer = analyzer;
+	}
+
+	/**
+	 * @return whether the analyzer run succeeded
+	 */
+	public boolean analyze(final ReportRecordSink sink) {
+		final ModuleGraph graph = ModuleGraph.build(index);
+		final List<Module> changed = new ArrayList<>();
+		for (final Module module : graph.getModules()) {
+			final InputFile.Status status = module.getFile().getInputFile().status();
+			if (status == null) {
+				LOG.info("File status of `{}` is unknown, analyzing every module", module.getFile().getRelativePath());
+				return analyzer.analyze(index.getBaseDir(), sink);
+			}
+			if (status != InputFile.Status.SAME) {
+				changed.add(module);
+			}
+		}
+
+		if (changed.isEmpty()) {
+			LOG.info("No changed modules, skipping the analysis");
+			partial = true;
+			IncrementalAnalysis.saveProjectMetrics(graph, sink);
+			return true;
+		}
+
+		final Set<Module> affected = ModuleGraph.dependentClosure(changed);
+		if (affected.size() == graph.getModules().size()) {
+			LOG.info("Every module depends on the {} changed modules, analyzing every module", changed.size());
+			return analyzer.analyze(index.getBaseDir(), sink);
+		}
+		partial = true;
+		return analyzeAffected(graph, changed.size(), affected, sink);
+	}
+
+	/**
+	 * @return whether the last {@link #analyze} call reported on a part of the modules only
+	 */
+	public boolean isPartial() {
+		return partial;
+	}
+
+	/**
+	 * Analyzes the affected modules in a staged workspace and passes on their records, followed by
+	 * the project level metrics counted from the graph.
+	 *
+	 * @param affected changed modules and every module depending on them
+	 */
+	boolean analyzeAffected(final ModuleGraph graph, final int changedCount, final Set<Module> affected,
+			final ReportRecordSink sink) {
+		// the importers of the affected modules are affected themselves, so their metrics are complete
+		final Set<Module> staged = ModuleGraph.importClosure(affected);
+		final List<InputFileIndex.IndexedFile> files = new ArrayList<>();
+		for (final Module module : staged) {
+			files.add(module.getFile());
+		}
+		LOG.info("Analyzing {} changed and {} dependent modules ({} of {} modules staged)",
+			changedCount, affected.size() - changedCount, staged.size(), graph.getModules().size());
+
+		final ModuleRecordCollector collector = new ModuleRecordCollector(graph, index, affected, false, sink);
+		final Path workDir = context.fileSystem().workDir().toPath();
+		final boolean success;
+		try (final StagedWorkspace workspace = StagedWorkspace.create(workDir, index.getBaseDir(), files)) {
+			success = analyzer.analyze(workspace.getRoot(), workspace.remap(collector));
+		} catch (IOException e) {
+			LOG.error("Failed to stage modules for analysis", e);
+			return false;
+		}
+		IncrementalAnalysis.saveProjectMetrics(graph, sink);
+		return success;
+	}
+}
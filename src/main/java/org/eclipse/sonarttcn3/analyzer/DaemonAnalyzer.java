@@ -0,0 +1,106 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.sonarttcn3.report.ReportLineParser;
+import org.eclipse.sonarttcn3.report.ReportLineWriter;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends analysis requests to a local {@link AnalyzerDaemon} and parses the streamed findings
+ * as they arrive. Falls back to the in-process analyzer if the daemon is not running or its token
+ * cannot be read.
+ */
+public class DaemonAnalyzer implements Analyzer {
+	private static final Logger LOG = LoggerFactory.getLogger(DaemonAnalyzer.class);
+
+	private final int port;
+	private final Path tokenFile;
+	private final BundledAnalyzer fallback;
+
+	/**
+	 * @param tokenFile file the daemon wrote its token to, {@code null} for the default one of the port
+	 */
+	public DaemonAnalyzer(final int port, final Path tokenFile, final BundledAnalyzer fallback) {
+		this.port = port;
+		this.tokenFile = tokenFile != null ? tokenFile : DaemonProtocol.defaultTokenFile(port);
+		this.fallback = fallback;
+	}
+
+	@Override
+	public boolean analyze(final Path rootFolder, final ReportRecordSink sink) {
+		final String token;
+		try {
+			token = Files.readString(tokenFile, StandardCharsets.UTF_8).trim();
+		} catch (IOException e) {
+			LOG.info("Analyzer daemon token `{}` cannot be read, analyzing in-process", tokenFile);
+			return fallback.analyze(rootFolder, sink);
+		}
+
+		final Socket socket;
+		try {
+			socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		} catch (ConnectException e) {
+			LOG.info("Analyzer daemon is not running on port {}, analyzing in-process", port);
+			return fallback.analyze(rootFolder, sink);
+		} catch (IOException e) {
+			LOG.warn("Failed to connect to the analyzer daemon on port {}, analyzing in-process", port);
+			return fallback.analyze(rootFolder, sink);
+		}
+
+		try (socket) {
+			final Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+			out.write(DaemonProtocol.ANALYZE + " " + DaemonProtocol.VERSION + "\n");
+			out.write(DaemonProtocol.TOKEN + "=" + token + "\n");
+			out.write(DaemonProtocol.ROOT + "=" + rootFolder.toAbsolutePath() + "\n");
+			out.write(DaemonProtocol.OOP + "=" + fallback.isOopEnabled() + "\n");
+			out.write(DaemonProtocol.REALTIME + "=" + fallback.isRealtimeEnabled() + "\n");
+			out.write("\n");
+			out.flush();
+
+			LOG.info("Analyzing `{}` with the analyzer daemon on port {}", rootFolder, port);
+			final ReportLineParser parser = new ReportLineParser(ReportLineWriter.unescaping(sink));
+			final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.startsWith(DaemonProtocol.END)) {
+					final String status = line.substring(DaemonProtocol.END.length());
+					if (status.equals(DaemonProtocol.OK)) {
+						return true;
+					}
+					LOG.error("Analyzer daemon failed: {}", status);
+					return false;
+				}
+				parser.parseLine(line);
+			}
+			LOG.error("Analyzer daemon closed the connection before the analysis finished");
+		} catch (IOException e) {
+			LOG.error("Error while reading the analyzer daemon response", e);
+		}
+		return false;
+	}
+
+	@Override
+	public String getSettingsKey() {
+		return fallback.getSettingsKey();
+	}
+}
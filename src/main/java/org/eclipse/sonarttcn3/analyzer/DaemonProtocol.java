@@ -0,0 +1,50 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.nio.file.Path;
+
+/**
+ * Line based, UTF-8 protocol between the sensor and the {@link AnalyzerDaemon}.
+ * <pre>
+ * request:  ANALYZE 2
+ *           token=secret of the daemon
+ *           root=/absolute/root/folder
+ *           oop=false
+ *           realtime=false
+ *           (empty line)
+ * response: records in the default report format, one per line, escaped by {@link org.eclipse.sonarttcn3.report.ReportLineWriter}
+ *           END OK | END ERROR message
+ * </pre>
+ * A {@code SHUTDOWN} request, with the token header, stops the daemon. The daemon writes its token to a file
+ * only its owner can read, requests without it are rejected, so other users of the machine cannot use the daemon.
+ */
+final class DaemonProtocol {
+	static final int VERSION = 2;
+
+	static final String ANALYZE = "ANALYZE";
+	static final String SHUTDOWN = "SHUTDOWN";
+
+	static final String TOKEN = "token";
+	static final String ROOT = "root";
+	static final String OOP = "oop";
+	static final String REALTIME = "realtime";
+
+	static final String END = "END ";
+	static final String OK = "OK";
+	static final String ERROR = "ERROR";
+
+	private DaemonProtocol() {
+	}
+
+	/**
+	 * @return the token file of the daemon listening on the port, used unless another one is configured
+	 */
+	static Path defaultTokenFile(final int port) {
+		return Path.of(System.getProperty("user.home"), ".sonar", "ttcn3-daemon-" + port + ".token");
+	}
+}
@@ -0,0 +1,404 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.sonarttcn3.analyzer.ModuleGraph.Module;
+import org.eclipse.sonarttcn3.measures.ProjectMetrics;
+import org.eclipse.sonarttcn3.report.ReportBuffer;
+import org.eclipse.sonarttcn3.report.ReportLineParser;
+import org.eclipse.sonarttcn3.report.ReportLineWriter;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.eclipse.titan.lsp.commandline.CommandLineExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the analyzer in child JVMs ({@link AnalyzerWorker}), so its heap and stack are sized independently
+ * of the scanner and an out of memory error only costs the partition it happened in.
+ * <p>
+ * The modules are split by size into partitions of neighbouring paths, as the modules of a directory usually
+ * import each other. Each partition is staged in its own workspace together with the importers of its modules
+ * and their import closure ({@link ModuleGraph}), and its records are streamed back over the standard output
+ * of its worker. A worker that runs out of memory or crashes is retried on the two halves of its partition,
+ * until a single module fails on its own. A worker that fails otherwise, e.g. on startup, is not retried.
+ * <p>
+ * The records of each partition are buffered and replayed in partition order once its worker succeeded,
+ * so a crashed worker never leaves partial results. Project level metrics are counted from the scanned modules.
+ * <p>
+ * When the analyzing thread is interrupted, the running workers are killed and the finished partitions are replayed.
+ */
+public class ForkedAnalyzer implements Analyzer {
+	private static final Logger LOG = LoggerFactory.getLogger(ForkedAnalyzer.class);
+
+	private final BundledAnalyzer analyzer;
+	private final int workers;
+	private final int partitionCount;
+	private final String maxHeap;
+	private final String stackSize;
+	private final Path workDir;
+	private final String[] suffixes;
+
+	/**
+	 * Modules reported on by one worker run. {@code order} keeps the replay order stable across retries.
+	 */
+	private record Partition(List<Module> targets, String order) {
+		long bytes() {
+			return targets.stream().mapToLong(module -> module.getPath().toFile().length()).sum();
+		}
+	}
+
+	/**
+	 * @param records the records of a successful run, {@code null} if the worker failed
+	 * @param retry whether the failure depends on the modules of the partition, so its halves are worth retrying
+	 */
+	private record Result(Partition partition, ReportBuffer records, boolean retry) {}
+
+	/**
+	 * @param workers maximum number of concurrent child JVMs
+	 * @param partitions number of partitions the modules are split into, at least one per worker; more partitions
+	 * than workers keep the records of the partitions finished before a cancellation
+	 * @param maxHeap {@code -Xmx} value of the child JVMs, e.g. {@code 4g}
+	 * @param stackSize {@code -Xss} value of the child JVMs, e.g. {@code 8m}
+	 * @param workDir directory of the staged workspaces and the worker logs
+	 * @param suffixes file suffixes of the analyzed modules
+	 */
+	public ForkedAnalyzer(final BundledAnalyzer analyzer, final int workers, final int partitions, final String maxHeap,
+			final String stackSize, final Path workDir, final String[] suffixes) {
+		this.analyzer = analyzer;
+		this.workers = Math.max(1, workers);
+		this.partitionCount = Math.max(this.workers, partitions);
+		this.maxHeap = maxHeap;
+		this.stackSize = stackSize;
+		this.workDir = workDir.toAbsolutePath();
+		this.suffixes = suffixes.clone();
+	}
+
+	@Override
+	public String getSettingsKey() {
+		return analyzer.getSettingsKey();
+	}
+
+	@Override
+	public boolean analyze(final Path rootFolder, final ReportRecordSink sink) {
+		final Path root = rootFolder.toAbsolutePath().normalize();
+		final List<Module> modules;
+		try {
+			modules = ModuleGraph.scan(root, workDir, suffixes).getModules();
+		} catch (IOException e) {
+			LOG.error("Failed to scan `{}` for modules", root, e);
+			return false;
+		}
+		if (modules.isEmpty()) {
+			return true;
+		}
+
+		final List<Partition> partitions = partition(modules);
+		final int threads = Math.min(workers, partitions.size());
+		LOG.info("Analyzing {} modules in {} partitions on {} forked workers (-Xmx{} -Xss{})",
+			modules.size(), partitions.size(), threads, maxHeap, stackSize);
+
+		final List<Result> results = new ArrayList<>();
+		final List<Module> failed = new ArrayList<>();
+		final Set<Process> processes = ConcurrentHashMap.newKeySet();
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		final CompletionService<Result> completion = new ExecutorCompletionService<>(pool);
+		final Map<Future<Result>, Partition> submitted = new HashMap<>();
+		boolean cancelled = false;
+		try {
+			for (final Partition partition : partitions) {
+				submitted.put(completion.submit(() -> attempt(root, partition, processes)), partition);
+			}
+			while (!submitted.isEmpty()) {
+				final Future<Result> future = completion.take();
+				final Partition done = submitted.remove(future);
+				final Result result;
+				try {
+					result = future.get();
+				} catch (ExecutionException e) {
+					/** attempt() handles the failures of a run, anything else only fails its own partition */
+					LOG.error("Forked analysis of {} modules failed", done.targets().size(), e.getCause());
+					failed.addAll(done.targets());
+					continue;
+				}
+				if (result.records() != null) {
+					results.add(result);
+					continue;
+				}
+				final Partition partition = result.partition();
+				if (!result.retry() || partition.targets().size() == 1) {
+					failed.addAll(partition.targets());
+					continue;
+				}
+				final List<Module> targets = partition.targets();
+				final int half = targets.size() / 2;
+				LOG.warn("Worker failed on {} modules, retrying on two partitions of {} and {} modules",
+					targets.size(), half, targets.size() - half);
+				final Partition first = new Partition(targets.subList(0, half), partition.order() + ".0");
+				final Partition second = new Partition(targets.subList(half, targets.size()), partition.order() + ".1");
+				submitted.put(completion.submit(() -> attempt(root, first, processes)), first);
+				submitted.put(completion.submit(() -> attempt(root, second, processes)), second);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOG.warn("Forked analysis cancelled, keeping the results of {} finished partitions", results.size());
+			cancelled = true;
+		} finally {
+			pool.shutdownNow();
+			// after shutdownNow: a worker started later sees the interrupt and kills its own process
+			processes.forEach(Process::destroyForcibly);
+		}
+
+		results.sort(Comparator.comparing(result -> result.partition().order()));
+		for (final Result result : results) {
+			result.records().replay(sink);
+		}
+		int asn1 = 0;
+		for (final Module module : modules) {
+			if (module.isAsn1()) {
+				asn1++;
+			}
+		}
+		sink.metric("", ProjectMetrics.NOF_TTCN3_MODULES.key(), modules.size() - asn1);
+		sink.metric("", ProjectMetrics.NOF_ASN1_MODULES.key(), asn1);
+
+		if (!failed.isEmpty()) {
+			LOG.error("The analyzer failed on {} modules, they have no findings: {}", failed.size(),
+				failed.stream().map(module -> root.relativize(module.getPath()).toString()).toList());
+			return false;
+		}
+		return !cancelled;
+	}
+
+	/**
+	 * Cuts the modules, in path order, into at most {@code partitionCount} partitions of about the same size.
+	 */
+	private List<Partition> partition(final List<Module> modules) {
+		final long[] sizes = new long[modules.size()];
+		long total = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = Math.max(1, modules.get(i).getPath().toFile().length());
+			total += sizes[i];
+		}
+
+		final int count = Math.min(partitionCount, modules.size());
+		final List<Partition> partitions = new ArrayList<>();
+		int start = 0;
+		long cumulated = 0;
+		for (int i = 0; i < modules.size(); i++) {
+			cumulated += sizes[i];
+			final int remaining = modules.size() - i - 1;
+			final int partitionsLeft = count - partitions.size() - 1;
+			/** cut at the next share of the total, leaving at least one module for every partition still to come */
+			if (partitionsLeft > 0 && (cumulated * count >= total * (partitions.size() + 1) || remaining == partitionsLeft)) {
+				partitions.add(new Partition(modules.subList(start, i + 1), String.format(Locale.ROOT, "%04d", partitions.size())));
+				start = i + 1;
+			}
+		}
+		partitions.add(new Partition(modules.subList(start, modules.size()), String.format(Locale.ROOT, "%04d", partitions.size())));
+		return partitions;
+	}
+
+	/**
+	 * Runs a worker on the partition, an error of the run itself only fails the partition.
+	 */
+	private Result attempt(final Path root, final Partition partition, final Set<Process> processes)
+			throws InterruptedException {
+		try {
+			return run(root, partition, processes);
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Failed to run a worker on {} modules", partition.targets().size(), e);
+			return new Result(partition, null, false);
+		}
+	}
+
+	/**
+	 * Stages the partition and runs a worker on it.
+	 *
+	 * @return the records of the target modules with paths under the root folder,
+	 * or a result without records if the worker failed
+	 */
+	private Result run(final Path root, final Partition partition, final Set<Process> processes)
+			throws IOException, InterruptedException {
+		// the importers are needed for the coupling metrics of the targets, their imports for name resolution
+		final Set<Module> required = new LinkedHashSet<>(partition.targets());
+		for (final Module module : partition.targets()) {
+			required.addAll(module.getImporters());
+		}
+		final List<Path> staged = new ArrayList<>();
+		for (final Module module : ModuleGraph.importClosure(required)) {
+			staged.add(module.getPath());
+		}
+		final Set<String> targets = new HashSet<>();
+		for (final Module module : partition.targets()) {
+			targets.add(module.getPath().toString());
+		}
+
+		final long start = System.nanoTime();
+		final ReportBuffer buffer = new ReportBuffer();
+		final ReportRecordSink collector = new ReportRecordSink() {
+			@Override
+			public void issue(final String file, final int line, final String ruleKey, final String message) {
+				if (targets.contains(file)) {
+					buffer.issue(file, line, ruleKey, message);
+				}
+			}
+
+			@Override
+			public void metric(final String file, final String metric, final int value) {
+				if (targets.contains(file)) {
+					buffer.metric(file, metric, value);
+				}
+			}
+		};
+
+		final Path log = workDir.resolve("ttcn3-worker-" + partition.order() + ".log");
+		try (final StagedWorkspace workspace = StagedWorkspace.createFromPaths(workDir, root, staged)) {
+			final Path stagedRoot = workspace.getRoot().toAbsolutePath();
+			final ReportRecordSink remapped = workspace.remap(collector);
+			final ReportLineParser parser = new ReportLineParser(ReportLineWriter.unescaping(new ReportRecordSink() {
+				@Override
+				public void issue(final String file, final int line, final String ruleKey, final String message) {
+					remapped.issue(resolve(file), line, ruleKey, message);
+				}
+
+				@Override
+				public void metric(final String file, final String metric, final int value) {
+					if (!file.isEmpty()) {
+						remapped.metric(resolve(file), metric, value);
+					}
+				}
+
+				private String resolve(final String file) {
+					return stagedRoot.resolve(file).normalize().toString();
+				}
+			}));
+
+			final Process process = new ProcessBuilder(command(stagedRoot))
+				.redirectError(log.toFile())
+				.start();
+			processes.add(process);
+			if (Thread.currentThread().isInterrupted()) {
+				process.destroyForcibly();
+			}
+			process.getOutputStream().close();
+			try (final BufferedReader reader = new BufferedReader(
+					new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					parser.parseLine(line);
+				}
+			} catch (IOException e) {
+				process.destroyForcibly();
+				throw e;
+			} finally {
+				try {
+					if (!process.waitFor(1, TimeUnit.MINUTES)) {
+						process.destroyForcibly().waitFor();
+					}
+				} catch (InterruptedException e) {
+					process.destroyForcibly();
+					throw e;
+				} finally {
+					processes.remove(process);
+				}
+			}
+
+			final long millis = (System.nanoTime() - start) / 1_000_000;
+			if (process.exitValue() != AnalyzerWorker.EXIT_OK) {
+				final boolean retry = AnalyzerWorker.isModuleFailure(process.exitValue());
+				LOG.warn("Worker on {} modules exited with status {} after {} ms{}, see `{}`", partition.targets().size(),
+					process.exitValue(), millis, retry ? "" : ", not retried as the failure does not depend on the modules", log);
+				return new Result(partition, null, retry);
+			}
+			LOG.debug("Worker on {} modules ({} staged, {} bytes) finished in {} ms, {} records",
+				partition.targets().size(), staged.size(), partition.bytes(), millis, buffer.size());
+			Files.deleteIfExists(log);
+			return new Result(partition, buffer, false);
+		}
+	}
+
+	private List<String> command(final Path stagedRoot) {
+		final List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		command.add("-Xmx" + maxHeap);
+		command.add("-Xss" + stackSize);
+		command.add("-XX:+ExitOnOutOfMemoryError");
+		command.add("-cp");
+		command.add(classPath());
+		command.add(AnalyzerWorker.class.getName());
+		command.add(stagedRoot.toString());
+		if (analyzer.isOopEnabled()) {
+			command.add("--oop");
+		}
+		if (analyzer.isRealtimeEnabled()) {
+			command.add("--realtime");
+		}
+		return command;
+	}
+
+	/**
+	 * The plugin is loaded by its own class loader in the scanner, holding the plugin jar and the jars bundled in it
+	 * (the Titan analyzer and its dependencies). The worker class path is made of every jar of that class loader,
+	 * or of the application class path when the plugin is loaded by the application class loader (e.g. in tests),
+	 * and the locations the analyzer and the logging API were loaded from.
+	 */
+	static String classPath() {
+		final Set<String> entries = new LinkedHashSet<>();
+		final ClassLoader loader = ForkedAnalyzer.class.getClassLoader();
+		if (loader instanceof URLClassLoader) {
+			for (final URL url : ((URLClassLoader) loader).getURLs()) {
+				try {
+					entries.add(Path.of(url.toURI()).toString());
+				} catch (Exception e) {
+					LOG.debug("Class path entry {} skipped", url);
+				}
+			}
+		} else if (loader == ClassLoader.getSystemClassLoader()) {
+			for (final String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+				if (!entry.isEmpty()) {
+					entries.add(Path.of(entry).toAbsolutePath().toString());
+				}
+			}
+		}
+		for (final Class<?> type : Arrays.asList(ForkedAnalyzer.class, CommandLineExecutor.class, LoggerFactory.class)) {
+			try {
+				entries.add(Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+			} catch (Exception e) {
+				LOG.debug("Location of {} not found", type.getName());
+			}
+		}
+		return String.join(File.pathSeparator, entries);
+	}
+}
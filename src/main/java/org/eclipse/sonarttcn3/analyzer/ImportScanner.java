@@ -0,0 +1,178 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lightweight lexical scan for the module name and the imported module names of a
+ * TTCN3 or ASN.1 source. Comments and string literals are skipped, no parse tree is built.
+ * <ul>
+ * <li>TTCN3: {@code module Name} and {@code import from Name ...}</li>
+ * <li>ASN.1: {@code Name DEFINITIONS ...} and the {@code FROM Name} clauses of the {@code IMPORTS} section</li>
+ * </ul>
+ */
+final class ImportScanner {
+	private final CharSequence text;
+	private final boolean asn1;
+	private int pos;
+
+	private String moduleName;
+	private final List<String> imports = new ArrayList<>();
+
+	private ImportScanner(final CharSequence text, final boolean asn1) {
+		this.text = text;
+		this.asn1 = asn1;
+	}
+
+	static ImportScanner scan(final CharSequence text, final boolean asn1) {
+		final ImportScanner scanner = new ImportScanner(text, asn1);
+		if (asn1) {
+			scanner.scanAsn1();
+		} else {
+			scanner.scanTtcn3();
+		}
+		return scanner;
+	}
+
+	String getModuleName() {
+		return moduleName;
+	}
+
+	List<String> getImports() {
+		return imports;
+	}
+
+	private void scanTtcn3() {
+		String previous = null;
+		String beforePrevious = null;
+		String token;
+		while ((token = nextToken()) != null) {
+			if (moduleName == null && "module".equals(previous) && isIdentifier(token)) {
+				moduleName = token;
+			} else if ("from".equals(previous) && "import".equals(beforePrevious) && isIdentifier(token)) {
+				imports.add(token);
+			}
+			beforePrevious = previous;
+			previous = token;
+		}
+	}
+
+	private void scanAsn1() {
+		String lastIdentifier = null;
+		String previous = null;
+		boolean inImports = false;
+		int braceDepth = 0;
+		String token;
+		while ((token = nextToken()) != null) {
+			if ("{".equals(token)) {
+				braceDepth++;
+			} else if ("}".equals(token)) {
+				braceDepth = Math.max(0, braceDepth - 1);
+			} else if ("DEFINITIONS".equals(token)) {
+				if (moduleName == null) {
+					moduleName = lastIdentifier;
+				}
+			} else if ("IMPORTS".equals(token)) {
+				inImports = true;
+			} else if (inImports && ";".equals(token)) {
+				inImports = false;
+			} else if (inImports && "FROM".equals(previous) && isIdentifier(token)) {
+				imports.add(token);
+			} else if (braceDepth == 0 && isIdentifier(token)) {
+				lastIdentifier = token;
+			}
+			previous = token;
+		}
+	}
+
+	/**
+	 * @return the next identifier or punctuation character, or {@code null} at the end of the text
+	 */
+	private String nextToken() {
+		final int length = text.length();
+		while (pos < length) {
+			final char c = text.charAt(pos);
+			if (Character.isWhitespace(c)) {
+				pos++;
+			} else if (c == '/' && peek(1) == '/') {
+				skipToLineEnd();
+			} else if (c == '/' && peek(1) == '*') {
+				skipBlockComment();
+			} else if (asn1 && c == '-' && peek(1) == '-') {
+				skipAsn1Comment();
+			} else if (c == '"' || c == '\'') {
+				skipString(c);
+			} else if (Character.isLetter(c)) {
+				final int start = pos;
+				while (pos < length && isIdentifierPart(text.charAt(pos))) {
+					pos++;
+				}
+				return text.subSequence(start, pos).toString();
+			} else {
+				pos++;
+				return String.valueOf(c);
+			}
+		}
+		return null;
+	}
+
+	private char peek(final int offset) {
+		final int index = pos + offset;
+		return index < text.length() ? text.charAt(index) : '\0';
+	}
+
+	private void skipToLineEnd() {
+		while (pos < text.length() && text.charAt(pos) != '\n') {
+			pos++;
+		}
+	}
+
+	private void skipBlockComment() {
+		pos += 2;
+		while (pos < text.length() && !(text.charAt(pos) == '*' && peek(1) == '/')) {
+			pos++;
+		}
+		pos += 2;
+	}
+
+	/** ASN.1 comments end at the line end or at the next {@code --} */
+	private void skipAsn1Comment() {
+		pos += 2;
+		while (pos < text.length() && text.charAt(pos) != '\n') {
+			if (text.charAt(pos) == '-' && peek(1) == '-') {
+				pos += 2;
+				return;
+			}
+			pos++;
+		}
+	}
+
+	/** a doubled quote character inside a literal stands for the character itself */
+	private void skipString(final char quote) {
+		pos++;
+		while (pos < text.length()) {
+			if (text.charAt(pos) == quote) {
+				if (peek(1) != quote) {
+					pos++;
+					return;
+				}
+				pos++;
+			}
+			pos++;
+		}
+	}
+
+	private boolean isIdentifierPart(final char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || (asn1 && c == '-' && peek(1) != '-');
+	}
+
+	private static boolean isIdentifier(final String token) {
+		return !token.isEmpty() && Character.isLetter(token.charAt(0));
+	}
+}
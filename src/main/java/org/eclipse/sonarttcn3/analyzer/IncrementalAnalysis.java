@@ -0,0 +1,189 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.sonarttcn3.analyzer.ModuleGraph.Module;
+import org.eclipse.sonarttcn3.measures.ProjectMetrics;
+import org.eclipse.sonarttcn3.report.InputFileIndex;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.sensor.SensorContext;
+
+/**
+ * Runs the bundled analyzer on the modules whose results are not in the analysis cache or the local result cache,
+ * and replays the cached results of the unchanged modules.
+ * <p>
+ * The cache key of a module is a hash of its content, the content of every module it imports
+ * (directly or indirectly), the names of its importers (they determine {@code TIMES_IMPORTED})
+ * and the analyzer settings.
+ */
+public class IncrementalAnalysis {
+	private static final Logger LOG = LoggerFactory.getLogger(IncrementalAnalysis.class);
+
+	private final SensorContext context;
+	private final InputFileIndex index;
+	private final Analyzer analyzer;
+	private final ModuleResultCache cache;
+
+	/**
+	 * @param local local result cache, or {@code null} to use the scanner analysis cache only
+	 */
+	public IncrementalAnalysis(final SensorContext context, final InputFileIndex index, final Analyzer analyzer,
+			final LocalResultCache local) {
+		this.context = context;
+		this.index = index;
+		this.analyzer = analyzer;
+		this.cache = new ModuleResultCache(context, local);
+	}
+
+	public void analyze(final ReportRecordSink sink) {
+		try {
+			analyzeModules(sink);
+		} finally {
+			cache.close();
+		}
+	}
+
+	private void analyzeModules(final ReportRecordSink sink) {
+		final ModuleGraph graph = ModuleGraph.build(index);
+		final Map<Module, String> fingerprints = fingerprints(graph);
+
+		final List<Module> misses = new ArrayList<>();
+		int hits = 0;
+		for (final Module module : graph.getModules()) {
+			final String fingerprint = fingerprints.get(module);
+			final ModuleRecords records = cache.load(module, fingerprint);
+			if (records != null) {
+				records.replay(module.getFile().getRelativePath(), sink);
+				hits++;
+			} else {
+				misses.add(module);
+			}
+		}
+		LOG.info("Analysis cache: {} hits, {} misses", hits, misses.size());
+
+		if (misses.isEmpty()) {
+			saveProjectMetrics(graph, sink);
+			return;
+		}
+
+		final Set<Module> targets = new HashSet<>(misses);
+		final boolean full = misses.size() == graph.getModules().size();
+		final ModuleRecordCollector collector = new ModuleRecordCollector(graph, index, targets, full, sink);
+		final boolean success;
+		if (full) {
+			success = analyzer.analyze(index.getBaseDir(), collector);
+		} else {
+			success = analyzeSubset(misses, collector);
+			saveProjectMetrics(graph, sink);
+		}
+
+		if (success) {
+			for (final Module module : misses) {
+				cache.store(module, fingerprints.get(module), collector.getRecords(module));
+			}
+		}
+	}
+
+	/**
+	 * Analyzes the modules in a staged workspace, together with their importers
+	 * (needed for their metrics) and everything those import (needed for name resolution).
+	 */
+	private boolean analyzeSubset(final List<Module> modules, final ReportRecordSink collector) {
+		final Set<Module> required = new LinkedHashSet<>(modules);
+		for (final Module module : modules) {
+			required.addAll(module.getImporters());
+		}
+		final Set<Module> staged = ModuleGraph.importClosure(required);
+
+		final Path workDir = context.fileSystem().workDir().toPath();
+		final List<InputFileIndex.IndexedFile> files = new ArrayList<>();
+		for (final Module module : staged) {
+			files.add(module.getFile());
+		}
+		LOG.info("Analyzing {} changed modules ({} modules staged)", modules.size(), staged.size());
+		try (final StagedWorkspace workspace = StagedWorkspace.create(workDir, index.getBaseDir(), files)) {
+			return analyzer.analyze(workspace.getRoot(), workspace.remap(collector));
+		} catch (IOException e) {
+			LOG.error("Failed to stage modules for analysis", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Project level metrics cannot be taken from a partial analyzer run, they are counted from the graph.
+	 */
+	static void saveProjectMetrics(final ModuleGraph graph, final ReportRecordSink sink) {
+		int asn1 = 0;
+		for (final Module module : graph.getModules()) {
+			if (module.isAsn1()) {
+				asn1++;
+			}
+		}
+		sink.metric("", ProjectMetrics.NOF_TTCN3_MODULES.key(), graph.getModules().size() - asn1);
+		sink.metric("", ProjectMetrics.NOF_ASN1_MODULES.key(), asn1);
+	}
+
+	private Map<Module, String> fingerprints(final ModuleGraph graph) {
+		final Map<Module, String> fingerprints = new HashMap<>();
+		final Comparator<Module> byPath = Comparator.comparing(module -> module.getFile().getRelativePath());
+		for (final Module module : graph.getModules()) {
+			final MessageDigest digest = newDigest();
+			update(digest, analyzer.getSettingsKey());
+			update(digest, module.getFile().getInputFile().md5Hash());
+			module.getImporters().stream()
+				.sorted(byPath)
+				.forEach(importer -> update(digest, importer.getFile().getRelativePath()));
+
+			final List<Module> imports = new ArrayList<>(ModuleGraph.importClosure(List.of(module)));
+			imports.remove(module);
+			imports.sort(byPath);
+			for (final Module imported : imports) {
+				update(digest, imported.getFile().getRelativePath());
+				update(digest, imported.getFile().getInputFile().md5Hash());
+			}
+			fingerprints.put(module, toHex(digest.digest()));
+		}
+		return fingerprints;
+	}
+
+	static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void update(final MessageDigest digest, final String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	static String toHex(final byte[] bytes) {
+		final StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (final byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,220 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per module analyzer results kept on the local disk between scans, independently of the server side
+ * analysis cache.
+ * <p>
+ * Entries live in a directory per analyzer version, and the analyzer settings are part of the entry keys.
+ * Entries are written to a temporary file and moved in place, so concurrent scans sharing the directory never
+ * read a partial entry. A hit refreshes the modification time of the entry. {@link #evict()} deletes the entries
+ * of other analyzer versions unused for a week, as other projects on the machine may still be scanned with
+ * another plugin version, then the least recently used entries of all versions once the cache is over its size limit.
+ */
+public class LocalResultCache {
+	private static final Logger LOG = LoggerFactory.getLogger(LocalResultCache.class);
+	private static final String ENTRY_SUFFIX = ".bin";
+	/** eviction stops below this share of the size limit, so not every scan has to evict */
+	private static final double EVICTION_TARGET = 0.8;
+	private static final long OTHER_VERSION_MAX_AGE_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+	private final Path root;
+	private final Path directory;
+	private final long maxBytes;
+
+	private long hits;
+	private long writes;
+
+	private LocalResultCache(final Path root, final Path directory, final long maxBytes) {
+		this.root = root;
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * @param root cache root directory, shared by every project analyzed on the machine
+	 * @param analyzerVersion version of the analyzer producing the entries
+	 */
+	public static LocalResultCache open(final Path root, final String analyzerVersion, final long maxBytes)
+			throws IOException {
+		final String name = "titan-" + analyzerVersion.replaceAll("[^A-Za-z0-9._-]", "_");
+		final Path directory = root.resolve(name);
+		Files.createDirectories(directory);
+		return new LocalResultCache(root, directory, maxBytes);
+	}
+
+	/**
+	 * @return the records of the entry, or {@code null} if there is no such entry or it cannot be read
+	 */
+	public ModuleRecords load(final String key) {
+		final Path entry = entry(key);
+		try (final InputStream in = Files.newInputStream(entry)) {
+			final ModuleRecords records = ModuleRecords.read(in);
+			Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+			hits++;
+			return records;
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException | RuntimeException e) {
+			LOG.debug("Dropping unreadable cache entry `{}`", entry, e);
+			try {
+				Files.deleteIfExists(entry);
+			} catch (IOException ignored) {
+				// another scan may hold it, it is retried next time
+			}
+			return null;
+		}
+	}
+
+	public void store(final String key, final byte[] records) {
+		final Path entry = entry(key);
+		try {
+			Files.createDirectories(entry.getParent());
+			final Path temporary = Files.createTempFile(entry.getParent(), "entry-", ".tmp");
+			try {
+				Files.write(temporary, records);
+				try {
+					Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+				}
+				writes++;
+			} finally {
+				Files.deleteIfExists(temporary);
+			}
+		} catch (IOException e) {
+			LOG.debug("Failed to write cache entry `{}`", entry, e);
+		}
+	}
+
+	/**
+	 * Deletes the entries of other analyzer versions unused for a week, then the least recently used entries
+	 * of every version if the cache is over its size limit.
+	 */
+	public void evict() {
+		record Entry(Path path, long size, long lastUsed) {}
+
+		final long expired = System.currentTimeMillis() - OTHER_VERSION_MAX_AGE_MILLIS;
+		final List<Entry> entries = new ArrayList<>();
+		long total = 0;
+		int expiredCount = 0;
+		try (final Stream<Path> files = Files.walk(root)) {
+			for (final Path file : (Iterable<Path>) files::iterator) {
+				if (!file.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+					continue;
+				}
+				try {
+					final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+					final long lastUsed = attributes.lastModifiedTime().toMillis();
+					if (lastUsed < expired && !file.startsWith(directory) && Files.deleteIfExists(file)) {
+						expiredCount++;
+						continue;
+					}
+					entries.add(new Entry(file, attributes.size(), lastUsed));
+					total += attributes.size();
+				} catch (IOException e) {
+					// deleted by a concurrent eviction
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Failed to list the TTCN3 result cache `{}`", root, e);
+			return;
+		}
+		if (expiredCount > 0) {
+			LOG.info("Deleted {} entries of other analyzer versions unused for a week from the TTCN3 result cache", expiredCount);
+			deleteEmptyVersions();
+		}
+		LOG.info("TTCN3 result cache: {} hits, {} entries written, {} entries ({} MB) in `{}`",
+			hits, writes, entries.size(), total >> 20, root);
+		if (total <= maxBytes) {
+			return;
+		}
+
+		entries.sort(Comparator.comparingLong(Entry::lastUsed));
+		final long target = (long) (maxBytes * EVICTION_TARGET);
+		int evicted = 0;
+		for (final Entry entry : entries) {
+			if (total <= target) {
+				break;
+			}
+			try {
+				Files.deleteIfExists(entry.path());
+				total -= entry.size();
+				evicted++;
+			} catch (IOException e) {
+				LOG.debug("Failed to evict cache entry `{}`", entry.path(), e);
+			}
+		}
+		LOG.info("Evicted {} least recently used entries from the TTCN3 result cache", evicted);
+	}
+
+	public long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * Entries are spread over 256 sub-directories by the first byte of the key hash.
+	 */
+	private Path entry(final String key) {
+		final String hash = IncrementalAnalysis.toHex(
+			IncrementalAnalysis.newDigest().digest(key.getBytes(StandardCharsets.UTF_8)));
+		return directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2) + ENTRY_SUFFIX);
+	}
+
+	/**
+	 * Deletes the emptied directories of other analyzer versions, only directories: the entries still in use
+	 * by a scan of that version are left in place with their directories.
+	 */
+	private void deleteEmptyVersions() {
+		try (final DirectoryStream<Path> versions = Files.newDirectoryStream(root, Files::isDirectory)) {
+			for (final Path version : versions) {
+				if (!version.equals(directory)) {
+					deleteEmptyDirectories(version);
+				}
+			}
+		} catch (IOException e) {
+			LOG.debug("Failed to list the TTCN3 result cache `{}`", root, e);
+		}
+	}
+
+	private static void deleteEmptyDirectories(final Path version) {
+		try (final Stream<Path> files = Files.walk(version)) {
+			for (final Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+				if (Files.isDirectory(file)) {
+					try {
+						Files.deleteIfExists(file);
+					} catch (DirectoryNotEmptyException e) {
+						// still holds entries
+					}
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			LOG.debug("Failed to delete the empty directories of `{}`", version, e);
+		}
+	}
+}
@@ -0,0 +1,266 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.sonarttcn3.report.InputFileIndex;
+import org.eclipse.sonarttcn3.report.InputFileIndex.IndexedFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Import graph of the TTCN3 and ASN.1 modules of the project, or of the modules found under a folder.
+ * <p>
+ * Modules are looked up by {@link #nameKey(String)}: TTCN3 refers to an ASN.1 module like {@code S1AP-PDU-Contents}
+ * as {@code S1AP_PDU_Contents}.
+ */
+public class ModuleGraph {
+	private static final Logger LOG = LoggerFactory.getLogger(ModuleGraph.class);
+
+	/**
+	 * A module (source file) in the graph
+	 */
+	public static final class Module {
+		private final IndexedFile file;
+		private final Path path;
+		private final String name;
+		private final boolean asn1;
+		private final List<String> importNames;
+		private final List<Module> imports = new ArrayList<>();
+		private final List<Module> importers = new ArrayList<>();
+
+		Module(final IndexedFile file, final Path path, final String name, final boolean asn1, final List<String> importNames) {
+			this.file = file;
+			this.path = path;
+			this.name = name;
+			this.asn1 = asn1;
+			this.importNames = importNames;
+		}
+
+		/**
+		 * @return the indexed file, {@code null} in a graph scanned from a folder
+		 */
+		public IndexedFile getFile() {
+			return file;
+		}
+
+		/**
+		 * @return the normalized absolute path
+		 */
+		public Path getPath() {
+			return path;
+		}
+
+		/**
+		 * @return the module name, or {@code null} if it could not be determined
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public boolean isAsn1() {
+			return asn1;
+		}
+
+		/**
+		 * @return the modules directly imported by this module
+		 */
+		public List<Module> getImports() {
+			return imports;
+		}
+
+		/**
+		 * @return the modules directly importing this module
+		 */
+		public List<Module> getImporters() {
+			return importers;
+		}
+
+		@Override
+		public String toString() {
+			return file != null ? file.getRelativePath() : path.toString();
+		}
+	}
+
+	private final List<Module> modules = new ArrayList<>();
+	private final Map<IndexedFile, Module> byFile = new HashMap<>();
+	private final Map<String, Module> byName = new HashMap<>();
+
+	private ModuleGraph() {
+	}
+
+	/**
+	 * Scans every indexed file for its module name and imports.
+	 * Imports of modules that are not part of the project are ignored.
+	 */
+	public static ModuleGraph build(final InputFileIndex index) {
+		final ModuleGraph graph = new ModuleGraph();
+		for (final IndexedFile file : index.getFiles()) {
+			final boolean asn1 = isAsn1(file.getRelativePath());
+			ImportScanner scanner;
+			try {
+				scanner = ImportScanner.scan(file.getInputFile().contents(), asn1);
+			} catch (IOException e) {
+				LOG.warn("Failed to read `{}`", file.getRelativePath());
+				scanner = ImportScanner.scan("", asn1);
+			}
+			graph.add(new Module(file, file.getPath(), scanner.getModuleName(), asn1, scanner.getImports()));
+		}
+		graph.link();
+		return graph;
+	}
+
+	/**
+	 * Scans the modules under a folder, in path order, for their module names and imports.
+	 *
+	 * @param excludedDir directory skipped unless it contains the root, e.g. the work directory of the scanner
+	 * @param suffixes file suffixes of the modules
+	 */
+	public static ModuleGraph scan(final Path root, final Path excludedDir, final String[] suffixes) throws IOException {
+		final ModuleGraph graph = new ModuleGraph();
+		for (final Path path : findModules(root, excludedDir, suffixes)) {
+			final boolean asn1 = isAsn1(path.toString());
+			// only the keywords and identifiers matter, any byte decodes in ISO-8859-1
+			final ImportScanner scanner = ImportScanner.scan(
+				new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1), asn1);
+			graph.add(new Module(null, path, scanner.getModuleName(), asn1, scanner.getImports()));
+		}
+		graph.link();
+		return graph;
+	}
+
+	/**
+	 * @param excludedDir directory skipped unless it contains the root
+	 * @return the normalized absolute paths of the files under the root with one of the suffixes, in path order
+	 */
+	public static List<Path> findModules(final Path root, final Path excludedDir, final String[] suffixes)
+			throws IOException {
+		final Path start = root.toAbsolutePath().normalize();
+		final Path excluded = excludedDir.toAbsolutePath().normalize();
+		final List<Path> paths = new ArrayList<>();
+		Files.walkFileTree(start, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+				return dir.startsWith(excluded) && !start.startsWith(excluded) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+				if (hasSuffix(file, suffixes)) {
+					paths.add(file.normalize());
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		paths.sort(null);
+		return paths;
+	}
+
+	private static boolean hasSuffix(final Path file, final String[] suffixes) {
+		final String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		for (final String suffix : suffixes) {
+			if (!suffix.isBlank() && name.endsWith(suffix.trim().toLowerCase(Locale.ROOT))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void add(final Module module) {
+		modules.add(module);
+		if (module.file != null) {
+			byFile.put(module.file, module);
+		}
+		if (module.name != null) {
+			byName.putIfAbsent(nameKey(module.name), module);
+		}
+	}
+
+	/**
+	 * Imports of modules that are not part of the graph are ignored.
+	 */
+	private void link() {
+		for (final Module module : modules) {
+			for (final String importName : new LinkedHashSet<>(module.importNames)) {
+				final Module imported = byName.get(nameKey(importName));
+				if (imported != null && imported != module) {
+					module.imports.add(imported);
+					imported.importers.add(module);
+				}
+			}
+		}
+	}
+
+	public List<Module> getModules() {
+		return Collections.unmodifiableList(modules);
+	}
+
+	public Module get(final IndexedFile file) {
+		return byFile.get(file);
+	}
+
+	/**
+	 * @return the given modules together with every module they import, directly or indirectly
+	 */
+	public static Set<Module> importClosure(final Collection<Module> roots) {
+		return closure(roots, true);
+	}
+
+	/**
+	 * @return the given modules together with every module importing them, directly or indirectly
+	 */
+	public static Set<Module> dependentClosure(final Collection<Module> roots) {
+		return closure(roots, false);
+	}
+
+	private static Set<Module> closure(final Collection<Module> roots, final boolean followImports) {
+		final Set<Module> result = new LinkedHashSet<>(roots);
+		final Deque<Module> queue = new ArrayDeque<>(roots);
+		while (!queue.isEmpty()) {
+			final Module module = queue.poll();
+			for (final Module next : followImports ? module.imports : module.importers) {
+				if (result.add(next)) {
+					queue.add(next);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the module name with the dashes of ASN.1 names replaced by underscores, as TTCN3 imports them
+	 */
+	static String nameKey(final String name) {
+		return name.replace('-', '_');
+	}
+
+	/**
+	 * @return whether the file is an ASN.1 module, by its extension
+	 */
+	public static boolean isAsn1(final String path) {
+		final String lower = path.toLowerCase(Locale.ROOT);
+		return lower.endsWith(".asn") || lower.endsWith(".asn1");
+	}
+}
@@ -0,0 +1,86 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.sonarttcn3.analyzer.ModuleGraph.Module;
+import org.eclipse.sonarttcn3.report.InputFileIndex;
+import org.eclipse.sonarttcn3.report.InputFileIndex.IndexedFile;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+
+/**
+ * Passes on the records of the target modules only and keeps a copy of them per module.
+ * Records of other modules (e.g. imports that were only analyzed for name resolution) are dropped.
+ */
+public class ModuleRecordCollector implements ReportRecordSink {
+	private final ModuleGraph graph;
+	private final InputFileIndex index;
+	private final Set<Module> targets;
+	private final boolean projectMetrics;
+	private final ReportRecordSink next;
+
+	private final Map<Module, ModuleRecords> records = new HashMap<>();
+
+	/**
+	 * @param projectMetrics whether project level metrics are passed on
+	 */
+	public ModuleRecordCollector(final ModuleGraph graph, final InputFileIndex index, final Set<Module> targets,
+			final boolean projectMetrics, final ReportRecordSink next) {
+		this.graph = graph;
+		this.index = index;
+		this.targets = targets;
+		this.projectMetrics = projectMetrics;
+		this.next = next;
+	}
+
+	@Override
+	public void issue(final String file, final int line, final String ruleKey, final String message) {
+		final Module module = resolve(file);
+		if (module != null) {
+			recordsOf(module).addIssue(line, ruleKey, message);
+			next.issue(file, line, ruleKey, message);
+		}
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		if (file.isEmpty()) {
+			if (projectMetrics) {
+				next.metric(file, metric, value);
+			}
+			return;
+		}
+		final Module module = resolve(file);
+		if (module != null) {
+			recordsOf(module).addMetric(metric, value);
+			next.metric(file, metric, value);
+		}
+	}
+
+	/**
+	 * @return the records collected for the module, empty if it had no findings
+	 */
+	public ModuleRecords getRecords(final Module module) {
+		return recordsOf(module);
+	}
+
+	private ModuleRecords recordsOf(final Module module) {
+		return records.computeIfAbsent(module, m -> new ModuleRecords());
+	}
+
+	private Module resolve(final String file) {
+		final IndexedFile indexed = index.get(file);
+		if (indexed == null) {
+			return null;
+		}
+		final Module module = graph.get(indexed);
+		return targets.contains(module) ? module : null;
+	}
+}
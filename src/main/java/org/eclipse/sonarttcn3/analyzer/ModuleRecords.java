@@ -0,0 +1,115 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+
+/**
+ * The issues and metric values of a single module, in a compact binary form
+ * that can be stored in an analysis cache. Strings are written as length prefixed UTF-8,
+ * so messages are not limited to the 64 KB of {@link DataOutputStream#writeUTF(String)}.
+ */
+public class ModuleRecords {
+	private static final int FORMAT_VERSION = 2;
+
+	private record Issue(int line, String ruleKey, String message) {}
+
+	private record Measure(String metric, int value) {}
+
+	private final List<Issue> issues = new ArrayList<>();
+	private final List<Measure> measures = new ArrayList<>();
+
+	public void addIssue(final int line, final String ruleKey, final String message) {
+		issues.add(new Issue(line, ruleKey, message));
+	}
+
+	public void addMetric(final String metric, final int value) {
+		measures.add(new Measure(metric, value));
+	}
+
+	/**
+	 * Passes the records to the sink as if they were reported for the given file.
+	 */
+	public void replay(final String file, final ReportRecordSink sink) {
+		for (final Issue issue : issues) {
+			sink.issue(file, issue.line(), issue.ruleKey(), issue.message());
+		}
+		for (final Measure measure : measures) {
+			sink.metric(file, measure.metric(), measure.value());
+		}
+	}
+
+	public byte[] toBytes() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(issues.size());
+			for (final Issue issue : issues) {
+				out.writeInt(issue.line());
+				writeString(out, issue.ruleKey());
+				writeString(out, issue.message());
+			}
+			out.writeInt(measures.size());
+			for (final Measure measure : measures) {
+				writeString(out, measure.metric());
+				out.writeInt(measure.value());
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @throws IOException if the data is truncated or written by another format version
+	 */
+	public static ModuleRecords read(final InputStream stream) throws IOException {
+		final DataInputStream in = new DataInputStream(stream);
+		if (in.readInt() != FORMAT_VERSION) {
+			throw new IOException("Unsupported module record format");
+		}
+		final ModuleRecords records = new ModuleRecords();
+		final int issueCount = in.readInt();
+		for (int i = 0; i < issueCount; i++) {
+			records.addIssue(in.readInt(), readString(in), readString(in));
+		}
+		final int measureCount = in.readInt();
+		for (int i = 0; i < measureCount; i++) {
+			records.addMetric(readString(in), in.readInt());
+		}
+		return records;
+	}
+
+	private static void writeString(final DataOutputStream out, final String value) throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/** the bytes are read in chunks, a corrupt length fails at the end of the data instead of allocating it */
+	private static String readString(final DataInputStream in) throws IOException {
+		final int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("Invalid string length " + length);
+		}
+		final byte[] bytes = in.readNBytes(length);
+		if (bytes.length != length) {
+			throw new EOFException();
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
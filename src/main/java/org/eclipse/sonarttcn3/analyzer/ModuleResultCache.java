@@ -0,0 +1,87 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.sonarttcn3.analyzer.ModuleGraph.Module;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.sensor.SensorContext;
+
+/**
+ * Per module analyzer results stored in the scanner analysis cache and, if one is given,
+ * in a {@link LocalResultCache} on the local disk.
+ * Entries are keyed by the module path and its fingerprint, so a changed module or
+ * a changed import simply misses the cache.
+ */
+public class ModuleResultCache {
+	private static final Logger LOG = LoggerFactory.getLogger(ModuleResultCache.class);
+	private static final String KEY_PREFIX = "ttcn3:module:";
+
+	private final SensorContext context;
+	private final LocalResultCache local;
+
+	/**
+	 * @param local local cache, or {@code null} to use the scanner analysis cache only
+	 */
+	public ModuleResultCache(final SensorContext context, final LocalResultCache local) {
+		this.context = context;
+		this.local = local;
+	}
+
+	/**
+	 * Reads the cached records of the module, from the scanner cache first, and keeps them for the next analysis.
+	 *
+	 * @return {@code null} if there is no entry or it cannot be read
+	 */
+	public ModuleRecords load(final Module module, final String fingerprint) {
+		final String key = key(module, fingerprint);
+		if (context.isCacheEnabled() && context.previousCache().contains(key)) {
+			try (final InputStream in = context.previousCache().read(key)) {
+				final ModuleRecords records = ModuleRecords.read(in);
+				context.nextCache().copyFromPrevious(key);
+				return records;
+			} catch (IOException | RuntimeException e) {
+				LOG.debug("Failed to read cache entry `{}`", key, e);
+			}
+		}
+		if (local == null) {
+			return null;
+		}
+		final ModuleRecords records = local.load(key);
+		if (records != null && context.isCacheEnabled()) {
+			context.nextCache().write(key, records.toBytes());
+		}
+		return records;
+	}
+
+	public void store(final Module module, final String fingerprint, final ModuleRecords records) {
+		final String key = key(module, fingerprint);
+		final byte[] bytes = records.toBytes();
+		if (context.isCacheEnabled()) {
+			context.nextCache().write(key, bytes);
+		}
+		if (local != null) {
+			local.store(key, bytes);
+		}
+	}
+
+	/**
+	 * Keeps the local cache within its size limit. Called once the analysis is complete.
+	 */
+	public void close() {
+		if (local != null) {
+			local.evict();
+		}
+	}
+
+	private static String key(final Module module, final String fingerprint) {
+		return KEY_PREFIX + module.getFile().getRelativePath() + ":" + fingerprint;
+	}
+}
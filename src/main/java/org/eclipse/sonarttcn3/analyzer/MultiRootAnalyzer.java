@@ -0,0 +1,170 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.sonarttcn3.report.ReportBuffer;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Analyzes independent sub-roots of a project concurrently, each with its own analyzer run,
+ * and merges their records.
+ * <p>
+ * The records of each sub-root are buffered and replayed in sub-root order, so the result does not depend
+ * on which analysis finishes first. Relative file paths are resolved against their sub-root, and
+ * project level metrics (module counts) are summed over the sub-roots.
+ * When the analyzing thread is interrupted, the sub-roots already finished are still replayed.
+ */
+public class MultiRootAnalyzer implements Analyzer {
+	private static final Logger LOG = LoggerFactory.getLogger(MultiRootAnalyzer.class);
+
+	private final Analyzer analyzer;
+	private final List<String> subRoots;
+	private final int parallelism;
+
+	/**
+	 * @param subRoots sub-root directories relative to the analyzed root folder
+	 * @param parallelism maximum number of concurrent analyzer runs, 1 unless the analyzer runs in separate
+	 * processes (e.g. {@link ForkedAnalyzer}), as the bundled analyzer is not thread safe
+	 */
+	public MultiRootAnalyzer(final Analyzer analyzer, final List<String> subRoots, final int parallelism) {
+		this.analyzer = analyzer;
+		this.subRoots = List.copyOf(subRoots);
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	@Override
+	public String getSettingsKey() {
+		return analyzer.getSettingsKey() + ";roots=" + String.join(",", subRoots);
+	}
+
+	@Override
+	public boolean analyze(final Path rootFolder, final ReportRecordSink sink) {
+		final List<Path> roots = new ArrayList<>();
+		for (final String subRoot : subRoots) {
+			final Path root = rootFolder.resolve(subRoot).normalize();
+			if (Files.isDirectory(root)) {
+				roots.add(root);
+			} else {
+				// a staged workspace only contains the sub-roots of the staged modules
+				LOG.debug("Sub-root `{}` not found under `{}`", subRoot, rootFolder);
+			}
+		}
+		if (roots.isEmpty()) {
+			LOG.warn("None of the sub-roots {} exist under `{}`", subRoots, rootFolder);
+			return true;
+		}
+
+		final int threads = Math.min(parallelism, roots.size());
+		LOG.info("Analyzing {} sub-roots on {} threads", roots.size(), threads);
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		final List<Future<ReportBuffer>> results = new ArrayList<>();
+		final Map<String, Integer> projectMetrics = new LinkedHashMap<>();
+		final ReportRecordSink merger = new ReportRecordSink() {
+			@Override
+			public void issue(final String file, final int line, final String ruleKey, final String message) {
+				sink.issue(file, line, ruleKey, message);
+			}
+
+			@Override
+			public void metric(final String file, final String metric, final int value) {
+				if (file.isEmpty()) {
+					projectMetrics.merge(metric, value, Integer::sum);
+				} else {
+					sink.metric(file, metric, value);
+				}
+			}
+		};
+		boolean success = true;
+		int replayed = 0;
+		try {
+			for (final Path root : roots) {
+				results.add(pool.submit(() -> analyze(root)));
+			}
+
+			for (; replayed < results.size(); replayed++) {
+				try {
+					final ReportBuffer buffer = results.get(replayed).get();
+					if (buffer == null) {
+						success = false;
+					} else {
+						buffer.replay(merger);
+					}
+				} catch (ExecutionException e) {
+					LOG.error("Analysis of sub-root `{}` failed", roots.get(replayed), e.getCause());
+					success = false;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOG.warn("Sub-root analysis cancelled, keeping the results of the finished sub-roots");
+			for (int i = replayed; i < results.size(); i++) {
+				final ReportBuffer buffer = finished(results.get(i));
+				if (buffer != null) {
+					buffer.replay(merger);
+				}
+			}
+			// module counts of the finished sub-roots only would be wrong
+			return false;
+		} finally {
+			pool.shutdownNow();
+		}
+		projectMetrics.forEach((metric, value) -> sink.metric("", metric, value));
+		return success;
+	}
+
+	/**
+	 * @return the records of a sub-root analysis that finished successfully, {@code null} otherwise
+	 */
+	private static ReportBuffer finished(final Future<ReportBuffer> result) {
+		if (!result.isDone() || result.isCancelled()) {
+			return null;
+		}
+		try {
+			return result.get();
+		} catch (ExecutionException | InterruptedException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the records of the sub-root with absolute file paths, or {@code null} if its analysis failed
+	 */
+	private ReportBuffer analyze(final Path root) {
+		final long start = System.nanoTime();
+		final ReportBuffer buffer = new ReportBuffer();
+		final boolean success = analyzer.analyze(root, new ReportRecordSink() {
+			@Override
+			public void issue(final String file, final int line, final String ruleKey, final String message) {
+				buffer.issue(resolve(file), line, ruleKey, message);
+			}
+
+			@Override
+			public void metric(final String file, final String metric, final int value) {
+				buffer.metric(file.isEmpty() ? file : resolve(file), metric, value);
+			}
+
+			private String resolve(final String file) {
+				return root.resolve(file).toString();
+			}
+		});
+		LOG.info("Sub-root `{}` analyzed in {} ms, {} records", root, (System.nanoTime() - start) / 1_000_000, buffer.size());
+		return success ? buffer : null;
+	}
+}
@@ -0,0 +1,259 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.sonarttcn3.analyzer.ModuleGraph.Module;
+import org.eclipse.sonarttcn3.report.InputFileIndex;
+import org.eclipse.sonarttcn3.report.InputFileIndex.IndexedFile;
+import org.eclipse.sonarttcn3.report.ReportBuffer;
+import org.eclipse.sonarttcn3.report.ReportManifest;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.sensor.SensorContext;
+
+/**
+ * Decides whether existing reports can be used, by comparing their manifests (see {@link ReportManifest})
+ * with the current content of the modules.
+ * <ul>
+ * <li>{@link Decision#UNCHECKED}: a report has no manifest, the reports are used as they are</li>
+ * <li>{@link Decision#CURRENT}: no module changed since the reports were produced</li>
+ * <li>{@link Decision#PARTIAL}: the records of the changed and new modules, and of the modules depending
+ * on them, are held back from the reports and regenerated by the analyzer. The held back records of the modules
+ * the analyzer failed on are passed on instead, as findings possibly out of date beat no findings.</li>
+ * <li>{@link Decision#FULL}: the share of modules to regenerate is above the limit, the reports are ignored</li>
+ * </ul>
+ */
+public class ReportFreshness {
+	private static final Logger LOG = LoggerFactory.getLogger(ReportFreshness.class);
+
+	public enum Decision {
+		UNCHECKED,
+		CURRENT,
+		PARTIAL,
+		FULL
+	}
+
+	private final InputFileIndex index;
+	private final Decision decision;
+	private final ModuleGraph graph;
+	private final int staleCount;
+	/** stale modules and every module depending on them */
+	private final Set<Module> affected;
+	/** report records of the affected modules, kept until their regeneration succeeded */
+	private final ReportBuffer staleRecords = new ReportBuffer();
+	private int staleFallbackCount;
+
+	private ReportFreshness(final InputFileIndex index, final Decision decision, final ModuleGraph graph,
+			final int staleCount, final Set<Module> affected) {
+		this.index = index;
+		this.decision = decision;
+		this.graph = graph;
+		this.staleCount = staleCount;
+		this.affected = affected;
+	}
+
+	/**
+	 * @param maxStaleRatio share of the modules above which everything is regenerated
+	 */
+	public static ReportFreshness check(final InputFileIndex index, final List<Path> reports, final double maxStaleRatio) {
+		final List<ReportManifest> manifests = new ArrayList<>();
+		for (final Path report : reports) {
+			final ReportManifest manifest;
+			try {
+				manifest = ReportManifest.read(report);
+			} catch (IOException e) {
+				LOG.warn("Report `{}` used as it is, its manifest cannot be read: {}", report, e.getMessage());
+				return unchecked(index);
+			}
+			if (manifest == null) {
+				LOG.info("Report `{}` used as it is, it has no manifest", report);
+				return unchecked(index);
+			}
+			manifests.add(manifest);
+		}
+		final Map<String, String> reported = ReportManifest.merge(manifests).getHashes();
+
+		final ModuleGraph graph = ModuleGraph.build(index);
+		final List<Module> stale = new ArrayList<>();
+		int changed = 0;
+		int added = 0;
+		final Set<String> current = new HashSet<>();
+		for (final Module module : graph.getModules()) {
+			final IndexedFile file = module.getFile();
+			current.add(file.getRelativePath());
+			final String hash = reported.get(file.getRelativePath());
+			if (hash == null) {
+				stale.add(module);
+				added++;
+				continue;
+			}
+			try {
+				if (!hash.equals(ReportManifest.hash(file.getPath()))) {
+					stale.add(module);
+					changed++;
+				}
+			} catch (IOException e) {
+				LOG.debug("Failed to hash `{}`", file.getRelativePath(), e);
+				stale.add(module);
+				changed++;
+			}
+		}
+		int removed = 0;
+		for (final String path : reported.keySet()) {
+			if (!current.contains(path)) {
+				removed++;
+			}
+		}
+
+		if (stale.isEmpty()) {
+			LOG.info("Reports are current: none of the {} modules changed since they were produced{}", current.size(),
+				removed > 0 ? ", " + removed + " removed modules are ignored" : "");
+			return new ReportFreshness(index, Decision.CURRENT, graph, 0, Set.of());
+		}
+
+		final Set<Module> affected = ModuleGraph.dependentClosure(stale);
+		final double ratio = (double) affected.size() / graph.getModules().size();
+		final String reason = String.format(Locale.ROOT,
+			"%d changed and %d new modules (%d removed), %d modules to regenerate with their dependents (%.0f%%, limit %.0f%%)",
+			changed, added, removed, affected.size(), ratio * 100, maxStaleRatio * 100);
+		if (ratio > maxStaleRatio) {
+			LOG.info("Reports are stale, regenerating every module: {}", reason);
+			return new ReportFreshness(index, Decision.FULL, graph, stale.size(), affected);
+		}
+		LOG.info("Reports are stale, regenerating the stale modules only: {}", reason);
+		return new ReportFreshness(index, Decision.PARTIAL, graph, stale.size(), affected);
+	}
+
+	private static ReportFreshness unchecked(final InputFileIndex index) {
+		return new ReportFreshness(index, Decision.UNCHECKED, null, 0, Set.of());
+	}
+
+	public Decision getDecision() {
+		return decision;
+	}
+
+	/**
+	 * @return a sink holding back the report records that are regenerated, those of the affected modules,
+	 * and dropping the project level metrics, which are counted from the modules instead
+	 */
+	public ReportRecordSink skipRegenerated(final ReportRecordSink next) {
+		if (decision != Decision.PARTIAL) {
+			return next;
+		}
+		return new ReportRecordSink() {
+			@Override
+			public void issue(final String file, final int line, final String ruleKey, final String message) {
+				if (isAffected(file)) {
+					staleRecords.issue(file, line, ruleKey, message);
+				} else {
+					next.issue(file, line, ruleKey, message);
+				}
+			}
+
+			@Override
+			public void metric(final String file, final String metric, final int value) {
+				if (file.isEmpty()) {
+					return;
+				}
+				if (isAffected(file)) {
+					staleRecords.metric(file, metric, value);
+				} else {
+					next.metric(file, metric, value);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Analyzes the affected modules and passes on their records and the project level metrics.
+	 * If the analyzer fails, the held back report records of the affected modules it reported nothing on
+	 * are passed on instead (see {@link #getStaleFallbackCount()}).
+	 * Only valid for a {@link Decision#PARTIAL} decision, after the reports were read through {@link #skipRegenerated}.
+	 *
+	 * @return whether the analyzer run succeeded
+	 */
+	public boolean regenerate(final SensorContext context, final Analyzer analyzer, final ReportRecordSink sink) {
+		if (decision != Decision.PARTIAL) {
+			throw new IllegalStateException("Nothing to regenerate for a " + decision + " decision");
+		}
+		final Set<IndexedFile> regenerated = new HashSet<>();
+		final boolean success = new ChangedModulesAnalysis(context, index, analyzer).analyzeAffected(graph, staleCount,
+			affected, new ReportRecordSink() {
+				@Override
+				public void issue(final String file, final int line, final String ruleKey, final String message) {
+					note(file);
+					sink.issue(file, line, ruleKey, message);
+				}
+
+				@Override
+				public void metric(final String file, final String metric, final int value) {
+					note(file);
+					sink.metric(file, metric, value);
+				}
+
+				private void note(final String file) {
+					final IndexedFile indexed = file.isEmpty() ? null : index.get(file);
+					if (indexed != null) {
+						regenerated.add(indexed);
+					}
+				}
+			});
+		if (!success) {
+			final Set<IndexedFile> fallback = new HashSet<>();
+			staleRecords.replay(new ReportRecordSink() {
+				@Override
+				public void issue(final String file, final int line, final String ruleKey, final String message) {
+					if (keep(file)) {
+						sink.issue(file, line, ruleKey, message);
+					}
+				}
+
+				@Override
+				public void metric(final String file, final String metric, final int value) {
+					if (keep(file)) {
+						sink.metric(file, metric, value);
+					}
+				}
+
+				private boolean keep(final String file) {
+					final IndexedFile indexed = index.get(file);
+					if (indexed == null || regenerated.contains(indexed)) {
+						return false;
+					}
+					fallback.add(indexed);
+					return true;
+				}
+			});
+			staleFallbackCount = fallback.size();
+			LOG.warn("The analyzer failed to regenerate the stale modules, the report records of {} modules are used instead",
+				staleFallbackCount);
+		}
+		return success;
+	}
+
+	/**
+	 * @return the number of modules reported from the stale reports, as their regeneration failed
+	 */
+	public int getStaleFallbackCount() {
+		return staleFallbackCount;
+	}
+
+	private boolean isAffected(final String file) {
+		final IndexedFile indexed = index.get(file);
+		return indexed != null && affected.contains(graph.get(indexed));
+	}
+}
@@ -0,0 +1,164 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.sonarttcn3.report.InputFileIndex.IndexedFile;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A temporary root folder containing a subset of the project modules, so the analyzer
+ * can be run on that subset only. Files are hard linked where possible and copied otherwise,
+ * preserving their paths relative to the base directory. TTCN3 include files ({@code .ttcnin})
+ * are always staged, as preprocessed modules may need them.
+ */
+public final class StagedWorkspace implements Closeable {
+	private static final Logger LOG = LoggerFactory.getLogger(StagedWorkspace.class);
+	private static final String INCLUDE_SUFFIX = ".ttcnin";
+
+	private final Path root;
+	private final Path baseDir;
+	private final int size;
+
+	private StagedWorkspace(final Path root, final Path baseDir, final int size) {
+		this.root = root;
+		this.baseDir = baseDir;
+		this.size = size;
+	}
+
+	public static StagedWorkspace create(final Path workDir, final Path baseDir, final Collection<IndexedFile> files)
+			throws IOException {
+		final List<Path> paths = new ArrayList<>(files.size());
+		for (final IndexedFile file : files) {
+			paths.add(file.getPath());
+		}
+		return createFromPaths(workDir, baseDir, paths);
+	}
+
+	/**
+	 * @param files absolute paths of the modules to stage, under the base directory
+	 */
+	static StagedWorkspace createFromPaths(final Path workDir, final Path baseDir, final Collection<Path> files)
+			throws IOException {
+		Files.createDirectories(workDir);
+		final Path root = Files.createTempDirectory(workDir, "ttcn3-stage-");
+		final StagedWorkspace workspace = new StagedWorkspace(root, baseDir, files.size());
+		try {
+			for (final Path file : files) {
+				workspace.stage(file);
+			}
+			workspace.stageIncludeFiles(workDir);
+		} catch (IOException e) {
+			workspace.close();
+			throw e;
+		}
+		LOG.debug("Staged {} modules in `{}`", files.size(), root);
+		return workspace;
+	}
+
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return the number of staged modules
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return a sink that maps the staged paths reported by the analyzer back to the project
+	 */
+	public ReportRecordSink remap(final ReportRecordSink next) {
+		final Map<String, String> mapped = new HashMap<>();
+		return new ReportRecordSink() {
+			@Override
+			public void issue(final String file, final int line, final String ruleKey, final String message) {
+				next.issue(mapped.computeIfAbsent(file, StagedWorkspace.this::toProjectPath), line, ruleKey, message);
+			}
+
+			@Override
+			public void metric(final String file, final String metric, final int value) {
+				next.metric(file.isEmpty() ? file : mapped.computeIfAbsent(file, StagedWorkspace.this::toProjectPath),
+					metric, value);
+			}
+		};
+	}
+
+	@Override
+	public void close() {
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<>() {
+				@Override
+				public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+					Files.delete(dir);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			LOG.warn("Failed to delete staged workspace `{}`", root);
+		}
+	}
+
+	private String toProjectPath(final String file) {
+		final Path path = Path.of(file).toAbsolutePath().normalize();
+		if (path.startsWith(root)) {
+			return baseDir.resolve(root.relativize(path)).toString();
+		}
+		return file;
+	}
+
+	private void stage(final Path source) throws IOException {
+		final Path target = root.resolve(baseDir.relativize(source));
+		Files.createDirectories(target.getParent());
+		try {
+			Files.createLink(target, source);
+		} catch (IOException | UnsupportedOperationException e) {
+			Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private void stageIncludeFiles(final Path workDir) throws IOException {
+		Files.walkFileTree(baseDir, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+				return dir.startsWith(workDir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+				if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(INCLUDE_SUFFIX)) {
+					stage(file);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+}
@@ -6,9 +6,9 @@
  ******************************************************************************/
 package org.eclipse.sonarttcn3.languages;
 
+import org.eclipse.sonarttcn3.rules.RuleCatalog;
 import org.eclipse.sonarttcn3.rules.TitanRulesDefinition;
 import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition;
-import org.sonar.api.server.rule.RulesDefinition.NewRule;
 
 public class Ttcn3QualityProfile implements BuiltInQualityProfilesDefinition {
 	@Override
@@ -16,8 +16,8 @@ public class Ttcn3QualityProfile implements BuiltInQualityProfilesDefinition {
 		NewBuiltInQualityProfile profile = context.createBuiltInQualityProfile("Titanium", Ttcn3Language.KEY);
 	    profile.setDefault(true);
 	    
-	    for (NewRule rule : TitanRulesDefinition.getRules()) {
-	    	profile.activateRule("ttcn3", rule.key());
+	    for (RuleCatalog.Rule rule : RuleCatalog.get().getRules()) {
+	    	profile.activateRule(TitanRulesDefinition.REPOSITORY_KEY, rule.key());
 	    }
 	    
 	    profile.done();
@@ -0,0 +1,106 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.lexer;
+
+import java.util.Arrays;
+
+import org.eclipse.sonarttcn3.report.SymbolTable;
+
+/**
+ * Tokens and line counts of one source file, produced by {@link Ttcn3Lexer}.
+ * <p>
+ * Tokens are held in a flat int array, the images of the code tokens as ids of a per-file {@link SymbolTable}.
+ * Lines are 1-based, offsets are 0-based character offsets within the line, as in the Sonarqube API.
+ */
+public final class LexedFile {
+	private static final int TYPE = 0;
+	private static final int START_LINE = 1;
+	private static final int START_OFFSET = 2;
+	private static final int END_LINE = 3;
+	private static final int END_OFFSET = 4;
+	private static final int IMAGE = 5;
+	private static final int STRIDE = 6;
+
+	private final SymbolTable images = new SymbolTable();
+	private int[] tokens = new int[64 * STRIDE];
+	private int tokenCount;
+	private int codeLines;
+	private int commentLines;
+
+	LexedFile() {
+	}
+
+	void add(final TokenType type, final int startLine, final int startOffset, final int endLine, final int endOffset,
+			final int image) {
+		final int base = tokenCount * STRIDE;
+		if (base + STRIDE > tokens.length) {
+			tokens = Arrays.copyOf(tokens, tokens.length * 2);
+		}
+		tokens[base + TYPE] = type.ordinal();
+		tokens[base + START_LINE] = startLine;
+		tokens[base + START_OFFSET] = startOffset;
+		tokens[base + END_LINE] = endLine;
+		tokens[base + END_OFFSET] = endOffset;
+		tokens[base + IMAGE] = image;
+		tokenCount++;
+	}
+
+	SymbolTable getImages() {
+		return images;
+	}
+
+	void setLineCounts(final int codeLines, final int commentLines) {
+		this.codeLines = codeLines;
+		this.commentLines = commentLines;
+	}
+
+	public int getTokenCount() {
+		return tokenCount;
+	}
+
+	public TokenType getType(final int token) {
+		return TokenType.of(tokens[token * STRIDE + TYPE]);
+	}
+
+	public int getStartLine(final int token) {
+		return tokens[token * STRIDE + START_LINE];
+	}
+
+	public int getStartOffset(final int token) {
+		return tokens[token * STRIDE + START_OFFSET];
+	}
+
+	public int getEndLine(final int token) {
+		return tokens[token * STRIDE + END_LINE];
+	}
+
+	public int getEndOffset(final int token) {
+		return tokens[token * STRIDE + END_OFFSET];
+	}
+
+	/**
+	 * @return the text of a code token, {@code null} for comments
+	 */
+	public String getImage(final int token) {
+		final int image = tokens[token * STRIDE + IMAGE];
+		return image < 0 ? null : images.get(image);
+	}
+
+	/**
+	 * @return the number of lines containing at least one code token (preprocessor directives included)
+	 */
+	public int getCodeLines() {
+		return codeLines;
+	}
+
+	/**
+	 * @return the number of lines containing comment text, lines holding only comment delimiters or blanks are not counted
+	 */
+	public int getCommentLines() {
+		return commentLines;
+	}
+}
@@ -0,0 +1,68 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.lexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and decodes source files into buffers reused from file to file, so lexing a project allocates
+ * only for its largest file. The decoded content is valid until the next {@link #read}.
+ * <p>
+ * Not thread safe: every lexer thread uses its own reader.
+ */
+public final class SourceReader {
+	private static final int INITIAL_CAPACITY = 64 * 1024;
+
+	private final Map<Charset, CharsetDecoder> decoders = new HashMap<>();
+	private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_CAPACITY);
+	private CharBuffer chars = CharBuffer.allocate(INITIAL_CAPACITY);
+
+	/**
+	 * Reads the file, malformed input is replaced like Sonarqube does when it reads the file.
+	 *
+	 * @return the decoded content, from index 0 to {@link CharBuffer#limit()} of its array
+	 */
+	public CharBuffer read(final Path file, final Charset charset) throws IOException {
+		try (final FileChannel channel = FileChannel.open(file)) {
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE - 8) {
+				throw new IOException("File is too large: " + size + " bytes");
+			}
+			if (bytes.capacity() < size) {
+				bytes = ByteBuffer.allocate((int) size);
+			}
+			bytes.clear();
+			while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+				continue;
+			}
+			bytes.flip();
+		}
+
+		final CharsetDecoder decoder = decoders.computeIfAbsent(charset, key -> key.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE));
+		decoder.reset();
+		final int capacity = (int) Math.min(Integer.MAX_VALUE - 8L, (long) (bytes.limit() * (double) decoder.maxCharsPerByte()) + 1);
+		if (chars.capacity() < capacity) {
+			chars = CharBuffer.allocate(capacity);
+		}
+		chars.clear();
+		decoder.decode(bytes, chars, true);
+		decoder.flush(chars);
+		chars.flip();
+		return chars;
+	}
+}
@@ -0,0 +1,49 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.lexer;
+
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+
+/**
+ * Token types of the TTCN-3 and ASN.1 lexer.
+ */
+public enum TokenType {
+	KEYWORD(TypeOfText.KEYWORD),
+	/** {@code @lazy}, {@code @nocase} and the other TTCN-3 modifiers */
+	MODIFIER(TypeOfText.ANNOTATION),
+	IDENTIFIER(null),
+	STRING(TypeOfText.STRING),
+	NUMBER(TypeOfText.CONSTANT),
+	PREPROCESSOR(TypeOfText.PREPROCESS_DIRECTIVE),
+	PUNCTUATOR(null),
+	COMMENT(TypeOfText.COMMENT),
+	/** {@code /** ... *}{@code /} comments, used by the TTCN-3 documentation tags */
+	DOC_COMMENT(TypeOfText.STRUCTURED_COMMENT);
+
+	private static final TokenType[] VALUES = values();
+
+	private final TypeOfText highlighting;
+
+	TokenType(final TypeOfText highlighting) {
+		this.highlighting = highlighting;
+	}
+
+	/**
+	 * @return the highlighting of the token, {@code null} if it is not highlighted
+	 */
+	public TypeOfText getHighlighting() {
+		return highlighting;
+	}
+
+	public boolean isComment() {
+		return this == COMMENT || this == DOC_COMMENT;
+	}
+
+	static TokenType of(final int ordinal) {
+		return VALUES[ordinal];
+	}
+}
@@ -0,0 +1,367 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.lexer;
+
+import java.nio.CharBuffer;
+import java.util.BitSet;
+import java.util.Set;
+
+import org.eclipse.sonarttcn3.report.SymbolTable;
+
+/**
+ * Hand written lexer for TTCN-3 and ASN.1 modules.
+ * <p>
+ * A file is scanned once, in a single left to right pass, producing the tokens for highlighting
+ * and copy-paste detection and the code and comment line counts at the same time.
+ * It does not parse: malformed code is split into tokens as well as possible and never fails.
+ * <p>
+ * TTCN-3: {@code //} and {@code /* *}{@code /} comments, {@code "..."} strings with {@code ""} and
+ * backslash escapes, {@code '...'B/H/O} bit, hex and octet strings, {@code @} modifiers and
+ * preprocessor directives of {@code .ttcnpp} files.<br>
+ * ASN.1: {@code --} comments ending at the next {@code --} or the end of the line, {@code /* *}{@code /}
+ * comments, hyphenated identifiers and {@code "..."} strings with {@code ""} escapes.
+ */
+public final class Ttcn3Lexer {
+	private static final Set<String> TTCN3_KEYWORDS = Set.of(
+		"action", "activate", "address", "alive", "all", "alt", "altstep", "and", "and4b", "any", "anytype",
+		"bitstring", "boolean", "break", "call", "case", "catch", "char", "charstring", "check", "class",
+		"clear", "complement", "component", "connect", "const", "continue", "control", "create", "deactivate",
+		"decmatch", "default", "disconnect", "display", "do", "done", "else", "encode", "enumerated", "error",
+		"except", "exception", "execute", "extends", "extension", "external", "fail", "false", "finally",
+		"float", "for", "friend", "from", "function", "getcall", "getreply", "getverdict", "goto", "group",
+		"halt", "hexstring", "if", "ifpresent", "import", "in", "inconc", "infinity", "inout", "integer",
+		"interleave", "kill", "killed", "label", "language", "length", "log", "map", "match", "message",
+		"mixed", "mod", "modifies", "module", "modulepar", "mtc", "noblock", "none", "not", "not4b",
+		"not_a_number", "now", "nowait", "null", "object", "octetstring", "of", "omit", "on", "optional",
+		"or", "or4b", "out", "override", "param", "pass", "pattern", "permutation", "port", "present",
+		"private", "procedure", "public", "raise", "read", "realtime", "receive", "record", "recursive",
+		"rem", "repeat", "reply", "return", "running", "runs", "select", "self", "send", "sender", "set",
+		"setencode", "setverdict", "signature", "start", "stop", "subset", "super", "superset", "system",
+		"template", "testcase", "this", "timeout", "timer", "timestamp", "to", "trigger", "true", "type",
+		"union", "universal", "unmap", "value", "valueof", "var", "variant", "verdicttype", "wait", "while",
+		"with", "xor", "xor4b");
+
+	private static final Set<String> ASN1_KEYWORDS = Set.of(
+		"ABSENT", "ABSTRACT-SYNTAX", "ALL", "APPLICATION", "AUTOMATIC", "BEGIN", "BIT", "BMPString", "BOOLEAN",
+		"BY", "CHARACTER", "CHOICE", "CLASS", "COMPONENT", "COMPONENTS", "CONSTRAINED", "CONTAINING",
+		"DATE", "DATE-TIME", "DEFAULT", "DEFINITIONS", "DURATION", "EMBEDDED", "ENCODED", "END", "ENUMERATED",
+		"EXCEPT", "EXPLICIT", "EXPORTS", "EXTENSIBILITY", "EXTERNAL", "FALSE", "FROM", "GeneralizedTime",
+		"GeneralString", "GraphicString", "IA5String", "IDENTIFIER", "IMPLICIT", "IMPLIED", "IMPORTS",
+		"INCLUDES", "INSTANCE", "INTEGER", "INTERSECTION", "ISO646String", "MAX", "MIN", "MINUS-INFINITY",
+		"NOT-A-NUMBER", "NULL", "NumericString", "OBJECT", "ObjectDescriptor", "OCTET", "OF", "OID-IRI",
+		"OPTIONAL", "PATTERN", "PDV", "PLUS-INFINITY", "PRESENT", "PrintableString", "PRIVATE", "REAL",
+		"RELATIVE-OID", "RELATIVE-OID-IRI", "SEQUENCE", "SET", "SETTINGS", "SIZE", "STRING", "SYNTAX",
+		"T61String", "TAGS", "TeletexString", "TIME", "TIME-OF-DAY", "TRUE", "TYPE-IDENTIFIER", "UNION",
+		"UNIQUE", "UNIVERSAL", "UniversalString", "UTCTime", "UTF8String", "VideotexString", "VisibleString",
+		"WITH");
+
+	private static final char BOM = '\uFEFF';
+	private static final int NO_IMAGE = -1;
+
+	private final char[] text;
+	private final int length;
+	private final boolean asn1;
+	private final CharBuffer sequence;
+	private final LexedFile result = new LexedFile();
+	private final SymbolTable images = result.getImages();
+	/** keyword flags of the interned identifiers, looked up once per distinct identifier */
+	private final BitSet checked = new BitSet();
+	private final BitSet keywords = new BitSet();
+
+	private int pos;
+	private int line = 1;
+	private int lineStart;
+	private int lastCodeLine;
+	private int lastCommentLine;
+	private int codeLines;
+	private int commentLines;
+
+	private Ttcn3Lexer(final char[] text, final int length, final boolean asn1) {
+		this.text = text;
+		this.length = length;
+		this.asn1 = asn1;
+		this.sequence = CharBuffer.wrap(text, 0, length);
+	}
+
+	/**
+	 * Tokenizes the first {@code length} characters of the text. A leading byte order mark is skipped,
+	 * offsets are relative to the content after it, as in the Sonarqube API.
+	 */
+	public static LexedFile lex(final char[] text, final int length, final boolean asn1) {
+		final Ttcn3Lexer lexer = new Ttcn3Lexer(text, length, asn1);
+		lexer.run();
+		return lexer.result;
+	}
+
+	private void run() {
+		if (length > 0 && text[0] == BOM) {
+			pos = 1;
+			lineStart = 1;
+		}
+		boolean lineHasToken = false;
+		while (pos < length) {
+			final char c = text[pos];
+			if (c == '\n' || c == '\r') {
+				newLine();
+				lineHasToken = false;
+				continue;
+			}
+			if (c == ' ' || c == '\t' || c == '\f' || c == '\u000B') {
+				pos++;
+				continue;
+			}
+			final int start = pos;
+			final int startLine = line;
+			final int startOffset = pos - lineStart;
+			final char next = pos + 1 < length ? text[pos + 1] : 0;
+			if (c == '/' && next == '/') {
+				lineComment(startOffset);
+			} else if (c == '/' && next == '*') {
+				blockComment(start, startLine, startOffset);
+			} else if (c == '-' && next == '-' && asn1) {
+				asn1Comment(startOffset);
+			} else if (c == '#' && !lineHasToken && !asn1) {
+				preprocessorDirective(start, startLine, startOffset);
+			} else if (c == '"') {
+				string(start, startLine, startOffset);
+			} else if (c == '\'') {
+				quotedString(start, startOffset);
+			} else if (isDigit(c)) {
+				number(start, startOffset);
+			} else if (isIdentifierStart(c)) {
+				identifier(start, startOffset);
+			} else if (c == '@' && !asn1 && isIdentifierStart(next)) {
+				pos++;
+				scanIdentifierPart();
+				code(TokenType.MODIFIER, start, startLine, startOffset);
+			} else {
+				pos++;
+				code(TokenType.PUNCTUATOR, start, startLine, startOffset);
+			}
+			lineHasToken = true;
+		}
+		result.setLineCounts(codeLines, commentLines);
+	}
+
+	private void lineComment(final int startOffset) {
+		pos += 2;
+		while (pos < length && !isLineBreak(text[pos])) {
+			commentChar(text[pos]);
+			pos++;
+		}
+		comment(TokenType.COMMENT, line, startOffset);
+	}
+
+	private void blockComment(final int start, final int startLine, final int startOffset) {
+		final TokenType type = start + 2 < length && text[start + 2] == '*'
+			&& !(start + 3 < length && text[start + 3] == '/') ? TokenType.DOC_COMMENT : TokenType.COMMENT;
+		pos += 2;
+		while (pos < length) {
+			final char c = text[pos];
+			if (c == '*' && pos + 1 < length && text[pos + 1] == '/') {
+				pos += 2;
+				break;
+			}
+			if (isLineBreak(c)) {
+				newLine();
+			} else {
+				commentChar(c);
+				pos++;
+			}
+		}
+		comment(type, startLine, startOffset);
+	}
+
+	/**
+	 * An ASN.1 comment ends at the next {@code --} or at the end of the line.
+	 */
+	private void asn1Comment(final int startOffset) {
+		pos += 2;
+		while (pos < length && !isLineBreak(text[pos])) {
+			if (text[pos] == '-' && pos + 1 < length && text[pos + 1] == '-') {
+				pos += 2;
+				break;
+			}
+			commentChar(text[pos]);
+			pos++;
+		}
+		comment(TokenType.COMMENT, line, startOffset);
+	}
+
+	/**
+	 * A directive runs to the end of the line, lines ending with a backslash are continued.
+	 */
+	private void preprocessorDirective(final int start, final int startLine, final int startOffset) {
+		pos++;
+		while (pos < length) {
+			final char c = text[pos];
+			if (isLineBreak(c)) {
+				if (text[pos - 1] != '\\') {
+					break;
+				}
+				newLine();
+			} else {
+				pos++;
+			}
+		}
+		code(TokenType.PREPROCESSOR, start, startLine, startOffset);
+	}
+
+	/**
+	 * Character strings may span lines. {@code ""} is an escaped quote in both languages,
+	 * TTCN-3 also has C-like backslash escapes.
+	 */
+	private void string(final int start, final int startLine, final int startOffset) {
+		pos++;
+		while (pos < length) {
+			final char c = text[pos];
+			if (c == '"') {
+				pos++;
+				if (pos < length && text[pos] == '"') {
+					pos++;
+					continue;
+				}
+				break;
+			}
+			if (c == '\\' && !asn1 && pos + 1 < length && !isLineBreak(text[pos + 1])) {
+				pos += 2;
+			} else if (isLineBreak(c)) {
+				newLine();
+			} else {
+				pos++;
+			}
+		}
+		code(TokenType.STRING, start, startLine, startOffset);
+	}
+
+	/**
+	 * Bit, hex and octet strings ({@code '0101'B}, {@code 'FF'O}) and their patterns end on the same line,
+	 * a lone quote is a punctuator.
+	 */
+	private void quotedString(final int start, final int startOffset) {
+		int end = pos + 1;
+		while (end < length && text[end] != '\'' && !isLineBreak(text[end])) {
+			end++;
+		}
+		if (end < length && text[end] == '\'') {
+			pos = end + 1;
+			if (pos < length && isRadix(text[pos])) {
+				pos++;
+			}
+			code(TokenType.STRING, start, line, startOffset);
+		} else {
+			pos++;
+			code(TokenType.PUNCTUATOR, start, line, startOffset);
+		}
+	}
+
+	private void number(final int start, final int startOffset) {
+		scanDigits();
+		if (pos + 1 < length && text[pos] == '.' && isDigit(text[pos + 1])) {
+			pos++;
+			scanDigits();
+		}
+		if (pos < length && (text[pos] == 'e' || text[pos] == 'E')) {
+			int exponent = pos + 1;
+			if (exponent < length && (text[exponent] == '+' || text[exponent] == '-')) {
+				exponent++;
+			}
+			if (exponent < length && isDigit(text[exponent])) {
+				pos = exponent;
+				scanDigits();
+			}
+		}
+		code(TokenType.NUMBER, start, line, startOffset);
+	}
+
+	private void identifier(final int start, final int startOffset) {
+		scanIdentifierPart();
+		final int image = images.intern(sequence, start, pos);
+		if (!checked.get(image)) {
+			checked.set(image);
+			keywords.set(image, (asn1 ? ASN1_KEYWORDS : TTCN3_KEYWORDS).contains(images.get(image)));
+		}
+		result.add(keywords.get(image) ? TokenType.KEYWORD : TokenType.IDENTIFIER, line, startOffset, line,
+			pos - lineStart, image);
+		markCode(line, line);
+	}
+
+	/**
+	 * ASN.1 identifiers may contain single hyphens, but neither end with one nor contain {@code --}.
+	 */
+	private void scanIdentifierPart() {
+		while (pos < length) {
+			final char c = text[pos];
+			if (isIdentifierStart(c) || isDigit(c)) {
+				pos++;
+			} else if (c == '-' && asn1 && pos + 1 < length
+					&& (isIdentifierStart(text[pos + 1]) || isDigit(text[pos + 1]))) {
+				pos++;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private void scanDigits() {
+		while (pos < length && isDigit(text[pos])) {
+			pos++;
+		}
+	}
+
+	private void code(final TokenType type, final int start, final int startLine, final int startOffset) {
+		result.add(type, startLine, startOffset, line, pos - lineStart, images.intern(sequence, start, pos));
+		markCode(startLine, line);
+	}
+
+	private void comment(final TokenType type, final int startLine, final int startOffset) {
+		result.add(type, startLine, startOffset, line, pos - lineStart, NO_IMAGE);
+	}
+
+	private void markCode(final int startLine, final int endLine) {
+		codeLines += endLine - Math.max(startLine, lastCodeLine + 1) + 1;
+		lastCodeLine = endLine;
+	}
+
+	/**
+	 * Only lines with comment text count as comment lines, not those holding only delimiters, blanks or decoration.
+	 */
+	private void commentChar(final char c) {
+		if (line != lastCommentLine && Character.isLetterOrDigit(c)) {
+			lastCommentLine = line;
+			commentLines++;
+		}
+	}
+
+	/**
+	 * Consumes a line break, {@code \r\n}, {@code \r} or {@code \n}, like the Sonarqube line metadata.
+	 */
+	private void newLine() {
+		if (text[pos] == '\r' && pos + 1 < length && text[pos + 1] == '\n') {
+			pos++;
+		}
+		pos++;
+		line++;
+		lineStart = pos;
+	}
+
+	private static boolean isLineBreak(final char c) {
+		return c == '\n' || c == '\r';
+	}
+
+	private static boolean isDigit(final char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isIdentifierStart(final char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+	}
+
+	private static boolean isRadix(final char c) {
+		return c == 'B' || c == 'H' || c == 'O' || c == 'b' || c == 'h' || c == 'o';
+	}
+}
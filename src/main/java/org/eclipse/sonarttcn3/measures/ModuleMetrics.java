@@ -8,6 +8,7 @@ package org.eclipse.sonarttcn3.measures;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import static java.util.Map.entry;
 
 import org.sonar.api.measures.Metric;
@@ -142,4 +143,8 @@ public class ModuleMetrics implements Metrics {
     public static Metric<Integer> getMetric(final String key) {
         return moduleMetrics.get(key);
     }
+
+    public static Set<String> getKeys() {
+        return moduleMetrics.keySet();
+    }
 }
@@ -6,7 +6,9 @@
  ******************************************************************************/
 package org.eclipse.sonarttcn3.measures;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +17,78 @@ import org.sonar.api.measures.Metric;
 import org.sonar.api.measures.Metrics;
 
 public class ProjectMetrics implements Metrics {
+    /**
+     * Project level aggregates of a module metric
+     */
+    public static final class Rollup {
+        private final Metric<Integer> sum;
+        private final Metric<Double> mean;
+        private final Metric<Integer> max;
+        private final Metric<Integer> p90;
+        private final Metric<String> worstModule;
+
+        private Rollup(final Metric<Integer> moduleMetric) {
+            final String key = moduleMetric.key();
+            final String name = moduleMetric.getName();
+            sum = new Metric.Builder(key + "_SUM", name + " (sum)", Metric.ValueType.INT)
+                .setDescription("Sum of " + name + " over all modules")
+                .setDirection(moduleMetric.getDirection())
+                .setQualitative(false)
+                .setDomain(ROLLUP_DOMAIN)
+                .create();
+            mean = new Metric.Builder(key + "_MEAN", name + " (mean)", Metric.ValueType.FLOAT)
+                .setDescription("Mean of " + name + " per module")
+                .setDirection(moduleMetric.getDirection())
+                .setQualitative(false)
+                .setDecimalScale(2)
+                .setDomain(ROLLUP_DOMAIN)
+                .create();
+            max = new Metric.Builder(key + "_MAX", name + " (max)", Metric.ValueType.INT)
+                .setDescription("Highest " + name + " of a module")
+                .setDirection(moduleMetric.getDirection())
+                .setQualitative(false)
+                .setDomain(ROLLUP_DOMAIN)
+                .create();
+            p90 = new Metric.Builder(key + "_P90", name + " (90th percentile)", Metric.ValueType.INT)
+                .setDescription("90th percentile of " + name + " per module")
+                .setDirection(moduleMetric.getDirection())
+                .setQualitative(false)
+                .setDomain(ROLLUP_DOMAIN)
+                .create();
+            worstModule = new Metric.Builder(key + "_WORST_MODULE", name + " (worst module)", Metric.ValueType.STRING)
+                .setDescription("Key of the module with the highest " + name)
+                .setQualitative(false)
+                .setDomain(ROLLUP_DOMAIN)
+                .create();
+        }
+
+        public Metric<Integer> getSum() {
+            return sum;
+        }
+
+        public Metric<Double> getMean() {
+            return mean;
+        }
+
+        public Metric<Integer> getMax() {
+            return max;
+        }
+
+        public Metric<Integer> getP90() {
+            return p90;
+        }
+
+        public Metric<String> getWorstModule() {
+            return worstModule;
+        }
+
+        private List<Metric> getMetrics() {
+            return Arrays.asList(sum, mean, max, p90, worstModule);
+        }
+    }
+
+    private static final String ROLLUP_DOMAIN = "Ttcn3Plugin";
+
     public static final Metric<Integer> NOF_TTCN3_MODULES =
         new Metric.Builder("NOF_TTCN3_MODULES", "Number of TTCN3 modules", Metric.ValueType.INT)
             .setDescription("Number of TTCN3 modules in the project")
@@ -30,21 +104,59 @@ public class ProjectMetrics implements Metrics {
             .setQualitative(false)
             .setDomain(CoreMetrics.DOMAIN_SIZE)
             .create();
+
+    public static final Metric<Integer> SUPPRESSED_ISSUES =
+        new Metric.Builder("SUPPRESSED_ISSUES", "Suppressed TTCN3 issues", Metric.ValueType.INT)
+            .setDescription("Number of Titanium findings not reported because of the per-rule and per-file issue limits")
+            .setDirection(Metric.DIRECTION_WORST)
+            .setQualitative(false)
+            .setDomain(CoreMetrics.DOMAIN_ISSUES)
+            .create();
             
     static Map<String, Metric<Integer>> projectMetrics = Map.of(
         "NOF_TTCN3_MODULES", NOF_TTCN3_MODULES,
-        "NOF_ASN1_MODULES", NOF_ASN1_MODULES
+        "NOF_ASN1_MODULES", NOF_ASN1_MODULES,
+        "SUPPRESSED_ISSUES", SUPPRESSED_ISSUES
     );
 
+    static Map<String, Rollup> rollups = createRollups();
+
+    private static Map<String, Rollup> createRollups() {
+        final Map<String, Rollup> result = new LinkedHashMap<>();
+        ModuleMetrics.moduleMetrics.keySet().stream()
+            .sorted()
+            .forEach(key -> result.put(key, new Rollup(ModuleMetrics.moduleMetrics.get(key))));
+        return result;
+    }
+
     @Override
     public List<Metric> getMetrics() {
-        return Arrays.asList(
+        final List<Metric> metrics = new ArrayList<>(Arrays.asList(
             NOF_TTCN3_MODULES,
-            NOF_ASN1_MODULES
-        );
+            NOF_ASN1_MODULES,
+            SUPPRESSED_ISSUES
+        ));
+        for (final Rollup rollup : rollups.values()) {
+            metrics.addAll(rollup.getMetrics());
+        }
+        return metrics;
     }
     
     public static Metric<Integer> getMetric(final String key) {
         return projectMetrics.get(key);
     }
+
+    /**
+     * @return the project roll-up metrics of a module metric, or {@code null} if the key is not a module metric
+     */
+    public static Rollup getRollup(final String moduleMetricKey) {
+        return rollups.get(moduleMetricKey);
+    }
+
+    /**
+     * @return the keys of the rolled up module metrics, in alphabetical order
+     */
+    public static List<String> getRollupKeys() {
+        return List.copyOf(rollups.keySet());
+    }
 }
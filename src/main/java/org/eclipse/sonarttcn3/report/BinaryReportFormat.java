@@ -0,0 +1,46 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Compact binary alternative of the text report. All numbers are big endian.
+ * <pre>
+ * header:  magic "T3RB", version (u16), flags (u16),
+ *          string count (i32), issue count (i32), metric count (i32)
+ * strings: byte length (i32) and UTF-8 bytes of each string (paths, rule keys, messages, metric names)
+ * issues:  file, line, rule key, message (4 x i32)
+ * metrics: file, metric name, value (3 x i32)
+ * </pre>
+ * Records refer to strings by their index in the string table. Issue lines are Sonarqube
+ * line numbers (starting from 1), the file of a project level metric is {@code -1}.
+ */
+public final class BinaryReportFormat {
+	static final byte[] MAGIC = { 'T', '3', 'R', 'B' };
+	static final short VERSION = 1;
+	static final int HEADER_SIZE = 20;
+	static final int ISSUE_RECORD_SIZE = 16;
+	static final int METRIC_RECORD_SIZE = 12;
+	static final int NO_FILE = -1;
+
+	private BinaryReportFormat() {
+	}
+
+	/**
+	 * @return {@code true} if the file starts with the binary report magic bytes
+	 */
+	public static boolean isBinaryReport(final Path report) throws IOException {
+		try (final InputStream in = Files.newInputStream(report)) {
+			return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+		}
+	}
+}
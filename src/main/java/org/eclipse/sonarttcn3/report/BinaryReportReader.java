@@ -0,0 +1,124 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a binary report (see {@link BinaryReportFormat}) through a memory mapped buffer.
+ * The strings are decoded once when the table is read, records are passed to the sink
+ * without any further allocation.
+ */
+public final class BinaryReportReader {
+	private BinaryReportReader() {
+	}
+
+	/**
+	 * @throws IOException if the file is not a binary report of a supported version, or it is truncated or malformed
+	 */
+	public static void read(final Path report, final ReportRecordSink sink) throws IOException {
+		read(load(report), sink);
+	}
+
+	/**
+	 * Maps the report and loads it into memory, so reading it is done before it is parsed.
+	 */
+	static MappedByteBuffer load(final Path report) throws IOException {
+		try (final FileChannel channel = FileChannel.open(report, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Binary report is too large: " + report);
+			}
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).load();
+		}
+	}
+
+	/**
+	 * Every count, length and string index is checked against the rest of the buffer before it is used,
+	 * so a corrupt report fails with an {@link IOException} instead of a huge allocation.
+	 */
+	static void read(final ByteBuffer buffer, final ReportRecordSink sink) throws IOException {
+		if (buffer.remaining() < BinaryReportFormat.HEADER_SIZE) {
+			throw new IOException("Not a binary report");
+		}
+		final byte[] magic = new byte[BinaryReportFormat.MAGIC.length];
+		buffer.get(magic);
+		if (!Arrays.equals(magic, BinaryReportFormat.MAGIC)) {
+			throw new IOException("Not a binary report");
+		}
+		final short version = buffer.getShort();
+		if (version != BinaryReportFormat.VERSION) {
+			throw new IOException("Unsupported binary report version " + version);
+		}
+		buffer.getShort();
+		final int stringCount = buffer.getInt();
+		final int issueCount = buffer.getInt();
+		final int metricCount = buffer.getInt();
+		if (stringCount < 0 || issueCount < 0 || metricCount < 0) {
+			throw malformed("negative count in the header");
+		}
+
+		/** every string takes at least its length field */
+		final long recordBytes = (long) issueCount * BinaryReportFormat.ISSUE_RECORD_SIZE
+			+ (long) metricCount * BinaryReportFormat.METRIC_RECORD_SIZE;
+		if (buffer.remaining() < (long) stringCount * Integer.BYTES + recordBytes) {
+			throw malformed("counts in the header exceed the size of the report");
+		}
+
+		final String[] strings = new String[stringCount];
+		for (int i = 0; i < stringCount; i++) {
+			final int length = buffer.getInt();
+			final int position = buffer.position();
+			if (length < 0 || length > buffer.remaining()) {
+				throw malformed("invalid length " + length + " of string " + i);
+			}
+			if (buffer.hasArray()) {
+				strings[i] = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+			} else {
+				final byte[] bytes = new byte[length];
+				buffer.get(position, bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+			buffer.position(position + length);
+		}
+
+		if (buffer.remaining() < recordBytes) {
+			throw malformed("truncated records");
+		}
+
+		for (int i = 0; i < issueCount; i++) {
+			final String file = string(strings, buffer.getInt());
+			final int line = buffer.getInt();
+			final String ruleKey = string(strings, buffer.getInt());
+			final String message = string(strings, buffer.getInt());
+			sink.issue(file, line, ruleKey, message);
+		}
+		for (int i = 0; i < metricCount; i++) {
+			final int file = buffer.getInt();
+			final String metric = string(strings, buffer.getInt());
+			final int value = buffer.getInt();
+			sink.metric(file == BinaryReportFormat.NO_FILE ? "" : string(strings, file), metric, value);
+		}
+	}
+
+	private static String string(final String[] strings, final int index) throws IOException {
+		if (index < 0 || index >= strings.length) {
+			throw malformed("string index " + index + " out of range");
+		}
+		return strings[index];
+	}
+
+	private static IOException malformed(final String reason) {
+		return new IOException("Malformed binary report: " + reason);
+	}
+}
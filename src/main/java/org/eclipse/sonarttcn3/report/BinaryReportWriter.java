@@ -0,0 +1,87 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects records and writes them as a binary report (see {@link BinaryReportFormat}).
+ * Repeated paths, rule keys and messages are stored once in the string table.
+ */
+public class BinaryReportWriter implements ReportRecordSink {
+	private final Map<String, Integer> stringIds = new HashMap<>();
+	private final List<String> strings = new ArrayList<>();
+
+	private int[] issues = new int[1024];
+	private int issueCount;
+	private int[] metrics = new int[1024];
+	private int metricCount;
+
+	@Override
+	public void issue(final String file, final int line, final String ruleKey, final String message) {
+		issues = ensureCapacity(issues, (issueCount + 1) * 4);
+		final int offset = issueCount * 4;
+		issues[offset] = intern(file);
+		issues[offset + 1] = line;
+		issues[offset + 2] = intern(ruleKey);
+		issues[offset + 3] = intern(message);
+		issueCount++;
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		metrics = ensureCapacity(metrics, (metricCount + 1) * 3);
+		final int offset = metricCount * 3;
+		metrics[offset] = file.isEmpty() ? BinaryReportFormat.NO_FILE : intern(file);
+		metrics[offset + 1] = intern(metric);
+		metrics[offset + 2] = value;
+		metricCount++;
+	}
+
+	public void write(final Path report) throws IOException {
+		try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(report), 1 << 16))) {
+			out.write(BinaryReportFormat.MAGIC);
+			out.writeShort(BinaryReportFormat.VERSION);
+			out.writeShort(0);
+			out.writeInt(strings.size());
+			out.writeInt(issueCount);
+			out.writeInt(metricCount);
+			for (final String str : strings) {
+				final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			for (int i = 0; i < issueCount * 4; i++) {
+				out.writeInt(issues[i]);
+			}
+			for (int i = 0; i < metricCount * 3; i++) {
+				out.writeInt(metrics[i]);
+			}
+		}
+	}
+
+	private int intern(final String str) {
+		return stringIds.computeIfAbsent(str, s -> {
+			strings.add(s);
+			return strings.size() - 1;
+		});
+	}
+
+	private static int[] ensureCapacity(final int[] array, final int size) {
+		return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+	}
+}
@@ -0,0 +1,57 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Character view of UTF-8 encoded bytes, without decoding them upfront.
+ * <p>
+ * {@link #charAt(int)} returns single bytes, which is enough for finding the ASCII delimiters and
+ * digits of a report line: bytes of multi-byte UTF-8 sequences are never in the ASCII range.
+ * {@link #toString()} decodes the bytes properly, so the extracted fields are correct strings
+ * (see {@link ReportDecoding}).
+ */
+final class ByteCharSequence implements CharSequence {
+	private final ByteBuffer buffer;
+	private final int offset;
+	private final int length;
+	private final LongAdder replacements;
+
+	/**
+	 * @param replacements counter of the malformed sequences replaced while decoding
+	 */
+	ByteCharSequence(final ByteBuffer buffer, final int offset, final int length, final LongAdder replacements) {
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
+		this.replacements = replacements;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(final int index) {
+		return (char) (buffer.get(offset + index) & 0xff);
+	}
+
+	@Override
+	public CharSequence subSequence(final int start, final int end) {
+		return new ByteCharSequence(buffer, offset + start, end - start, replacements);
+	}
+
+	@Override
+	public String toString() {
+		final byte[] bytes = new byte[length];
+		buffer.get(offset, bytes);
+		return ReportDecoding.decode(bytes, 0, length, replacements);
+	}
+}
@@ -0,0 +1,153 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.eclipse.sonarttcn3.statistics.ThreadTimes;
+
+/**
+ * Parses a large text report in parallel. The report is memory mapped and split into newline
+ * aligned chunks, each chunk is loaded and parsed on a fork-join pool into its own buffer, and the buffers
+ * are replayed to the sink in report order on the calling thread.
+ */
+public class ChunkedReportParser {
+	/** chunks are kept well below the 2GB limit of a single mapping */
+	private static final long MAX_CHUNK_SIZE = 256L * 1024 * 1024;
+
+	/** more chunks than threads, so a slow chunk does not hold up the whole pool */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final Pattern customIssuePattern;
+	private final int parallelism;
+	private final ThreadTimes readNanos = new ThreadTimes();
+	private final LongAdder replacements = new LongAdder();
+
+	public ChunkedReportParser(final Pattern customIssuePattern, final int parallelism) {
+		this.customIssuePattern = customIssuePattern;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @return the number of unmatched lines
+	 */
+	public long parse(final Path report, final ReportRecordSink sink) throws IOException {
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try (final FileChannel channel = FileChannel.open(report, StandardOpenOption.READ)) {
+			final List<Future<ChunkResult>> results = new ArrayList<>();
+			for (final long[] chunk : split(channel)) {
+				final long start = chunk[0];
+				final long size = chunk[1];
+				results.add(pool.submit(() -> parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, start, size))));
+			}
+
+			long unmatched = 0;
+			for (final Future<ChunkResult> result : results) {
+				final ChunkResult chunk = result.get();
+				chunk.buffer.replay(sink);
+				unmatched += chunk.unmatched;
+			}
+			return unmatched;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading " + report, e);
+		} catch (ExecutionException e) {
+			throw new IOException("Error while reading " + report, e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return the time spent loading the chunks on the busiest thread
+	 */
+	public long getReadNanos() {
+		return readNanos.getMax();
+	}
+
+	/**
+	 * @return the number of malformed UTF-8 sequences replaced, see {@link ReportDecoding}
+	 */
+	public long getReplacementCount() {
+		return replacements.sum();
+	}
+
+	private static final class ChunkResult {
+		private final ReportBuffer buffer;
+		private final long unmatched;
+
+		ChunkResult(final ReportBuffer buffer, final long unmatched) {
+			this.buffer = buffer;
+			this.unmatched = unmatched;
+		}
+	}
+
+	private ChunkResult parseChunk(final MappedByteBuffer bytes) {
+		final long start = System.nanoTime();
+		bytes.load();
+		readNanos.add(System.nanoTime() - start);
+		final SymbolTable symbols = new SymbolTable();
+		final ReportBuffer buffer = new ReportBuffer(symbols);
+		final ReportLineParser parser = new ReportLineParser(buffer, customIssuePattern, symbols);
+		parser.parseText(new ByteCharSequence(bytes, 0, bytes.limit(), replacements));
+		return new ChunkResult(buffer, parser.getUnmatchedLines());
+	}
+
+	/**
+	 * @return {@code [start, size]} pairs of chunks that each end after a newline (or at the end of the file)
+	 */
+	private List<long[]> split(final FileChannel channel) throws IOException {
+		final long fileSize = channel.size();
+		final long chunkSize = Math.min(MAX_CHUNK_SIZE,
+			Math.max(1, fileSize / ((long) parallelism * CHUNKS_PER_THREAD)));
+		final List<long[]> chunks = new ArrayList<>();
+		final ByteBuffer probe = ByteBuffer.allocate(8192);
+		long start = 0;
+		while (start < fileSize) {
+			long end = Math.min(start + chunkSize, fileSize);
+			if (end < fileSize) {
+				end = nextLineStart(channel, probe, end - 1, fileSize);
+			}
+			if (end - start > Integer.MAX_VALUE) {
+				throw new IOException("Report line too long");
+			}
+			chunks.add(new long[] { start, end - start });
+			start = end;
+		}
+		return chunks;
+	}
+
+	private static long nextLineStart(final FileChannel channel, final ByteBuffer probe, long position,
+			final long fileSize) throws IOException {
+		while (position < fileSize) {
+			probe.clear();
+			final int read = channel.read(probe, position);
+			if (read <= 0) {
+				return fileSize;
+			}
+			for (int i = 0; i < read; i++) {
+				if (probe.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return fileSize;
+	}
+}
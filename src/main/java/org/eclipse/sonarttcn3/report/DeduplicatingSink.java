@@ -0,0 +1,84 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.sonarttcn3.report.InputFileIndex.IndexedFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merges the records of several reports (e.g. sharded analyzer runs) before they are saved.
+ * <ul>
+ * <li>issues with the same file, line, rule and message are passed on only once, distinct findings of a rule
+ * on the same line are all kept</li>
+ * <li>for a metric reported more than once on the same component the first value wins,
+ * so the result is deterministic as long as the reports are replayed in a fixed order</li>
+ * </ul>
+ * Files are compared after path resolution, so the same module reported with an absolute path
+ * in one report and a relative one in another is still recognized.
+ */
+public class DeduplicatingSink implements ReportRecordSink {
+	private static final Logger LOG = LoggerFactory.getLogger(DeduplicatingSink.class);
+
+	private record IssueKey(Object file, int line, String ruleKey, String message) {}
+
+	private record MetricKey(Object file, String metric) {}
+
+	private final InputFileIndex index;
+	private final ReportRecordSink next;
+
+	private final Set<IssueKey> issues = new HashSet<>();
+	private final Map<MetricKey, Integer> metrics = new HashMap<>();
+
+	private long duplicateIssues;
+	private long conflictingMetrics;
+
+	public DeduplicatingSink(final InputFileIndex index, final ReportRecordSink next) {
+		this.index = index;
+		this.next = next;
+	}
+
+	@Override
+	public void issue(final String file, final int line, final String ruleKey, final String message) {
+		if (issues.add(new IssueKey(resolve(file), line, ruleKey, message))) {
+			next.issue(file, line, ruleKey, message);
+		} else {
+			duplicateIssues++;
+		}
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		final MetricKey key = new MetricKey(file.isEmpty() ? file : resolve(file), metric);
+		final Integer previous = metrics.putIfAbsent(key, value);
+		if (previous == null) {
+			next.metric(file, metric, value);
+		} else if (previous != value) {
+			LOG.debug("Conflicting values for metric {} of `{}`: keeping {}, ignoring {}", metric, file, previous, value);
+			conflictingMetrics++;
+		}
+	}
+
+	public long getDuplicateIssueCount() {
+		return duplicateIssues;
+	}
+
+	public long getConflictingMetricCount() {
+		return conflictingMetrics;
+	}
+
+	private Object resolve(final String file) {
+		final IndexedFile indexed = index.get(file);
+		return Objects.requireNonNullElse(indexed, file);
+	}
+}
@@ -0,0 +1,191 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.sonarttcn3.languages.Ttcn3Language;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Hash index of the TTCN3 and ASN.1 input files, keyed by both absolute and relative path.
+ * The index is built once per analysis, so placing an issue or a measure costs a single lookup
+ * instead of file system predicate queries.
+ */
+public class InputFileIndex {
+	private static final Logger LOG = LoggerFactory.getLogger(InputFileIndex.class);
+
+	/**
+	 * An indexed input file together with its line count, which is computed on first use
+	 */
+	public static final class IndexedFile {
+		private final InputFile inputFile;
+		private final Path path;
+		private final String relativePath;
+		private int lines = -1;
+
+		IndexedFile(final InputFile inputFile, final Path path, final String relativePath) {
+			this.inputFile = inputFile;
+			this.path = path;
+			this.relativePath = relativePath;
+		}
+
+		public InputFile getInputFile() {
+			return inputFile;
+		}
+
+		/**
+		 * @return the normalized absolute path
+		 */
+		public Path getPath() {
+			return path;
+		}
+
+		/**
+		 * @return the path relative to the base directory, with {@code /} separators
+		 */
+		public String getRelativePath() {
+			return relativePath;
+		}
+
+		public int getLines() {
+			if (lines < 0) {
+				lines = inputFile.lines();
+			}
+			return lines;
+		}
+
+		public boolean hasLine(final int line) {
+			return line >= 1 && line <= getLines();
+		}
+	}
+
+	private final Path baseDir;
+	private final Map<String, IndexedFile> files = new HashMap<>();
+	private final List<IndexedFile> indexedFiles = new ArrayList<>();
+
+	/** paths that were not found, mapped to the number of times they were looked up */
+	private final Map<String, Integer> unknownPaths = new HashMap<>();
+	private long lookups;
+	private long lookupNanos;
+
+	public InputFileIndex(final FileSystem fs) {
+		baseDir = fs.baseDir().toPath().toAbsolutePath().normalize();
+		for (final InputFile inputFile : fs.inputFiles(fs.predicates().hasLanguage(Ttcn3Language.KEY))) {
+			final Path absolute = Path.of(inputFile.uri()).toAbsolutePath().normalize();
+			final IndexedFile indexed = new IndexedFile(inputFile, absolute, toKey(baseDir.relativize(absolute)));
+			files.put(absolute.toString(), indexed);
+			files.put(indexed.getRelativePath(), indexed);
+			indexedFiles.add(indexed);
+		}
+	}
+
+	public Path getBaseDir() {
+		return baseDir;
+	}
+
+	/**
+	 * @return every indexed file, once each
+	 */
+	public List<IndexedFile> getFiles() {
+		return Collections.unmodifiableList(indexedFiles);
+	}
+
+	/**
+	 * Looks up an input file by its absolute or relative path. Unknown paths are logged once each.
+	 *
+	 * @return the indexed file, or {@code null} if the path is not a TTCN3 or ASN.1 input file
+	 */
+	public IndexedFile get(final String path) {
+		final long start = System.nanoTime();
+		final IndexedFile indexed = lookup(path);
+		lookupNanos += System.nanoTime() - start;
+		lookups++;
+		return indexed;
+	}
+
+	private IndexedFile lookup(final String path) {
+		IndexedFile indexed = files.get(path);
+		if (indexed != null) {
+			return indexed;
+		}
+
+		final Integer misses = unknownPaths.get(path);
+		if (misses != null) {
+			unknownPaths.put(path, misses + 1);
+			return null;
+		}
+
+		indexed = files.get(normalize(path));
+		if (indexed != null) {
+			files.put(path, indexed);
+			return indexed;
+		}
+
+		LOG.warn("File not found: {}", path);
+		unknownPaths.put(path, 1);
+		return null;
+	}
+
+	/**
+	 * @return the number of {@link #get(String)} calls
+	 */
+	public long getLookupCount() {
+		return lookups;
+	}
+
+	/**
+	 * @return the time spent in {@link #get(String)}, in nanoseconds
+	 */
+	public long getLookupNanos() {
+		return lookupNanos;
+	}
+
+	public int size() {
+		return indexedFiles.size();
+	}
+
+	/**
+	 * @return the number of distinct paths that could not be resolved
+	 */
+	public int getUnknownFileCount() {
+		return unknownPaths.size();
+	}
+
+	/**
+	 * @return the number of lookups of paths that could not be resolved
+	 */
+	public long getUnknownLookupCount() {
+		long count = 0;
+		for (final int misses : unknownPaths.values()) {
+			count += misses;
+		}
+		return count;
+	}
+
+	private String normalize(final String path) {
+		try {
+			final Path resolved = baseDir.resolve(path).normalize();
+			return resolved.toString();
+		} catch (InvalidPathException e) {
+			return path;
+		}
+	}
+
+	private static String toKey(final Path relative) {
+		return relative.toString().replace('\\', '/');
+	}
+}
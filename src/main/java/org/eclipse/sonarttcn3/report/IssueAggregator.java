@@ -0,0 +1,168 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.sonarttcn3.measures.ProjectMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounds the number of issues passed on for saving.
+ * <ul>
+ * <li>optionally, hits of the same rule on the same line are merged into one issue with an occurrence count,
+ * which counts exact duplicates (same file, line, rule and message) as well</li>
+ * <li>otherwise exact duplicates are collapsed. Only the issues of the file being received are remembered,
+ * reports list the findings of a file together, so a duplicate separated from its original by another file is kept</li>
+ * <li>optionally, the number of issues per rule and per file is capped</li>
+ * </ul>
+ * Issues reported by several reports are collapsed before, by {@link DeduplicatingSink}.
+ * The number of suppressed issues is saved as a project measure by {@link #flush()}.
+ */
+public class IssueAggregator implements ReportRecordSink {
+	private static final Logger LOG = LoggerFactory.getLogger(IssueAggregator.class);
+
+	private record IssueKey(Object file, int line, String ruleKey, String message) {}
+
+	private record LineIssue(int line, String ruleKey, String message) {}
+
+	private static final class MergedIssue {
+		private final String file;
+		private final int line;
+		private final String ruleKey;
+		private final String message;
+		private int count = 1;
+
+		MergedIssue(final String file, final int line, final String ruleKey, final String message) {
+			this.file = file;
+			this.line = line;
+			this.ruleKey = ruleKey;
+			this.message = message;
+		}
+	}
+
+	private final InputFileIndex index;
+	private final ReportRecordSink next;
+	private final boolean mergeSameLine;
+	private final int maxPerRule;
+	private final int maxPerFile;
+
+	/** issues of {@link #currentFile}, to collapse exact duplicates when hits are not merged */
+	private final Set<LineIssue> fileIssues = new HashSet<>();
+	private Object currentFile;
+	private final Map<IssueKey, MergedIssue> merged = new LinkedHashMap<>();
+	private final Map<String, Integer> perRule = new HashMap<>();
+	private final Map<Object, Integer> perFile = new HashMap<>();
+	private final Map<String, Long> suppressedPerRule = new TreeMap<>();
+
+	private long duplicates;
+	private long mergedHits;
+	private long suppressed;
+
+	/**
+	 * @param maxPerRule maximum number of issues per rule, 0 for no limit
+	 * @param maxPerFile maximum number of issues per file, 0 for no limit
+	 */
+	public IssueAggregator(final InputFileIndex index, final boolean mergeSameLine, final int maxPerRule,
+			final int maxPerFile, final ReportRecordSink next) {
+		this.index = index;
+		this.mergeSameLine = mergeSameLine;
+		this.maxPerRule = maxPerRule;
+		this.maxPerFile = maxPerFile;
+		this.next = next;
+	}
+
+	@Override
+	public void issue(final String file, final int line, final String ruleKey, final String message) {
+		final Object resolved = resolve(file);
+		if (mergeSameLine) {
+			final IssueKey key = new IssueKey(resolved, line, ruleKey, null);
+			final MergedIssue issue = merged.get(key);
+			if (issue != null) {
+				issue.count++;
+				mergedHits++;
+			} else {
+				merged.put(key, new MergedIssue(file, line, ruleKey, message));
+			}
+			return;
+		}
+
+		if (!resolved.equals(currentFile)) {
+			currentFile = resolved;
+			fileIssues.clear();
+		}
+		if (!fileIssues.add(new LineIssue(line, ruleKey, message))) {
+			duplicates++;
+			return;
+		}
+		emit(resolved, file, line, ruleKey, message);
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		next.metric(file, metric, value);
+	}
+
+	/**
+	 * Passes on the merged issues and saves the number of suppressed issues.
+	 * Must be called once, after the last record.
+	 */
+	public void flush() {
+		for (final Map.Entry<IssueKey, MergedIssue> entry : merged.entrySet()) {
+			final MergedIssue issue = entry.getValue();
+			final String message = issue.count > 1
+				? issue.message + " (" + issue.count + " occurrences)"
+				: issue.message;
+			emit(entry.getKey().file(), issue.file, issue.line, issue.ruleKey, message);
+		}
+		merged.clear();
+		fileIssues.clear();
+		currentFile = null;
+
+		if (duplicates > 0 || mergedHits > 0) {
+			LOG.info("Collapsed {} duplicate issues, merged {} same-line hits", duplicates, mergedHits);
+		}
+		if (suppressed > 0) {
+			LOG.warn("{} issues suppressed by the per-rule and per-file limits: {}", suppressed, suppressedPerRule);
+		}
+		if (maxPerRule > 0 || maxPerFile > 0) {
+			next.metric("", ProjectMetrics.SUPPRESSED_ISSUES.key(), (int) Math.min(suppressed, Integer.MAX_VALUE));
+		}
+	}
+
+	public long getSuppressedCount() {
+		return suppressed;
+	}
+
+	private void emit(final Object resolved, final String file, final int line, final String ruleKey, final String message) {
+		final int ruleCount = perRule.getOrDefault(ruleKey, 0);
+		final int fileCount = perFile.getOrDefault(resolved, 0);
+		if ((maxPerRule > 0 && ruleCount >= maxPerRule) || (maxPerFile > 0 && fileCount >= maxPerFile)) {
+			suppressed++;
+			suppressedPerRule.merge(ruleKey, 1L, Long::sum);
+			return;
+		}
+		if (maxPerRule > 0) {
+			perRule.put(ruleKey, ruleCount + 1);
+		}
+		if (maxPerFile > 0) {
+			perFile.put(resolved, fileCount + 1);
+		}
+		next.issue(file, line, ruleKey, message);
+	}
+
+	private Object resolve(final String file) {
+		return Objects.requireNonNullElse(index.get(file), file);
+	}
+}
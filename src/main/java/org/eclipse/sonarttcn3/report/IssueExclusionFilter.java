@@ -0,0 +1,236 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.eclipse.sonarttcn3.rules.RuleCatalog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drops the issues matching a {@code rule glob:path glob} exclusion before they are resolved to input files
+ * or turned into Sonarqube issues. Metrics are always passed on.
+ * <p>
+ * The exclusions are compiled once: the path globs into a trie of path segments, where every pattern ends
+ * in a node holding the set of excluded rules as a bit set over the rule catalog. The rules excluded for
+ * a file are collected once per distinct file name, after that an issue costs a map lookup and a bit test.
+ * <ul>
+ * <li>path globs are relative to the project base directory, {@code **} matches any number of directories,
+ * {@code *} and {@code ?} match within a file or directory name</li>
+ * <li>rule globs are matched against the rule keys of the catalog, {@code *} matching any characters.
+ * Findings of rules unknown to the catalog are reported under the generic rule, so they are excluded with it</li>
+ * </ul>
+ */
+public class IssueExclusionFilter implements ReportRecordSink {
+	private static final Logger LOG = LoggerFactory.getLogger(IssueExclusionFilter.class);
+	private static final String ANY_DIRECTORIES = "**";
+	private static final BitSet NONE = new BitSet();
+
+	/**
+	 * Node of the path trie
+	 */
+	private static final class Node {
+		private final Map<String, Node> literals = new HashMap<>();
+		private final List<Pattern> wildcardPatterns = new ArrayList<>();
+		private final List<Node> wildcards = new ArrayList<>();
+		private Node anyDirectories;
+		/** rules excluded for the paths ending in this node, {@code null} if no pattern ends here */
+		private BitSet rules;
+
+		Node child(final String segment) {
+			if (segment.equals(ANY_DIRECTORIES)) {
+				if (anyDirectories == null) {
+					anyDirectories = new Node();
+				}
+				return anyDirectories;
+			}
+			if (segment.indexOf('*') < 0 && segment.indexOf('?') < 0) {
+				return literals.computeIfAbsent(segment, s -> new Node());
+			}
+			final String regex = toRegex(segment);
+			for (int i = 0; i < wildcardPatterns.size(); i++) {
+				if (wildcardPatterns.get(i).pattern().equals(regex)) {
+					return wildcards.get(i);
+				}
+			}
+			final Node node = new Node();
+			wildcardPatterns.add(Pattern.compile(regex));
+			wildcards.add(node);
+			return node;
+		}
+
+		void match(final String[] segments, final int from, final BitSet result) {
+			if (anyDirectories != null) {
+				for (int i = from; i <= segments.length; i++) {
+					anyDirectories.match(segments, i, result);
+				}
+			}
+			if (from == segments.length) {
+				if (rules != null) {
+					result.or(rules);
+				}
+				return;
+			}
+			final Node literal = literals.get(segments[from]);
+			if (literal != null) {
+				literal.match(segments, from + 1, result);
+			}
+			for (int i = 0; i < wildcards.size(); i++) {
+				if (wildcardPatterns.get(i).matcher(segments[from]).matches()) {
+					wildcards.get(i).match(segments, from + 1, result);
+				}
+			}
+		}
+	}
+
+	private final Path baseDir;
+	private final ReportRecordSink next;
+	private final Node root = new Node();
+	private final Map<String, Integer> ruleIndex = new HashMap<>();
+	private final int genericRuleIndex;
+	/** excluded rules by file name as reported */
+	private final Map<String, BitSet> fileRules = new HashMap<>();
+
+	private boolean active;
+	private long excluded;
+
+	private IssueExclusionFilter(final Path baseDir, final ReportRecordSink next) {
+		this.baseDir = baseDir.toAbsolutePath().normalize();
+		this.next = next;
+		final List<RuleCatalog.Rule> rules = RuleCatalog.get().getRules();
+		for (int i = 0; i < rules.size(); i++) {
+			ruleIndex.put(rules.get(i).key(), i);
+		}
+		genericRuleIndex = ruleIndex.get(RuleCatalog.GENERIC_RULE);
+	}
+
+	/**
+	 * @param exclusions {@code rule glob:path glob} pairs, invalid ones are logged and ignored
+	 */
+	public static IssueExclusionFilter create(final String[] exclusions, final Path baseDir, final ReportRecordSink next) {
+		final IssueExclusionFilter filter = new IssueExclusionFilter(baseDir, next);
+		final List<RuleCatalog.Rule> rules = RuleCatalog.get().getRules();
+		int count = 0;
+		for (final String exclusion : exclusions) {
+			final int separator = exclusion.indexOf(':');
+			if (separator <= 0 || separator == exclusion.length() - 1) {
+				LOG.warn("Ignoring issue exclusion `{}`, expected `rule glob:path glob`", exclusion);
+				continue;
+			}
+			final Pattern rulePattern = Pattern.compile(toRegex(exclusion.substring(0, separator).trim()));
+			final BitSet excludedRules = new BitSet(rules.size());
+			for (int i = 0; i < rules.size(); i++) {
+				if (rulePattern.matcher(rules.get(i).key()).matches()) {
+					excludedRules.set(i);
+				}
+			}
+			if (excludedRules.isEmpty()) {
+				LOG.warn("Issue exclusion `{}` matches no rule", exclusion);
+				continue;
+			}
+
+			Node node = filter.root;
+			for (final String segment : split(exclusion.substring(separator + 1).trim())) {
+				node = node.child(segment);
+			}
+			if (node.rules == null) {
+				node.rules = new BitSet(rules.size());
+			}
+			node.rules.or(excludedRules);
+			count++;
+		}
+		if (count > 0) {
+			LOG.info("{} issue exclusions applied before issue creation", count);
+			filter.active = true;
+		}
+		return filter;
+	}
+
+	@Override
+	public void issue(final String file, final int line, final String ruleKey, final String message) {
+		if (active) {
+			final BitSet rules = fileRules.computeIfAbsent(file, this::excludedRules);
+			if (rules != NONE && rules.get(ruleIndex.getOrDefault(ruleKey, genericRuleIndex))) {
+				excluded++;
+				return;
+			}
+		}
+		next.issue(file, line, ruleKey, message);
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		next.metric(file, metric, value);
+	}
+
+	/**
+	 * @return the number of issues dropped by the exclusions
+	 */
+	public long getExcludedCount() {
+		return excluded;
+	}
+
+	private BitSet excludedRules(final String file) {
+		final BitSet result = new BitSet();
+		root.match(split(relativePath(file)), 0, result);
+		return result.isEmpty() ? NONE : result;
+	}
+
+	/**
+	 * Reported file names are either relative to the base directory or absolute.
+	 */
+	private String relativePath(final String file) {
+		final String normalized = file.replace('\\', '/');
+		try {
+			final Path path = Path.of(file);
+			if (path.isAbsolute()) {
+				final Path absolute = path.normalize();
+				return absolute.startsWith(baseDir) ? baseDir.relativize(absolute).toString().replace('\\', '/') : normalized;
+			}
+		} catch (RuntimeException e) {
+			// not a valid path on this platform, matched as it is
+		}
+		return normalized;
+	}
+
+	private static String[] split(final String path) {
+		String trimmed = path.replace('\\', '/');
+		while (trimmed.startsWith("./")) {
+			trimmed = trimmed.substring(2);
+		}
+		return trimmed.split("/+");
+	}
+
+	/**
+	 * @return regex of a glob where {@code *} matches any characters and {@code ?} a single one
+	 */
+	private static String toRegex(final String glob) {
+		final StringBuilder regex = new StringBuilder();
+		int literalStart = 0;
+		for (int i = 0; i < glob.length(); i++) {
+			final char c = glob.charAt(i);
+			if (c == '*' || c == '?') {
+				if (i > literalStart) {
+					regex.append(Pattern.quote(glob.substring(literalStart, i)));
+				}
+				regex.append(c == '*' ? ".*" : ".");
+				literalStart = i + 1;
+			}
+		}
+		if (literalStart < glob.length()) {
+			regex.append(Pattern.quote(glob.substring(literalStart)));
+		}
+		return regex.toString();
+	}
+}
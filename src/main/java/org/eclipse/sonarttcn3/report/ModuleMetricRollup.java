@@ -0,0 +1,130 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.sonarttcn3.measures.ProjectMetrics;
+import org.eclipse.sonarttcn3.measures.ProjectMetrics.Rollup;
+import org.eclipse.sonarttcn3.report.InputFileIndex.IndexedFile;
+import org.sonar.api.batch.sensor.SensorContext;
+
+/**
+ * Forwards every record and accumulates the module metrics of indexed files, to save their
+ * sum, mean, maximum, 90th percentile and worst module as project measures.
+ */
+public class ModuleMetricRollup implements ReportRecordSink {
+	/**
+	 * Values of one module metric
+	 */
+	private static final class Accumulator {
+		private int[] values = new int[64];
+		private int count;
+		private long sum;
+		private int max = Integer.MIN_VALUE;
+		private String worstModule;
+
+		void add(final int value, final String module) {
+			if (count == values.length) {
+				values = Arrays.copyOf(values, count * 2);
+			}
+			values[count++] = value;
+			sum += value;
+			if (value > max) {
+				max = value;
+				worstModule = module;
+			}
+		}
+
+		/**
+		 * @return the nearest-rank 90th percentile
+		 */
+		int p90() {
+			final int[] sorted = Arrays.copyOf(values, count);
+			Arrays.sort(sorted);
+			return sorted[(int) Math.ceil(count * 0.9) - 1];
+		}
+	}
+
+	private final InputFileIndex index;
+	private final ReportRecordSink sink;
+	private final List<String> keys = ProjectMetrics.getRollupKeys();
+	private final Map<String, Integer> positions = new HashMap<>();
+	private final Accumulator[] accumulators = new Accumulator[keys.size()];
+
+	public ModuleMetricRollup(final InputFileIndex index, final ReportRecordSink sink) {
+		this.index = index;
+		this.sink = sink;
+		for (int i = 0; i < keys.size(); i++) {
+			positions.put(keys.get(i), i);
+			accumulators[i] = new Accumulator();
+		}
+	}
+
+	@Override
+	public void issue(final String file, final int line, final String ruleKey, final String message) {
+		sink.issue(file, line, ruleKey, message);
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		sink.metric(file, metric, value);
+		if (file.isEmpty()) {
+			return;
+		}
+		final Integer position = positions.get(metric);
+		if (position == null) {
+			return;
+		}
+		final IndexedFile indexed = index.get(file);
+		if (indexed != null) {
+			accumulators[position].add(value, indexed.getInputFile().key());
+		}
+	}
+
+	/**
+	 * Saves the roll-ups of the module metrics that have at least one value.
+	 * Must be called from the sensor thread.
+	 */
+	public void save(final SensorContext context) {
+		for (int i = 0; i < accumulators.length; i++) {
+			final Accumulator accumulator = accumulators[i];
+			if (accumulator.count == 0) {
+				continue;
+			}
+			final Rollup rollup = ProjectMetrics.getRollup(keys.get(i));
+			context.<Integer>newMeasure()
+				.forMetric(rollup.getSum())
+				.withValue((int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, accumulator.sum)))
+				.on(context.project())
+				.save();
+			context.<Double>newMeasure()
+				.forMetric(rollup.getMean())
+				.withValue((double) accumulator.sum / accumulator.count)
+				.on(context.project())
+				.save();
+			context.<Integer>newMeasure()
+				.forMetric(rollup.getMax())
+				.withValue(accumulator.max)
+				.on(context.project())
+				.save();
+			context.<Integer>newMeasure()
+				.forMetric(rollup.getP90())
+				.withValue(accumulator.p90())
+				.on(context.project())
+				.save();
+			context.<String>newMeasure()
+				.forMetric(rollup.getWorstModule())
+				.withValue(accumulator.worstModule)
+				.on(context.project())
+				.save();
+		}
+	}
+}
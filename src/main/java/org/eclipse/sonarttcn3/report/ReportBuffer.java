@@ -0,0 +1,97 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.util.Arrays;
+
+/**
+ * Collects records in arrival order, so a report can be parsed on a worker thread
+ * and replayed later on the sensor thread.
+ * <p>
+ * Records are held as ids of a {@link SymbolTable} in flat int arrays, four ints per issue
+ * (file, line, rule key, message) and three per metric (file, metric, value), instead of an object
+ * and its strings per record.
+ */
+public class ReportBuffer implements ReportRecordSink {
+	private static final int ISSUE_INTS = 4;
+	private static final int METRIC_INTS = 3;
+	private static final int INITIAL_CAPACITY = 256;
+
+	private final SymbolTable symbols;
+	private int[] issues = new int[INITIAL_CAPACITY * ISSUE_INTS];
+	private int[] metrics = new int[INITIAL_CAPACITY * METRIC_INTS];
+	private int issueCount;
+	private int metricCount;
+
+	public ReportBuffer() {
+		this(new SymbolTable());
+	}
+
+	/**
+	 * @param symbols table the strings are interned in, typically shared with the parser filling the buffer
+	 */
+	public ReportBuffer(final SymbolTable symbols) {
+		this.symbols = symbols;
+	}
+
+	@Override
+	public void issue(final String file, final int line, final String ruleKey, final String message) {
+		if ((issueCount + 1) * ISSUE_INTS > issues.length) {
+			issues = Arrays.copyOf(issues, grow(issues.length));
+		}
+		final int offset = issueCount * ISSUE_INTS;
+		issues[offset] = symbols.intern(file);
+		issues[offset + 1] = line;
+		issues[offset + 2] = symbols.intern(ruleKey);
+		issues[offset + 3] = symbols.intern(message);
+		issueCount++;
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		if ((metricCount + 1) * METRIC_INTS > metrics.length) {
+			metrics = Arrays.copyOf(metrics, grow(metrics.length));
+		}
+		final int offset = metricCount * METRIC_INTS;
+		metrics[offset] = symbols.intern(file);
+		metrics[offset + 1] = symbols.intern(metric);
+		metrics[offset + 2] = value;
+		metricCount++;
+	}
+
+	/**
+	 * Passes every buffered record to the sink, issues first.
+	 */
+	public void replay(final ReportRecordSink sink) {
+		for (int offset = 0; offset < issueCount * ISSUE_INTS; offset += ISSUE_INTS) {
+			sink.issue(symbols.get(issues[offset]), issues[offset + 1], symbols.get(issues[offset + 2]),
+				symbols.get(issues[offset + 3]));
+		}
+		for (int offset = 0; offset < metricCount * METRIC_INTS; offset += METRIC_INTS) {
+			sink.metric(symbols.get(metrics[offset]), symbols.get(metrics[offset + 1]), metrics[offset + 2]);
+		}
+	}
+
+	public int size() {
+		return issueCount + metricCount;
+	}
+
+	/**
+	 * @return the number of distinct strings of the buffered records
+	 */
+	public int getSymbolCount() {
+		return symbols.size();
+	}
+
+	private static int grow(final int length) {
+		final long grown = (long) length * 2;
+		if (grown > Integer.MAX_VALUE - 8) {
+			throw new IllegalStateException("Too many buffered records");
+		}
+		return (int) grown;
+	}
+}
@@ -0,0 +1,102 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+
+/**
+ * Compressed report formats, decompressed on the fly while the report is parsed.
+ */
+public enum ReportCompression {
+	GZIP(new byte[] { 0x1f, (byte) 0x8b }, ".gz") {
+		@Override
+		InputStream decompress(final InputStream in) throws IOException {
+			return new GZIPInputStream(in, BUFFER_SIZE);
+		}
+	},
+	ZSTD(new byte[] { 0x28, (byte) 0xb5, 0x2f, (byte) 0xfd }, ".zst") {
+		@Override
+		InputStream decompress(final InputStream in) throws IOException {
+			return new ZstdInputStream(in);
+		}
+	};
+
+	static final int BUFFER_SIZE = 1 << 16;
+
+	private final byte[] magic;
+	private final String extension;
+
+	ReportCompression(final byte[] magic, final String extension) {
+		this.magic = magic;
+		this.extension = extension;
+	}
+
+	abstract InputStream decompress(InputStream in) throws IOException;
+
+	/**
+	 * Detects the compression by the leading magic bytes, or by the file extension if the file is too short.
+	 *
+	 * @return the compression of the report, or {@code null} if it is not compressed
+	 */
+	public static ReportCompression detect(final Path report) throws IOException {
+		final byte[] head;
+		try (final InputStream in = Files.newInputStream(report)) {
+			head = in.readNBytes(4);
+		}
+		for (final ReportCompression compression : values()) {
+			if (head.length >= compression.magic.length
+					&& Arrays.equals(head, 0, compression.magic.length, compression.magic, 0, compression.magic.length)) {
+				return compression;
+			}
+		}
+		if (head.length < 4) {
+			final String name = report.getFileName().toString().toLowerCase(Locale.ROOT);
+			for (final ReportCompression compression : values()) {
+				if (name.endsWith(compression.extension)) {
+					return compression;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return a buffered stream of the decompressed report
+	 */
+	public InputStream open(final Path report) throws IOException {
+		final InputStream file = Files.newInputStream(report);
+		try {
+			return new BufferedInputStream(decompress(new BufferedInputStream(file, BUFFER_SIZE)), BUFFER_SIZE);
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens a text report, decompressing it if needed.
+	 */
+	public static BufferedReader newBufferedReader(final Path report) throws IOException {
+		final ReportCompression compression = detect(report);
+		if (compression == null) {
+			return Files.newBufferedReader(report);
+		}
+		return new BufferedReader(new InputStreamReader(compression.open(report), StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+}
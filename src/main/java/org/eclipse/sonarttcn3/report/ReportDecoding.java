@@ -0,0 +1,147 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decoding policy of text reports, shared by every way of reading them: malformed UTF-8 sequences
+ * (e.g. a message cut in the middle of a character) are replaced by U+FFFD and counted, the report is still read.
+ */
+final class ReportDecoding {
+	private static final char REPLACEMENT = '\uFFFD';
+	private static final int BUFFER_SIZE = 8192;
+
+	private ReportDecoding() {
+	}
+
+	/**
+	 * @param replacements incremented by the number of malformed sequences replaced
+	 */
+	static String decode(final byte[] bytes, final int offset, final int length, final LongAdder replacements) {
+		final String decoded = new String(bytes, offset, length, StandardCharsets.UTF_8);
+		if (decoded.indexOf(REPLACEMENT) < 0) {
+			return decoded;
+		}
+		/** the replacement character may also be in the report itself, only the decoder tells them apart */
+		final CharsetDecoder decoder = newDecoder();
+		final ByteBuffer in = ByteBuffer.wrap(bytes, offset, length);
+		final CharBuffer out = CharBuffer.allocate(length);
+		replacements.add(decode(decoder, in, out, true));
+		decoder.flush(out);
+		return out.flip().toString();
+	}
+
+	/**
+	 * @param replacements incremented by the number of malformed sequences replaced while reading
+	 */
+	static Reader reader(final InputStream in, final LongAdder replacements) {
+		return new DecodingReader(in, replacements);
+	}
+
+	private static CharsetDecoder newDecoder() {
+		return StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPORT)
+			.onUnmappableCharacter(CodingErrorAction.REPORT);
+	}
+
+	/**
+	 * Decodes as much of the input as fits the output, replacing malformed sequences.
+	 *
+	 * @return the number of replaced sequences
+	 */
+	private static int decode(final CharsetDecoder decoder, final ByteBuffer in, final CharBuffer out,
+			final boolean endOfInput) {
+		int replaced = 0;
+		while (true) {
+			final CoderResult result = decoder.decode(in, out, endOfInput);
+			if (!result.isError()) {
+				return replaced;
+			}
+			if (!out.hasRemaining()) {
+				return replaced;
+			}
+			in.position(in.position() + result.length());
+			out.put(REPLACEMENT);
+			replaced++;
+		}
+	}
+
+	/**
+	 * Reader applying the policy to a stream; {@link java.io.InputStreamReader} can replace malformed input,
+	 * but not count it.
+	 */
+	private static final class DecodingReader extends Reader {
+		private final InputStream in;
+		private final LongAdder replacements;
+		private final CharsetDecoder decoder = newDecoder();
+		private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE).flip();
+		private boolean endOfInput;
+		private boolean flushed;
+
+		DecodingReader(final InputStream in, final LongAdder replacements) {
+			this.in = in;
+			this.replacements = replacements;
+		}
+
+		@Override
+		public int read(final char[] buffer, final int offset, final int length) throws IOException {
+			if (flushed) {
+				return -1;
+			}
+			if (length == 0) {
+				return 0;
+			}
+			final CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+			while (out.position() == offset) {
+				replacements.add(decode(decoder, bytes, out, endOfInput));
+				if (out.position() > offset) {
+					break;
+				}
+				if (endOfInput) {
+					decoder.flush(out);
+					flushed = true;
+					break;
+				}
+				fill();
+			}
+			final int read = out.position() - offset;
+			return read == 0 ? -1 : read;
+		}
+
+		/**
+		 * Keeps the bytes of an incomplete sequence and reads more after them.
+		 */
+		private void fill() throws IOException {
+			if (endOfInput) {
+				return;
+			}
+			bytes.compact();
+			final int read = in.read(bytes.array(), bytes.position(), bytes.remaining());
+			if (read < 0) {
+				endOfInput = true;
+			} else {
+				bytes.position(bytes.position() + read);
+			}
+			bytes.flip();
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Helpers for locating analyzer reports.
+ */
+public final class ReportFiles {
+	private static final Logger LOG = LoggerFactory.getLogger(ReportFiles.class);
+
+	private ReportFiles() {
+	}
+
+	/**
+	 * Resolves report paths and glob patterns (e.g. {@code shards/**}{@code /.titan_compile})
+	 * relative to the base directory.
+	 *
+	 * @return the existing report files in a stable, sorted order
+	 */
+	public static List<Path> resolve(final Path baseDir, final String[] patterns) {
+		final TreeSet<Path> reports = new TreeSet<>();
+		final List<PathMatcher> globs = new ArrayList<>();
+		for (final String pattern : patterns) {
+			final String trimmed = pattern.trim();
+			if (trimmed.isEmpty()) {
+				continue;
+			}
+			if (isGlob(trimmed)) {
+				globs.add(FileSystems.getDefault().getPathMatcher("glob:" + trimmed));
+				continue;
+			}
+			final Path report = baseDir.resolve(trimmed).normalize();
+			if (Files.isRegularFile(report)) {
+				reports.add(report);
+			} else {
+				LOG.info("Report file `{}` not found", report);
+			}
+		}
+
+		if (!globs.isEmpty()) {
+			try (final Stream<Path> files = Files.walk(baseDir)) {
+				files.filter(Files::isRegularFile)
+					.filter(file -> matchesAny(globs, baseDir.relativize(file)))
+					.forEach(file -> reports.add(file.normalize()));
+			} catch (IOException e) {
+				LOG.error("Error while searching for report files under `{}`", baseDir, e);
+			}
+		}
+
+		return new ArrayList<>(reports);
+	}
+
+	private static boolean isGlob(final String pattern) {
+		for (final char c : new char[] { '*', '?', '[', '{' }) {
+			if (pattern.indexOf(c) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean matchesAny(final List<PathMatcher> globs, final Path relative) {
+		for (final PathMatcher glob : globs) {
+			if (glob.matches(relative)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,261 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single pass classifier for the analyzer report lines.
+ * <ul>
+ * <li>issues: {@code file:::line:::message:::rulekey}</li>
+ * <li>metrics: {@code file---metric---value}, where the file is empty for project metrics</li>
+ * </ul>
+ * File names may contain dashes and single colons (e.g. Windows drive letters), messages may contain
+ * dashes and {@code :::}, the rule key is taken after the last {@code :::}.
+ * Each line is scanned once and split on the delimiters without regular expressions,
+ * numbers are parsed straight from the characters.
+ * A custom issue regex (see {@code sonar.titan.regex}) is only used when one is configured.
+ */
+public class ReportLineParser {
+	public static final String ISSUE_FORMAT = "%f:::%l:::%m:::%k";
+
+	public static final String MATCH_GROUP_FILE = "file";
+	public static final String MATCH_GROUP_LINE = "line";
+	public static final String MATCH_GROUP_RULEKEY = "rulekey";
+	public static final String MATCH_GROUP_MESSAGE = "message";
+
+	private static final int DELIMITER_LENGTH = 3;
+
+	private final ReportRecordSink sink;
+	private final Pattern customIssuePattern;
+	private final SymbolTable symbols;
+
+	private long issueLines;
+	private long metricLines;
+	private long unmatchedLines;
+
+	public ReportLineParser(final ReportRecordSink sink) {
+		this(sink, null);
+	}
+
+	/**
+	 * @param customIssuePattern issue regex with the named groups {@code file}, {@code line},
+	 * {@code message} and {@code rulekey}, or {@code null} for the default format
+	 */
+	public ReportLineParser(final ReportRecordSink sink, final Pattern customIssuePattern) {
+		this(sink, customIssuePattern, new SymbolTable());
+	}
+
+	/**
+	 * @param symbols table the file names, rule keys, messages and metric names are interned in,
+	 * so repeated values are passed on as the same instance without creating a new string per line
+	 */
+	public ReportLineParser(final ReportRecordSink sink, final Pattern customIssuePattern, final SymbolTable symbols) {
+		this.sink = sink;
+		this.customIssuePattern = customIssuePattern;
+		this.symbols = symbols;
+	}
+
+	/**
+	 * Parses a complete analyzer output line by line, without copying the lines.
+	 */
+	public void parseText(final CharSequence text) {
+		int start = 0;
+		final int length = text.length();
+		while (start < length) {
+			int end = start;
+			while (end < length && text.charAt(end) != '\n') {
+				end++;
+			}
+			parseLine(text, start, end);
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * @return {@code true} if the line was an issue or a metric record
+	 */
+	public boolean parseLine(final CharSequence line) {
+		return parseLine(line, 0, line.length());
+	}
+
+	/**
+	 * Parses the characters {@code [start, end)} of the text as one line.
+	 * A trailing carriage return is ignored.
+	 */
+	public boolean parseLine(final CharSequence text, final int start, int end) {
+		if (end > start && text.charAt(end - 1) == '\r') {
+			end--;
+		}
+
+		final boolean matched;
+		if (customIssuePattern != null) {
+			matched = parseCustomIssue(text, start, end) || parseMetric(text, start, end);
+		} else {
+			matched = classify(text, start, end);
+		}
+		if (!matched) {
+			unmatchedLines++;
+		}
+		return matched;
+	}
+
+	public long getIssueLines() {
+		return issueLines;
+	}
+
+	public long getMetricLines() {
+		return metricLines;
+	}
+
+	public long getUnmatchedLines() {
+		return unmatchedLines;
+	}
+
+	/**
+	 * A line with an issue delimiter after a non-empty file name is parsed as an issue,
+	 * any other line, or one not in the issue format, as a metric.
+	 */
+	private boolean classify(final CharSequence text, final int start, final int end) {
+		final int fileEnd = firstDelimiter(text, start, end, ':');
+		if (fileEnd > start && parseIssue(text, start, end, fileEnd)) {
+			return true;
+		}
+		return parseMetric(text, start, end);
+	}
+
+	private boolean parseIssue(final CharSequence text, final int start, final int end, final int fileEnd) {
+		final int lineStart = fileEnd + DELIMITER_LENGTH;
+		int lineEnd = lineStart;
+		long titanLine = 0;
+		while (lineEnd < end) {
+			final char c = text.charAt(lineEnd);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			titanLine = titanLine * 10 + (c - '0');
+			if (titanLine >= Integer.MAX_VALUE) {
+				return false;
+			}
+			lineEnd++;
+		}
+		if (lineEnd == lineStart || !isDelimiter(text, lineEnd, end, ':')) {
+			return false;
+		}
+
+		final int messageStart = lineEnd + DELIMITER_LENGTH;
+		final int keyDelimiter = lastDelimiter(text, messageStart, end, ':');
+		if (keyDelimiter <= messageStart || keyDelimiter + DELIMITER_LENGTH == end) {
+			return false;
+		}
+
+		/** Sonarqube line numbers start from 1, while titan indexes from 0 */
+		sink.issue(symbol(text, start, fileEnd),
+			(int) titanLine + 1,
+			symbol(text, keyDelimiter + DELIMITER_LENGTH, end),
+			symbol(text, messageStart, keyDelimiter));
+		issueLines++;
+		return true;
+	}
+
+	/**
+	 * Parsed from the end of the line: the value is a number and the metric name has no dashes,
+	 * so the file name can contain dashes.
+	 */
+	private boolean parseMetric(final CharSequence text, final int start, final int end) {
+		int valueStart = end;
+		while (valueStart > start && isDigit(text.charAt(valueStart - 1))) {
+			valueStart--;
+		}
+		final int nameEnd = valueStart - DELIMITER_LENGTH;
+		if (valueStart == end || nameEnd < start || !isDelimiter(text, nameEnd, end, '-')) {
+			return false;
+		}
+		long value = 0;
+		for (int i = valueStart; i < end; i++) {
+			value = value * 10 + (text.charAt(i) - '0');
+			if (value > Integer.MAX_VALUE) {
+				return false;
+			}
+		}
+
+		int nameStart = nameEnd;
+		while (nameStart > start && text.charAt(nameStart - 1) != '-') {
+			nameStart--;
+		}
+		final int fileEnd = nameStart - DELIMITER_LENGTH;
+		if (nameStart == nameEnd || fileEnd < start || !isDelimiter(text, fileEnd, end, '-')) {
+			return false;
+		}
+
+		sink.metric(symbol(text, start, fileEnd),
+			symbol(text, nameStart, nameEnd),
+			(int) value);
+		metricLines++;
+		return true;
+	}
+
+	private boolean parseCustomIssue(final CharSequence text, final int start, final int end) {
+		final Matcher matcher = customIssuePattern.matcher(text.subSequence(start, end).toString());
+		if (!matcher.matches()) {
+			return false;
+		}
+
+		final int titanLine;
+		try {
+			titanLine = Integer.parseInt(matcher.group(MATCH_GROUP_LINE));
+		} catch (NumberFormatException e) {
+			return false;
+		}
+
+		/** Sonarqube line numbers start from 1, while titan indexes from 0 */
+		sink.issue(symbol(matcher.group(MATCH_GROUP_FILE)),
+			titanLine + 1,
+			symbol(matcher.group(MATCH_GROUP_RULEKEY)),
+			symbol(matcher.group(MATCH_GROUP_MESSAGE)));
+		issueLines++;
+		return true;
+	}
+
+	private String symbol(final CharSequence text, final int start, final int end) {
+		return symbols.get(symbols.intern(text, start, end));
+	}
+
+	private String symbol(final String text) {
+		return symbols.get(symbols.intern(text));
+	}
+
+	private static boolean isDigit(final char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isDelimiter(final CharSequence text, final int pos, final int end, final char c) {
+		return pos + DELIMITER_LENGTH <= end
+			&& text.charAt(pos) == c
+			&& text.charAt(pos + 1) == c
+			&& text.charAt(pos + 2) == c;
+	}
+
+	private static int firstDelimiter(final CharSequence text, final int from, final int end, final char c) {
+		for (int i = from; i + DELIMITER_LENGTH <= end; i++) {
+			if (isDelimiter(text, i, end, c)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int lastDelimiter(final CharSequence text, final int from, final int end, final char c) {
+		for (int i = end - DELIMITER_LENGTH; i >= from; i--) {
+			if (isDelimiter(text, i, end, c)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
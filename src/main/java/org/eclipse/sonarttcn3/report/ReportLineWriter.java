@@ -0,0 +1,115 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes records in the default report format read by {@link ReportLineParser}, to pass them to another process.
+ * Backslashes and line breaks of the file paths, rule keys and messages are escaped, so every record stays on
+ * one line; the receiving side restores them with {@link #unescaping(ReportRecordSink)}.
+ */
+public class ReportLineWriter implements ReportRecordSink {
+	private final Writer writer;
+
+	public ReportLineWriter(final Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * @param line Sonarqube line number, written as a Titan (0 based) line number
+	 */
+	@Override
+	public void issue(final String file, final int line, final String ruleKey, final String message) {
+		try {
+			writer.write(escape(file));
+			writer.write(":::");
+			writer.write(Integer.toString(line - 1));
+			writer.write(":::");
+			writer.write(escape(message));
+			writer.write(":::");
+			writer.write(escape(ruleKey));
+			writer.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		try {
+			writer.write(escape(file));
+			writer.write("---");
+			writer.write(escape(metric));
+			writer.write("---");
+			writer.write(Integer.toString(value));
+			writer.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return a sink restoring the escaped strings of the records written by a {@code ReportLineWriter}
+	 */
+	public static ReportRecordSink unescaping(final ReportRecordSink next) {
+		return new ReportRecordSink() {
+			@Override
+			public void issue(final String file, final int line, final String ruleKey, final String message) {
+				next.issue(unescape(file), line, unescape(ruleKey), unescape(message));
+			}
+
+			@Override
+			public void metric(final String file, final String metric, final int value) {
+				next.metric(unescape(file), unescape(metric), value);
+			}
+		};
+	}
+
+	static String escape(final String text) {
+		if (text.indexOf('\\') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+			return text;
+		}
+		final StringBuilder escaped = new StringBuilder(text.length() + 8);
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			switch (c) {
+			case '\\':
+				escaped.append("\\\\");
+				break;
+			case '\n':
+				escaped.append("\\n");
+				break;
+			case '\r':
+				escaped.append("\\r");
+				break;
+			default:
+				escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	static String unescape(final String text) {
+		if (text.indexOf('\\') < 0) {
+			return text;
+		}
+		final StringBuilder unescaped = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c != '\\' || i + 1 == text.length()) {
+				unescaped.append(c);
+				continue;
+			}
+			final char next = text.charAt(++i);
+			unescaped.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+		}
+		return unescaped.toString();
+	}
+}
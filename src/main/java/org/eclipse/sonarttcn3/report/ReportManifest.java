@@ -0,0 +1,166 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The modules a report was produced from, with the hash of their content. Stored next to the report
+ * ({@code <report>.manifest}), so a scan can tell whether the report is still current.
+ * <pre>
+ * # ttcn3-report-manifest 1
+ * &lt;sha-256 of the module&gt; &lt;path relative to the project base directory&gt;
+ * </pre>
+ * The hash is taken over the raw file bytes, so it can be computed the same way inside and outside the scanner.
+ */
+public final class ReportManifest {
+	public static final String SUFFIX = ".manifest";
+	private static final String HEADER = "# ttcn3-report-manifest 1";
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** hashes by relative path */
+	private final Map<String, String> hashes;
+
+	public ReportManifest(final Map<String, String> hashes) {
+		this.hashes = Collections.unmodifiableMap(new TreeMap<>(hashes));
+	}
+
+	/**
+	 * @return the manifest file of the report
+	 */
+	public static Path sidecar(final Path report) {
+		return report.resolveSibling(report.getFileName() + SUFFIX);
+	}
+
+	/**
+	 * @return the manifest of the report, or {@code null} if it has none
+	 * @throws IOException if the manifest exists but cannot be read
+	 */
+	public static ReportManifest read(final Path report) throws IOException {
+		final Map<String, String> hashes = new HashMap<>();
+		try (final BufferedReader reader = Files.newBufferedReader(sidecar(report), StandardCharsets.UTF_8)) {
+			final String header = reader.readLine();
+			if (!HEADER.equals(header)) {
+				throw new IOException("Unsupported report manifest header `" + header + "`");
+			}
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final int separator = line.indexOf(' ');
+				if (separator > 0) {
+					hashes.put(line.substring(separator + 1), line.substring(0, separator));
+				}
+			}
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+		return new ReportManifest(hashes);
+	}
+
+	/**
+	 * Writes the manifest of the report.
+	 */
+	public void write(final Path report) throws IOException {
+		try (final BufferedWriter writer = Files.newBufferedWriter(sidecar(report), StandardCharsets.UTF_8)) {
+			writer.write(HEADER);
+			writer.write('\n');
+			for (final Map.Entry<String, String> entry : hashes.entrySet()) {
+				writer.write(entry.getValue());
+				writer.write(' ');
+				writer.write(entry.getKey());
+				writer.write('\n');
+			}
+		}
+	}
+
+	/**
+	 * Hashes every module with one of the suffixes under the base directory. Hidden directories
+	 * (e.g. the scanner work directory) are skipped.
+	 */
+	public static ReportManifest scan(final Path baseDir, final String[] suffixes) throws IOException {
+		final Map<String, String> hashes = new HashMap<>();
+		Files.walkFileTree(baseDir, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+				return !dir.equals(baseDir) && dir.getFileName().toString().startsWith(".")
+					? FileVisitResult.SKIP_SUBTREE
+					: FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+				final String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+				for (final String suffix : suffixes) {
+					if (!suffix.isBlank() && name.endsWith(suffix.trim().toLowerCase(Locale.ROOT))) {
+						hashes.put(baseDir.relativize(file).toString().replace('\\', '/'), hash(file));
+						break;
+					}
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return new ReportManifest(hashes);
+	}
+
+	/**
+	 * @return the hex SHA-256 of the file content
+	 */
+	public static String hash(final Path file) throws IOException {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		final byte[] buffer = new byte[BUFFER_SIZE];
+		try (final InputStream in = Files.newInputStream(file)) {
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		final StringBuilder hex = new StringBuilder(64);
+		for (final byte b : digest.digest()) {
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * @return the hashes by path relative to the project base directory
+	 */
+	public Map<String, String> getHashes() {
+		return hashes;
+	}
+
+	/**
+	 * @return the combined manifest of several reports, the first report wins for a module listed more than once
+	 */
+	public static ReportManifest merge(final Iterable<ReportManifest> manifests) {
+		final Map<String, String> hashes = new HashMap<>();
+		for (final ReportManifest manifest : manifests) {
+			manifest.hashes.forEach(hashes::putIfAbsent);
+		}
+		return new ReportManifest(hashes);
+	}
+}
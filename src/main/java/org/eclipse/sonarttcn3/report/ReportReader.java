@@ -0,0 +1,165 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.BufferedReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a single report, choosing the cheapest way for its format and size:
+ * <ul>
+ * <li>gzip and zstd compressed reports are decompressed while they are read, see {@link ReportCompression}</li>
+ * <li>binary reports are read through {@link BinaryReportReader}</li>
+ * <li>text reports above the size threshold are parsed in parallel chunks by {@link ChunkedReportParser}</li>
+ * <li>smaller text reports are read line by line</li>
+ * </ul>
+ * Text is decoded the same way on every path, malformed UTF-8 is replaced and counted (see {@link ReportDecoding}).
+ */
+public class ReportReader {
+	private static final Logger LOG = LoggerFactory.getLogger(ReportReader.class);
+
+	private final Pattern customIssuePattern;
+	private final long parallelThreshold;
+	private final int parallelism;
+	private final LongAdder readNanos = new LongAdder();
+	private final LongAdder replacements = new LongAdder();
+
+	/**
+	 * @param customIssuePattern custom issue regex, or {@code null} for the default format
+	 * @param parallelThreshold text reports of at least this many bytes are parsed in parallel
+	 * @param parallelism number of threads used for parsing a large report
+	 */
+	public ReportReader(final Pattern customIssuePattern, final long parallelThreshold, final int parallelism) {
+		this.customIssuePattern = customIssuePattern;
+		this.parallelThreshold = parallelThreshold;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @return the number of unmatched lines
+	 */
+	public long read(final Path report, final ReportRecordSink sink) throws IOException {
+		final ReportCompression compression = ReportCompression.detect(report);
+		if (compression != null) {
+			LOG.info("Decompressing {} report on the fly", compression);
+			return readCompressed(report, compression, sink);
+		}
+		if (BinaryReportFormat.isBinaryReport(report)) {
+			final long start = System.nanoTime();
+			final ByteBuffer buffer = BinaryReportReader.load(report);
+			readNanos.add(System.nanoTime() - start);
+			BinaryReportReader.read(buffer, sink);
+			return 0;
+		}
+
+		final long size = Files.size(report);
+		if (parallelism > 1 && size >= parallelThreshold) {
+			LOG.info("Parsing {} MB report on {} threads", size >> 20, parallelism);
+			final ChunkedReportParser parser = new ChunkedReportParser(customIssuePattern, parallelism);
+			try {
+				return parser.parse(report, sink);
+			} finally {
+				/** the chunks are loaded in parallel, the busiest thread bounds the read time */
+				readNanos.add(parser.getReadNanos());
+				replacements.add(parser.getReplacementCount());
+			}
+		}
+
+		try (final BufferedReader reader = new BufferedReader(new TimedReader(
+				ReportDecoding.reader(Files.newInputStream(report), replacements)))) {
+			return parseLines(reader, sink);
+		}
+	}
+
+	/**
+	 * @return the time spent reading and decompressing reports, without parsing them, summed over the threads
+	 * sharing this reader
+	 */
+	public long getReadNanos() {
+		return readNanos.sum();
+	}
+
+	/**
+	 * @return the number of malformed UTF-8 sequences replaced in the text reports read
+	 */
+	public long getReplacementCount() {
+		return replacements.sum();
+	}
+
+	/**
+	 * Compressed reports cannot be mapped or split, text is parsed line by line as it is decompressed.
+	 * A compressed binary report is decompressed into memory, it is a fraction of the size of the text report.
+	 */
+	private long readCompressed(final Path report, final ReportCompression compression, final ReportRecordSink sink)
+			throws IOException {
+		try (final InputStream in = compression.open(report)) {
+			in.mark(BinaryReportFormat.MAGIC.length);
+			final byte[] head = in.readNBytes(BinaryReportFormat.MAGIC.length);
+			in.reset();
+			if (Arrays.equals(head, BinaryReportFormat.MAGIC)) {
+				final long start = System.nanoTime();
+				final ByteBuffer buffer = ByteBuffer.wrap(in.readAllBytes());
+				readNanos.add(System.nanoTime() - start);
+				BinaryReportReader.read(buffer, sink);
+				return 0;
+			}
+			final BufferedReader reader = new BufferedReader(new TimedReader(ReportDecoding.reader(in, replacements)),
+				ReportCompression.BUFFER_SIZE);
+			return parseLines(reader, sink);
+		}
+	}
+
+	private long parseLines(final BufferedReader reader, final ReportRecordSink sink) throws IOException {
+		final ReportLineParser parser = new ReportLineParser(sink, customIssuePattern);
+		String line;
+		while ((line = reader.readLine()) != null) {
+			parser.parseLine(line);
+		}
+		return parser.getUnmatchedLines();
+	}
+
+	/**
+	 * Adds the time of filling the line buffer, decoding and decompression included, to the read time.
+	 */
+	private final class TimedReader extends FilterReader {
+		TimedReader(final Reader in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			final long start = System.nanoTime();
+			try {
+				return super.read();
+			} finally {
+				readNanos.add(System.nanoTime() - start);
+			}
+		}
+
+		@Override
+		public int read(final char[] buffer, final int offset, final int length) throws IOException {
+			final long start = System.nanoTime();
+			try {
+				return super.read(buffer, offset, length);
+			} finally {
+				readNanos.add(System.nanoTime() - start);
+			}
+		}
+	}
+}
@@ -0,0 +1,28 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+/**
+ * Receives the structured findings and metric records produced by the analyzer,
+ * one call per record, in the order they are produced.
+ */
+public interface ReportRecordSink {
+	/**
+	 * A code smell found by Titanium.
+	 *
+	 * @param file path of the module, absolute or relative to the project base directory
+	 * @param line Sonarqube line number (starting from 1)
+	 * @param ruleKey Titanium rule key
+	 * @param message issue message
+	 */
+	void issue(String file, int line, String ruleKey, String message);
+
+	/**
+	 * A metric value. An empty file name means a project level metric.
+	 */
+	void metric(String file, String metric, int value);
+}
@@ -0,0 +1,92 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.sonarttcn3.analyzer.BundledAnalyzer;
+import org.eclipse.sonarttcn3.settings.Ttcn3Properties;
+
+/**
+ * Command line tool for producing reports outside of the scanner.
+ * <pre>
+ * convert &lt;text report&gt; &lt;binary report&gt;
+ * analyze &lt;root folder&gt; &lt;binary report&gt; [--oop] [--realtime]
+ * manifest &lt;root folder&gt; &lt;report&gt; [file suffixes]
+ * </pre>
+ * {@code analyze} also writes the manifest of the report, {@code manifest} writes it for a report produced
+ * by other means, e.g. the Titan command line, from the current content of the modules.
+ * It must be written right after the report, before any module changes.
+ */
+public final class ReportTool {
+	private ReportTool() {
+	}
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 3) {
+			usage();
+			return;
+		}
+		switch (args[0]) {
+		case "convert":
+			convert(Path.of(args[1]), Path.of(args[2]));
+			break;
+		case "analyze":
+			final List<String> options = Arrays.asList(args).subList(3, args.length);
+			analyze(Path.of(args[1]), Path.of(args[2]), options.contains("--oop"), options.contains("--realtime"));
+			break;
+		case "manifest":
+			manifest(Path.of(args[1]), Path.of(args[2]),
+				args.length > 3 ? args[3] : Ttcn3Properties.FILE_SUFFIXES_DEFAULT_VALUE);
+			break;
+		default:
+			usage();
+		}
+	}
+
+	private static void convert(final Path textReport, final Path binaryReport) throws IOException {
+		final BinaryReportWriter writer = new BinaryReportWriter();
+		final ReportLineParser parser = new ReportLineParser(writer);
+		try (final BufferedReader reader = ReportCompression.newBufferedReader(textReport)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				parser.parseLine(line);
+			}
+		}
+		writer.write(binaryReport);
+		System.out.printf("%d issues and %d metrics written, %d lines skipped%n",
+			parser.getIssueLines(), parser.getMetricLines(), parser.getUnmatchedLines());
+	}
+
+	private static void analyze(final Path rootFolder, final Path binaryReport, final boolean oop, final boolean realtime)
+			throws IOException {
+		final BinaryReportWriter writer = new BinaryReportWriter();
+		if (!new BundledAnalyzer(oop, realtime).analyze(rootFolder, writer)) {
+			System.err.println("Analysis failed");
+			System.exit(1);
+		}
+		writer.write(binaryReport);
+		manifest(rootFolder, binaryReport, Ttcn3Properties.FILE_SUFFIXES_DEFAULT_VALUE);
+	}
+
+	private static void manifest(final Path rootFolder, final Path report, final String suffixes) throws IOException {
+		final ReportManifest manifest = ReportManifest.scan(rootFolder, suffixes.split(","));
+		manifest.write(report);
+		System.out.printf("Manifest of %d modules written to %s%n", manifest.getHashes().size(), ReportManifest.sidecar(report));
+	}
+
+	private static void usage() {
+		System.err.println("Usage:");
+		System.err.println("  convert <text report> <binary report>");
+		System.err.println("  analyze <root folder> <binary report> [--oop] [--realtime]");
+		System.err.println("  manifest <root folder> <report> [file suffixes]");
+	}
+}
@@ -0,0 +1,158 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.sonarttcn3.measures.ModuleMetrics;
+import org.eclipse.sonarttcn3.measures.ProjectMetrics;
+import org.eclipse.sonarttcn3.report.InputFileIndex.IndexedFile;
+import org.eclipse.sonarttcn3.rules.RuleCatalog;
+import org.eclipse.sonarttcn3.rules.TitanRulesDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.batch.rule.Severity;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.measures.Metric;
+import org.sonar.api.rule.RuleKey;
+
+/**
+ * Saves the received records as Sonarqube issues and measures.
+ * <p>
+ * Sensor context saves are not thread-safe, so this sink must only be called from the sensor thread.
+ */
+public class SensorContextSink implements ReportRecordSink {
+	private static final Logger LOG = LoggerFactory.getLogger(SensorContextSink.class);
+
+	private final SensorContext context;
+	private final InputFileIndex index;
+	/** active catalog rules by key */
+	private final Map<String, RuleKey> activeRules = new HashMap<>();
+	/** rule of the findings without an active rule of their own, {@code null} if it is not active either */
+	private final RuleKey genericRule;
+
+	private long lineOutOfRange;
+	private long savedIssues;
+	private long savedMeasures;
+	private long issueSaveNanos;
+	private long measureSaveNanos;
+
+	public SensorContextSink(final SensorContext context, final ActiveRules activeRules, final InputFileIndex index) {
+		this.context = context;
+		this.index = index;
+		for (final RuleCatalog.Rule rule : RuleCatalog.get().getRules()) {
+			final RuleKey key = RuleKey.of(TitanRulesDefinition.REPOSITORY_KEY, rule.key());
+			if (activeRules.find(key) != null) {
+				this.activeRules.put(rule.key(), key);
+			}
+		}
+		final RuleKey generic = RuleKey.of(TitanRulesDefinition.REPOSITORY_KEY, RuleCatalog.GENERIC_RULE);
+		this.genericRule = activeRules.find(generic) != null ? generic : null;
+	}
+
+	/**
+	 * @return the number of issues dropped because their file has no such line
+	 */
+	public long getLineOutOfRangeCount() {
+		return lineOutOfRange;
+	}
+
+	public long getSavedIssueCount() {
+		return savedIssues;
+	}
+
+	public long getSavedMeasureCount() {
+		return savedMeasures;
+	}
+
+	/**
+	 * @return the time spent creating and saving issues, in nanoseconds
+	 */
+	public long getIssueSaveNanos() {
+		return issueSaveNanos;
+	}
+
+	/**
+	 * @return the time spent creating and saving measures, in nanoseconds
+	 */
+	public long getMeasureSaveNanos() {
+		return measureSaveNanos;
+	}
+
+	@Override
+	public void issue(final String filename, final int lineNr, final String rulekey, final String message) {
+		final IndexedFile indexed = index.get(filename);
+		if (indexed == null) {
+			return;
+		}
+		if (!indexed.hasLine(lineNr)) {
+			LOG.debug("File `{}` has no line number {}", filename, lineNr);
+			lineOutOfRange++;
+			return;
+		}
+
+		final RuleKey key = activeRules.getOrDefault(rulekey, genericRule);
+		if (key == null) {
+			// the scanner would drop the issue of an inactive rule
+			return;
+		}
+		final long start = System.nanoTime();
+		final InputFile input = indexed.getInputFile();
+		final NewIssue newIssue = context.newIssue();
+		newIssue
+			.forRule(key)
+			.at(newIssue.newLocation()
+				.on(input)
+				.at(input.selectLine(lineNr))
+				.message(message))
+			.overrideSeverity(Severity.MINOR)
+			.save();
+		issueSaveNanos += System.nanoTime() - start;
+		savedIssues++;
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		if (file.isEmpty()) {
+			// Project metric
+			final Metric<Integer> projectMetric = ProjectMetrics.getMetric(metric);
+			if (projectMetric != null) {
+				final long start = System.nanoTime();
+				context.<Integer>newMeasure()
+					.forMetric(projectMetric)
+					.withValue(value)
+					.on(context.project())
+					.save();
+				measureSaved(start);
+			}
+		} else {
+			// file metric
+			final Metric<Integer> moduleMetric = ModuleMetrics.getMetric(metric);
+			if (moduleMetric != null) {
+				final IndexedFile indexed = index.get(file);
+				if (indexed != null) {
+					final long start = System.nanoTime();
+					context.<Integer>newMeasure()
+						.forMetric(moduleMetric)
+						.withValue(value)
+						.on(indexed.getInputFile())
+						.save();
+					measureSaved(start);
+				}
+			}
+		}
+	}
+
+	private void measureSaved(final long start) {
+		measureSaveNanos += System.nanoTime() - start;
+		savedMeasures++;
+	}
+}
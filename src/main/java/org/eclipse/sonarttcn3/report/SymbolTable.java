@@ -0,0 +1,127 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.util.Arrays;
+
+/**
+ * Numbers the distinct strings of a report (file paths, rule keys, messages and metric names).
+ * A report has few distinct values compared to its number of records, so records can be held as int ids,
+ * and every record sharing a value shares one {@code String} instance. Character ranges are looked up
+ * without creating a {@code String}, one is only created for a new value.
+ * <p>
+ * Not thread safe: reports and chunks parsed in parallel use one table each.
+ */
+public final class SymbolTable {
+	private static final int INITIAL_CAPACITY = 64;
+
+	private String[] symbols = new String[INITIAL_CAPACITY];
+	/** open addressing table of {@code id + 1}, 0 marks a free slot */
+	private int[] slots = new int[INITIAL_CAPACITY * 2];
+	private int size;
+
+	/**
+	 * Ranges with non-ASCII characters are interned by their {@code String}: the characters of a
+	 * {@link ByteCharSequence} are UTF-8 bytes there, which would neither hash nor compare like the decoded symbol.
+	 *
+	 * @return the id of the characters {@code [start, end)} of the text
+	 */
+	public int intern(final CharSequence text, final int start, final int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			final char c = text.charAt(i);
+			if (c >= 0x80) {
+				return intern(text.subSequence(start, end).toString());
+			}
+			hash = 31 * hash + c;
+		}
+		final int mask = slots.length - 1;
+		for (int slot = mix(hash) & mask;; slot = (slot + 1) & mask) {
+			final int entry = slots[slot];
+			if (entry == 0) {
+				return add(slot, text.subSequence(start, end).toString());
+			}
+			if (matches(symbols[entry - 1], hash, text, start, end)) {
+				return entry - 1;
+			}
+		}
+	}
+
+	/**
+	 * @return the id of the string
+	 */
+	public int intern(final String text) {
+		final int hash = text.hashCode();
+		final int mask = slots.length - 1;
+		for (int slot = mix(hash) & mask;; slot = (slot + 1) & mask) {
+			final int entry = slots[slot];
+			if (entry == 0) {
+				return add(slot, text);
+			}
+			final String symbol = symbols[entry - 1];
+			if (symbol == text || symbol.equals(text)) {
+				return entry - 1;
+			}
+		}
+	}
+
+	/**
+	 * @return the string of an id returned by this table
+	 */
+	public String get(final int id) {
+		return symbols[id];
+	}
+
+	/**
+	 * @return the number of distinct strings
+	 */
+	public int size() {
+		return size;
+	}
+
+	private int add(final int slot, final String symbol) {
+		if (size == symbols.length) {
+			symbols = Arrays.copyOf(symbols, size * 2);
+		}
+		symbols[size] = symbol;
+		slots[slot] = ++size;
+		if (size * 2 > slots.length) {
+			rehash();
+		}
+		return size - 1;
+	}
+
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		final int mask = slots.length - 1;
+		for (int id = 0; id < size; id++) {
+			int slot = mix(symbols[id].hashCode()) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = id + 1;
+		}
+	}
+
+	/** the hash of a string is computed once and cached by the string itself */
+	private static boolean matches(final String symbol, final int hash, final CharSequence text, final int start,
+			final int end) {
+		if (symbol.length() != end - start || symbol.hashCode() != hash) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (symbol.charAt(i - start) != text.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int mix(final int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,55 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+/**
+ * Forwards records to another sink, counting them and measuring the time spent downstream.
+ * <p>
+ * Lets the caller separate its own time from the time of file lookups and saves further down the chain.
+ */
+public class TimingSink implements ReportRecordSink {
+	private final ReportRecordSink sink;
+
+	private long issues;
+	private long metrics;
+	private long nanos;
+
+	public TimingSink(final ReportRecordSink sink) {
+		this.sink = sink;
+	}
+
+	@Override
+	public void issue(final String file, final int line, final String ruleKey, final String message) {
+		final long start = System.nanoTime();
+		sink.issue(file, line, ruleKey, message);
+		nanos += System.nanoTime() - start;
+		issues++;
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		final long start = System.nanoTime();
+		sink.metric(file, metric, value);
+		nanos += System.nanoTime() - start;
+		metrics++;
+	}
+
+	public long getIssueCount() {
+		return issues;
+	}
+
+	public long getMetricCount() {
+		return metrics;
+	}
+
+	/**
+	 * @return the time spent in the downstream sink, in nanoseconds
+	 */
+	public long getDownstreamNanos() {
+		return nanos;
+	}
+}
@@ -0,0 +1,83 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.rules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.google.gson.Gson;
+
+/**
+ * The rules of the plugin, read from the catalog generated at build time by {@link RuleCatalogGenerator}.
+ * <p>
+ * The catalog is validated when it is generated, so it is loaded once without any per-rule processing.
+ */
+public final class RuleCatalog {
+	static final String RESOURCE = "rule-catalog.json";
+	static final int VERSION = 1;
+
+	/** default rule for smells that are not annotated in Titanium */
+	public static final String GENERIC_RULE = "Titanium";
+
+	/**
+	 * A validated rule of the catalog
+	 */
+	public record Rule(String key, String name, String severity, List<String> tags, String description) {
+		public Rule {
+			tags = List.copyOf(tags);
+		}
+	}
+
+	/** serialized form of the catalog */
+	record Catalog(int version, List<Rule> rules) {}
+
+	private static final class Holder {
+		private static final RuleCatalog INSTANCE = load();
+	}
+
+	private final List<Rule> rules;
+
+	private RuleCatalog(final List<Rule> rules) {
+		this.rules = List.copyOf(rules);
+	}
+
+	/**
+	 * @return the catalog, loaded on first use
+	 */
+	public static RuleCatalog get() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * @return the rules, the generic {@value #GENERIC_RULE} rule first
+	 */
+	public List<Rule> getRules() {
+		return rules;
+	}
+
+	private static RuleCatalog load() {
+		try (final InputStream in = RuleCatalog.class.getResourceAsStream(RESOURCE)) {
+			if (in == null) {
+				throw new IllegalStateException("Rule catalog " + RESOURCE + " is missing from the plugin");
+			}
+			try (final Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+				final Catalog catalog = new Gson().fromJson(reader, Catalog.class);
+				if (catalog.version() != VERSION) {
+					throw new IllegalStateException("Unsupported rule catalog version " + catalog.version());
+				}
+				return new RuleCatalog(catalog.rules());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read the rule catalog", e);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.rules;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.sonar.api.rule.Severity;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Generates the rule catalog from the rules imported from Titanium. Run by the build after compilation,
+ * the catalog is packaged with the plugin.
+ * <p>
+ * Usage: {@code RuleCatalogGenerator <output file>}
+ */
+public final class RuleCatalogGenerator {
+	private static final Pattern KEY_PATTERN = Pattern.compile("^[A-Za-z0-9_\\-]+$");
+	private static final Pattern TAG_PATTERN = Pattern.compile("^[a-z0-9\\+#\\-\\.]+$");
+	private static final String TAG = "titan";
+
+	private RuleCatalogGenerator() {
+	}
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: RuleCatalogGenerator <output file>");
+			System.exit(1);
+		}
+		final List<RuleCatalog.Rule> rules = generate();
+		final Path output = Path.of(args[0]);
+		Files.createDirectories(output.toAbsolutePath().getParent());
+		try (final Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+			new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create()
+				.toJson(new RuleCatalog.Catalog(RuleCatalog.VERSION, rules), writer);
+		}
+		System.out.printf("%d rules written to %s%n", rules.size(), output);
+	}
+
+	/**
+	 * @throws IllegalStateException if a rule has an invalid or duplicate key, an empty name or an unknown severity
+	 */
+	static List<RuleCatalog.Rule> generate() {
+		final List<RuleCatalog.Rule> rules = new ArrayList<>();
+		final Set<String> keys = new HashSet<>();
+		rules.add(new RuleCatalog.Rule(RuleCatalog.GENERIC_RULE, "Titanium", Severity.MINOR, List.of(TAG),
+			"Generic rule for titanium code smells"));
+		keys.add(RuleCatalog.GENERIC_RULE);
+
+		for (final TitaniumRule rule : TitaniumRules.importedRules) {
+			final String key = rule.getKey();
+			if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+				throw new IllegalStateException("Invalid rule key: " + key);
+			}
+			if (!keys.add(key)) {
+				throw new IllegalStateException("Duplicate rule key: " + key);
+			}
+			if (rule.getName() == null || rule.getName().isBlank()) {
+				throw new IllegalStateException("Rule " + key + " has no name");
+			}
+			if (!Severity.ALL.contains(rule.getSeverity())) {
+				throw new IllegalStateException("Rule " + key + " has an unknown severity: " + rule.getSeverity());
+			}
+
+			final Set<String> tags = new LinkedHashSet<>();
+			tags.add(TAG);
+			if (rule.getTags() != null) {
+				for (final String tag : rule.getTags()) {
+					if (TAG_PATTERN.matcher(tag).matches()) {
+						tags.add(tag);
+					} else {
+						System.err.printf("Rule %s: invalid tag `%s` skipped%n", key, tag);
+					}
+				}
+			}
+			rules.add(new RuleCatalog.Rule(key, rule.getName(), rule.getSeverity(), List.copyOf(tags),
+				rule.getDescription()));
+		}
+		return rules;
+	}
+}
@@ -20,6 +20,36 @@ public class Ttcn3Properties {
 	public static final String FILE_SUFFIXES_DEFAULT_VALUE = ".ttcn,.ttcn3,.ttcnpp,.asn";
 	public static final String ENABLE_OOP_KEY = "sonar.ttcn3.enableOOP";
 	public static final String ENABLE_REALTIME_KEY = "sonar.ttcn3.enableRealtime";
+	public static final String REPORT_PATHS_KEY = "sonar.ttcn3.reportPaths";
+	public static final String REPORT_PATHS_DEFAULT_VALUE = ".titan_compile";
+	public static final String REPORT_THREADS_KEY = "sonar.ttcn3.report.threads";
+	public static final String REPORT_PARALLEL_THRESHOLD_KEY = "sonar.ttcn3.report.parallelThresholdMb";
+	public static final long REPORT_PARALLEL_THRESHOLD_DEFAULT_VALUE = 64;
+	public static final String REPORT_MAX_STALE_RATIO_KEY = "sonar.ttcn3.report.maxStaleRatio";
+	public static final double REPORT_MAX_STALE_RATIO_DEFAULT_VALUE = 0.3;
+	public static final String INCREMENTAL_KEY = "sonar.ttcn3.incremental";
+	public static final String LOCAL_CACHE_PATH_KEY = "sonar.ttcn3.cache.path";
+	public static final String LOCAL_CACHE_MAX_SIZE_KEY = "sonar.ttcn3.cache.maxSizeMb";
+	public static final long LOCAL_CACHE_MAX_SIZE_DEFAULT_VALUE = 1024;
+	public static final String CHANGED_MODULES_ONLY_KEY = "sonar.ttcn3.changedModulesOnly";
+	public static final String DAEMON_PORT_KEY = "sonar.ttcn3.daemon.port";
+	public static final String DAEMON_TOKEN_FILE_KEY = "sonar.ttcn3.daemon.tokenFile";
+	public static final String ANALYZER_TIMEOUT_KEY = "sonar.ttcn3.analyzer.timeoutMinutes";
+	public static final String ANALYZER_MAX_HEAP_KEY = "sonar.ttcn3.analyzer.maxHeapMb";
+	public static final String FORK_WORKERS_KEY = "sonar.ttcn3.fork.workers";
+	public static final String FORK_MAX_HEAP_KEY = "sonar.ttcn3.fork.maxHeap";
+	public static final String FORK_MAX_HEAP_DEFAULT_VALUE = "4g";
+	public static final String FORK_STACK_SIZE_KEY = "sonar.ttcn3.fork.stackSize";
+	public static final String FORK_STACK_SIZE_DEFAULT_VALUE = "8m";
+	public static final String SUB_ROOTS_KEY = "sonar.ttcn3.subRoots";
+	public static final String SUB_ROOTS_THREADS_KEY = "sonar.ttcn3.subRoots.threads";
+	public static final int SUB_ROOTS_THREADS_DEFAULT_VALUE = 2;
+	public static final String ISSUES_EXCLUSIONS_KEY = "sonar.ttcn3.issues.exclusions";
+	public static final String ISSUES_MERGE_SAME_LINE_KEY = "sonar.ttcn3.issues.mergeSameLine";
+	public static final String ISSUES_MAX_PER_RULE_KEY = "sonar.ttcn3.issues.maxPerRule";
+	public static final String ISSUES_MAX_PER_FILE_KEY = "sonar.ttcn3.issues.maxPerFile";
+	public static final String LEXER_THREADS_KEY = "sonar.ttcn3.lexer.threads";
+	public static final String STATISTICS_EXPORT_KEY = "sonar.ttcn3.statistics.export";
 	
 	private Ttcn3Properties() {
 		
@@ -54,6 +84,222 @@ public class Ttcn3Properties {
 					.onQualifiers(Qualifiers.PROJECT)
 					.multiValues(false)
 					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(REPORT_PATHS_KEY)
+					.defaultValue(REPORT_PATHS_DEFAULT_VALUE)
+					.name("Report paths")
+					.description("Comma separated list of analyzer report paths or glob patterns, relative to the project base directory")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(true)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(REPORT_THREADS_KEY)
+					.type(PropertyType.INTEGER)
+					.name("Report parser threads")
+					.description("Maximum number of reports, or chunks of a large report, parsed in parallel. Defaults to the number of available processors")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(REPORT_PARALLEL_THRESHOLD_KEY)
+					.type(PropertyType.INTEGER)
+					.defaultValue(Long.toString(REPORT_PARALLEL_THRESHOLD_DEFAULT_VALUE))
+					.name("Parallel parsing threshold (MB)")
+					.description("Text reports of at least this size are memory mapped and parsed in parallel chunks")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(REPORT_MAX_STALE_RATIO_KEY)
+					.type(PropertyType.FLOAT)
+					.defaultValue(Double.toString(REPORT_MAX_STALE_RATIO_DEFAULT_VALUE))
+					.name("Maximum stale report ratio")
+					.description("For reports with a manifest: share of the modules (changed, new, or depending on those) up to which only the stale modules are regenerated by the bundled analyzer. Above it the reports are ignored and every module is analyzed")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(INCREMENTAL_KEY)
+					.type(PropertyType.BOOLEAN)
+					.defaultValue("true")
+					.name("Incremental analysis")
+					.description("Reuse the cached results of unchanged modules when the bundled analyzer is used, from the analysis cache or the local result cache")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(LOCAL_CACHE_PATH_KEY)
+					.name("Local result cache directory")
+					.description("Directory of the per module results kept between scans on the same machine. Defaults to ttcn3-cache in the Sonar user home")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(LOCAL_CACHE_MAX_SIZE_KEY)
+					.type(PropertyType.INTEGER)
+					.defaultValue(Long.toString(LOCAL_CACHE_MAX_SIZE_DEFAULT_VALUE))
+					.name("Local result cache size (MB)")
+					.description("Size limit of the local result cache, the least recently used entries are evicted above it. 0 disables the local cache")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(CHANGED_MODULES_ONLY_KEY)
+					.type(PropertyType.BOOLEAN)
+					.defaultValue("true")
+					.name("Analyze changed modules only")
+					.description("On pull requests, analyze only the changed modules and the modules depending on them when the bundled analyzer is used")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(DAEMON_PORT_KEY)
+					.type(PropertyType.INTEGER)
+					.name("Analyzer daemon port")
+					.description("Local port of a running analyzer daemon. If not set, or the daemon is not running, the analyzer runs in the scanner")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(DAEMON_TOKEN_FILE_KEY)
+					.name("Analyzer daemon token file")
+					.description("File the analyzer daemon wrote its access token to (--token-file). Defaults to ~/.sonar/ttcn3-daemon-<port>.token")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(ANALYZER_TIMEOUT_KEY)
+					.type(PropertyType.INTEGER)
+					.defaultValue("0")
+					.name("Analyzer time budget (minutes)")
+					.description("Time after which the analyzer run is cancelled. The findings produced until then are saved and the modules left unanalyzed are listed in a warning. 0 means no limit")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(ANALYZER_MAX_HEAP_KEY)
+					.type(PropertyType.INTEGER)
+					.defaultValue("0")
+					.name("Analyzer heap budget (MB)")
+					.description("Heap available to the analyzer. Under a budget the bundled analyzer runs in forked workers, which share it as their maximum heap (-Xmx); modules that do not fit are retried on their own and listed in the log. With the analyzer daemon, the run is cancelled when the scanner heap in use after garbage collection exceeds it. 0 means no limit")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(FORK_WORKERS_KEY)
+					.type(PropertyType.INTEGER)
+					.defaultValue("0")
+					.name("Forked analyzer workers")
+					.description("Number of child JVMs running the bundled analyzer at the same time, on partitions of the modules. 0 runs the analyzer in the scanner")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(FORK_MAX_HEAP_KEY)
+					.defaultValue(FORK_MAX_HEAP_DEFAULT_VALUE)
+					.name("Forked worker heap size")
+					.description("Maximum heap size (-Xmx) of each forked analyzer worker")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(FORK_STACK_SIZE_KEY)
+					.defaultValue(FORK_STACK_SIZE_DEFAULT_VALUE)
+					.name("Forked worker stack size")
+					.description("Thread stack size (-Xss) of each forked analyzer worker")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(SUB_ROOTS_KEY)
+					.name("Sub-roots")
+					.description("Independent sub-directories of the project (e.g. separate test suites) analyzed separately and concurrently by the bundled analyzer. Modules outside them are not analyzed")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(true)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(SUB_ROOTS_THREADS_KEY)
+					.type(PropertyType.INTEGER)
+					.defaultValue(Integer.toString(SUB_ROOTS_THREADS_DEFAULT_VALUE))
+					.name("Sub-root analysis threads")
+					.description("Maximum number of sub-roots analyzed at the same time by forked analyzer workers (see sonar.ttcn3.fork.workers), each with its own workers and heap. Without forked workers the sub-roots are analyzed one at a time")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(ISSUES_EXCLUSIONS_KEY)
+					.name("Issue exclusions")
+					.description("Comma separated list of rule glob:path glob pairs, e.g. *:generated/** or MagicNumber:**/*_Templates.ttcn. Matching findings are dropped before any issue is created. Paths are relative to the project base directory")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(true)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(ISSUES_MERGE_SAME_LINE_KEY)
+					.type(PropertyType.BOOLEAN)
+					.defaultValue("false")
+					.name("Merge same-line issues")
+					.description("Report hits of the same rule on the same line as a single issue with an occurrence count")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(ISSUES_MAX_PER_RULE_KEY)
+					.type(PropertyType.INTEGER)
+					.defaultValue("0")
+					.name("Maximum issues per rule")
+					.description("Maximum number of issues reported for a rule, 0 for no limit. Suppressed issues are counted in a project measure")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(ISSUES_MAX_PER_FILE_KEY)
+					.type(PropertyType.INTEGER)
+					.defaultValue("0")
+					.name("Maximum issues per file")
+					.description("Maximum number of issues reported for a file, 0 for no limit. Suppressed issues are counted in a project measure")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(LEXER_THREADS_KEY)
+					.type(PropertyType.INTEGER)
+					.name("Lexer threads")
+					.description("Number of files lexed in parallel for syntax highlighting, duplication detection and the lines of code and comment lines measures. Defaults to the number of available processors")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
+					.build(),
+
+				PropertyDefinition.builder(STATISTICS_EXPORT_KEY)
+					.type(PropertyType.BOOLEAN)
+					.defaultValue("false")
+					.name("Export scan statistics")
+					.description("Write the phase timings and counters of the sensor to ttcn3-statistics.json in the scanner work directory")
+					.onQualifiers(Qualifiers.PROJECT)
+					.multiValues(false)
+					.category(Ttcn3Language.NAME)
 					.build()
 			};
 
@@ -0,0 +1,209 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.statistics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+
+/**
+ * Wall times and counters of the sensor phases, logged as a summary table and optionally exported as JSON.
+ * <p>
+ * Phase times are exclusive: time spent in file lookups and saves is not counted in the phase that produced the records.
+ */
+public class ScanStatistics {
+	/**
+	 * Counted quantities
+	 */
+	public enum Counter {
+		REPORT_LINES("Report lines"),
+		ISSUE_RECORDS("Issue records"),
+		METRIC_RECORDS("Metric records"),
+		UNMATCHED_LINES("Unmatched lines"),
+		REPLACED_CHARACTERS("Replaced malformed characters"),
+		EXCLUDED_ISSUES("Excluded issues"),
+		FILE_LOOKUPS("File lookups"),
+		UNKNOWN_FILES("Unknown files"),
+		OUT_OF_RANGE_ISSUES("Out of range issues"),
+		SAVED_ISSUES("Saved issues"),
+		SAVED_MEASURES("Saved measures");
+
+		private final String label;
+
+		Counter(final String label) {
+			this.label = label;
+		}
+	}
+
+	/**
+	 * Timed phases, with the counter their throughput is measured in
+	 */
+	public enum Phase {
+		ANALYZER("Analyzer run", Counter.REPORT_LINES),
+		REPORT_READING("Report reading", Counter.REPORT_LINES),
+		LINE_PARSING("Line parsing", Counter.REPORT_LINES),
+		FILE_RESOLUTION("File resolution", Counter.FILE_LOOKUPS),
+		ISSUE_SAVES("Issue saves", Counter.SAVED_ISSUES),
+		MEASURE_SAVES("Measure saves", Counter.SAVED_MEASURES);
+
+		private final String label;
+		private final Counter unit;
+
+		Phase(final String label, final Counter unit) {
+			this.label = label;
+			this.unit = unit;
+		}
+	}
+
+	private final long[] phaseNanos = new long[Phase.values().length];
+	private final boolean[] phaseUsed = new boolean[Phase.values().length];
+	private final long[] counters = new long[Counter.values().length];
+	private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+	/** peak and current usage of the heap pools when the scan started, by pool */
+	private final long[] startPeaks;
+	private final long[] startUsages;
+	private final long startNanos;
+	private long totalNanos;
+	private long peakHeap;
+
+	/**
+	 * Starts the total time and records the usage of the heap memory pools as a baseline. Their peak usage is
+	 * shared with the rest of the JVM, it is not reset.
+	 */
+	public ScanStatistics() {
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				heapPools.add(pool);
+			}
+		}
+		startPeaks = new long[heapPools.size()];
+		startUsages = new long[heapPools.size()];
+		for (int i = 0; i < heapPools.size(); i++) {
+			startPeaks[i] = heapPools.get(i).getPeakUsage().getUsed();
+			startUsages[i] = heapPools.get(i).getUsage().getUsed();
+		}
+		startNanos = System.nanoTime();
+	}
+
+	public void addTime(final Phase phase, final long nanos) {
+		phaseNanos[phase.ordinal()] += Math.max(0, nanos);
+		phaseUsed[phase.ordinal()] = true;
+	}
+
+	public void add(final Counter counter, final long value) {
+		counters[counter.ordinal()] += value;
+	}
+
+	public long getTime(final Phase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+
+	public long get(final Counter counter) {
+		return counters[counter.ordinal()];
+	}
+
+	/**
+	 * Stops the total time and samples the peak heap usage. A pool whose peak grew since the start reached it
+	 * during the scan; for the others the peak of the scan is unknown, the higher of the start and end usage
+	 * is taken.
+	 */
+	public void finish() {
+		totalNanos = System.nanoTime() - startNanos;
+		long peak = 0;
+		for (int i = 0; i < heapPools.size(); i++) {
+			final MemoryPoolMXBean pool = heapPools.get(i);
+			if (!pool.isValid()) {
+				continue;
+			}
+			final long poolPeak = pool.getPeakUsage().getUsed();
+			peak += poolPeak > startPeaks[i] ? poolPeak : Math.max(startUsages[i], pool.getUsage().getUsed());
+		}
+		peakHeap = peak;
+	}
+
+	public void log(final Logger log) {
+		final StringBuilder table = new StringBuilder("TTCN3 sensor statistics:");
+		table.append(String.format(Locale.ROOT, "%n  %-28s %10s %12s %14s", "Phase", "Time (ms)", "Items", "Items/s"));
+		long phases = 0;
+		for (final Phase phase : Phase.values()) {
+			if (!phaseUsed[phase.ordinal()]) {
+				continue;
+			}
+			final long nanos = phaseNanos[phase.ordinal()];
+			final long items = counters[phase.unit.ordinal()];
+			phases += nanos;
+			table.append(String.format(Locale.ROOT, "%n  %-28s %10d %12d %14d", phase.label, toMillis(nanos), items, perSecond(items, nanos)));
+		}
+		table.append(String.format(Locale.ROOT, "%n  %-28s %10d", "Other", toMillis(Math.max(0, totalNanos - phases))));
+		table.append(String.format(Locale.ROOT, "%n  %-28s %10d", "Total", toMillis(totalNanos)));
+		for (final Counter counter : Counter.values()) {
+			table.append(String.format(Locale.ROOT, "%n  %-28s %10d", counter.label, counters[counter.ordinal()]));
+		}
+		table.append(String.format(Locale.ROOT, "%n  %-28s %10d", "Peak heap (MB)", peakHeap >> 20));
+		log.info("{}", table);
+	}
+
+	/**
+	 * Writes the statistics as a flat JSON object, times in milliseconds.
+	 */
+	public void writeJson(final Path file) throws IOException {
+		try (final Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("{\n  \"totalMs\": " + toMillis(totalNanos));
+			writer.write(",\n  \"peakHeapBytes\": " + peakHeap);
+			writer.write(",\n  \"phases\": {");
+			String separator = "\n";
+			for (final Phase phase : Phase.values()) {
+				if (phaseUsed[phase.ordinal()]) {
+					writer.write(separator + "    \"" + toJsonKey(phase.name()) + "Ms\": " + toMillis(phaseNanos[phase.ordinal()]));
+					separator = ",\n";
+				}
+			}
+			writer.write("\n  },\n  \"counters\": {");
+			separator = "\n";
+			for (final Counter counter : Counter.values()) {
+				writer.write(separator + "    \"" + toJsonKey(counter.name()) + "\": " + counters[counter.ordinal()]);
+				separator = ",\n";
+			}
+			writer.write("\n  }\n}\n");
+		}
+	}
+
+	private static long toMillis(final long nanos) {
+		return nanos / 1_000_000;
+	}
+
+	private static long perSecond(final long items, final long nanos) {
+		return nanos > 0 ? (long) (items * 1e9 / nanos) : 0;
+	}
+
+	/**
+	 * @return the camel case form of an enum constant name, e.g. {@code reportLines}
+	 */
+	private static String toJsonKey(final String name) {
+		final StringBuilder key = new StringBuilder();
+		boolean upper = false;
+		for (final char c : name.toCharArray()) {
+			if (c == '_') {
+				upper = true;
+			} else {
+				key.append(upper ? c : Character.toLowerCase(c));
+				upper = false;
+			}
+		}
+		return key.toString();
+	}
+}
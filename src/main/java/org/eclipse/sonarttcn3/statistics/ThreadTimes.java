@@ -0,0 +1,35 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.statistics;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time spent on one activity by each thread of a pool. The busiest thread bounds the wall time of the activity,
+ * whatever the balance of the work between the threads.
+ */
+public class ThreadTimes {
+	private final ConcurrentHashMap<Long, Long> nanos = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds time spent by the calling thread.
+	 */
+	public void add(final long nanos) {
+		this.nanos.merge(Thread.currentThread().getId(), nanos, Long::sum);
+	}
+
+	/**
+	 * @return the time of the busiest thread
+	 */
+	public long getMax() {
+		long max = 0;
+		for (final long threadNanos : nanos.values()) {
+			max = Math.max(max, threadNanos);
+		}
+		return max;
+	}
+}
@@ -0,0 +1,406 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import org.eclipse.sonarttcn3.languages.Ttcn3Language;
+import org.eclipse.sonarttcn3.measures.ModuleMetrics;
+import org.sonar.api.measures.Metric;
+import org.sonar.api.server.ws.LocalConnector;
+import org.sonar.api.server.ws.LocalConnector.LocalRequest;
+import org.sonar.api.server.ws.LocalConnector.LocalResponse;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.text.JsonWriter;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * {@code api/ttcn3/module_metrics}: the module metric table of a project, filtered, sorted and paginated on the server.
+ * <p>
+ * The measures are read through the local connector, so the permissions of the caller apply. The module list of the
+ * latest analysis is kept in memory and the response carries an ETag derived from the analysis date and the query,
+ * so repeated views are answered with {@code 304 Not Modified}.
+ */
+public class ModuleMetricsWebService implements WebService {
+	static final String CONTROLLER = "api/ttcn3";
+	static final String ACTION = "module_metrics";
+
+	static final String PARAM_COMPONENT = "component";
+	static final String PARAM_BRANCH = "branch";
+	static final String PARAM_METRIC_KEYS = "metricKeys";
+	static final String SORT_PATH = "path";
+
+	private static final int DEFAULT_PAGE_SIZE = 10;
+	private static final int MAX_PAGE_SIZE = 500;
+	/** page size used when reading the component tree */
+	private static final int TREE_PAGE_SIZE = 500;
+	private static final int CACHED_PROJECTS = 32;
+	private static final int NOT_MODIFIED = 304;
+
+	/**
+	 * A module and its measures, as stored in the cache
+	 */
+	private record Module(String key, String path, Map<String, String> values) {
+		double numericValue(final String metric) {
+			final String value = values.get(metric);
+			if (value == null) {
+				return Double.NaN;
+			}
+			try {
+				return Double.parseDouble(value);
+			} catch (NumberFormatException e) {
+				return Double.NaN;
+			}
+		}
+	}
+
+	private record Snapshot(String analysisDate, List<Module> modules) {}
+
+	/** project (and branch) to the modules of its latest analysis, least recently used evicted first */
+	private final Map<String, Snapshot> cache = Collections.synchronizedMap(
+		new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Snapshot> eldest) {
+				return size() > CACHED_PROJECTS;
+			}
+		});
+
+	@Override
+	public void define(final Context context) {
+		final NewController controller = context.createController(CONTROLLER)
+			.setDescription("TTCN3 plugin web services");
+
+		final NewAction action = controller.createAction(ACTION)
+			.setDescription("Module metrics of a TTCN3 project, filtered, sorted and paginated. "
+				+ "Requires the 'Browse' permission on the project.")
+			.setSince("0.0.14")
+			.setHandler(this::handle);
+		action.createParam(PARAM_COMPONENT)
+			.setDescription("Project key")
+			.setRequired(true)
+			.setExampleValue("my_project");
+		action.createParam(PARAM_BRANCH)
+			.setDescription("Branch key");
+		action.createParam(PARAM_METRIC_KEYS)
+			.setDescription("Comma-separated list of module metric keys, all of them if not set")
+			.setExampleValue("NOF_STATEMENTS,LINES_OF_CODE");
+		action.addPagingParams(DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+		final List<String> sortFields = new ArrayList<>();
+		sortFields.add(SORT_PATH);
+		sortFields.addAll(new TreeSet<>(ModuleMetrics.getKeys()));
+		action.addSortParams(sortFields, SORT_PATH, true);
+		action.addSearchQuery("Module", "module paths");
+
+		controller.done();
+	}
+
+	private void handle(final Request request, final Response response) throws IOException {
+		final String project = request.mandatoryParam(PARAM_COMPONENT);
+		final String branch = request.param(PARAM_BRANCH);
+		final List<String> metricKeys = getMetricKeys(request);
+		final String sort = request.mandatoryParam(Param.SORT);
+		final boolean ascending = request.mandatoryParamAsBoolean(Param.ASCENDING);
+		final int page = request.mandatoryParamAsInt(Param.PAGE);
+		final int pageSize = request.mandatoryParamAsInt(Param.PAGE_SIZE);
+		final String query = request.param(Param.TEXT_QUERY);
+
+		// also checks that the caller can browse the project
+		final LocalConnector connector = request.localConnector();
+		final Map<String, String> showParams = withBranch(Map.of(PARAM_COMPONENT, project), branch);
+		final LocalResponse shown = connector.call(new GetRequest("api/components/show", showParams));
+		if (shown.getStatus() != 200) {
+			forward(shown, response);
+			return;
+		}
+		final JsonObject component = JsonParser.parseString(new String(shown.getBytes(), StandardCharsets.UTF_8))
+			.getAsJsonObject().getAsJsonObject(PARAM_COMPONENT);
+		final String analysisDate = getString(component, "analysisDate");
+
+		final String etag = etag(project, branch, analysisDate, metricKeys, sort, ascending, page, pageSize, query);
+		response.setHeader("ETag", etag);
+		response.setHeader("Cache-Control", "private, no-cache");
+		if (etag.equals(request.header("If-None-Match").orElse(null))) {
+			response.stream().setStatus(NOT_MODIFIED);
+			return;
+		}
+
+		final List<Module> modules;
+		if (analysisDate == null) {
+			modules = List.of();
+		} else {
+			final Optional<List<Module>> loaded = getModules(connector, project, branch, analysisDate, response);
+			if (loaded.isEmpty()) {
+				return;
+			}
+			modules = loaded.get();
+		}
+
+		final List<Module> selected = select(modules, query, sort, ascending);
+		final int from = Math.min((page - 1) * pageSize, selected.size());
+		final int to = Math.min(from + pageSize, selected.size());
+
+		try (final JsonWriter json = response.newJsonWriter()) {
+			json.beginObject();
+			json.prop("analysisDate", analysisDate);
+			json.prop("ttcn3", !modules.isEmpty());
+			json.name("paging").beginObject()
+				.prop("pageIndex", page)
+				.prop("pageSize", pageSize)
+				.prop("total", selected.size())
+				.endObject();
+			json.name("metrics").beginArray();
+			for (final String key : metricKeys) {
+				final Metric<Integer> metric = ModuleMetrics.getMetric(key);
+				json.beginObject()
+					.prop("key", key)
+					.prop("name", metric.getName())
+					.prop("description", metric.getDescription())
+					.endObject();
+			}
+			json.endArray();
+			json.name("components").beginArray();
+			for (final Module module : selected.subList(from, to)) {
+				json.beginObject()
+					.prop("key", module.key())
+					.prop("path", module.path());
+				json.name("measures").beginArray();
+				for (final String key : metricKeys) {
+					final String value = module.values().get(key);
+					if (value != null) {
+						json.beginObject().prop("metric", key).prop("value", value).endObject();
+					}
+				}
+				json.endArray();
+				json.endObject();
+			}
+			json.endArray();
+			json.endObject();
+		}
+	}
+
+	private static List<String> getMetricKeys(final Request request) {
+		final List<String> requested = request.paramAsStrings(PARAM_METRIC_KEYS);
+		final List<String> keys = new ArrayList<>();
+		if (requested == null || requested.isEmpty()) {
+			keys.addAll(new TreeSet<>(ModuleMetrics.getKeys()));
+			return keys;
+		}
+		for (final String key : requested) {
+			if (ModuleMetrics.getMetric(key) == null) {
+				throw new IllegalArgumentException("Unknown module metric: " + key);
+			}
+			keys.add(key);
+		}
+		return keys;
+	}
+
+	/**
+	 * @return the modules of the analysis, from the cache if it is up to date, or empty if the
+	 * 	component tree could not be read and the error has been forwarded
+	 */
+	private Optional<List<Module>> getModules(final LocalConnector connector, final String project, final String branch,
+			final String analysisDate, final Response response) throws IOException {
+		final String cacheKey = branch == null ? project : project + '\0' + branch;
+		final Snapshot cached = cache.get(cacheKey);
+		if (cached != null && cached.analysisDate().equals(analysisDate)) {
+			return Optional.of(cached.modules());
+		}
+
+		final String metricKeys = String.join(",", new TreeSet<>(ModuleMetrics.getKeys()));
+		final List<Module> modules = new ArrayList<>();
+		int page = 1;
+		int total;
+		do {
+			final Map<String, String> params = new HashMap<>();
+			params.put(PARAM_COMPONENT, project);
+			params.put("metricKeys", metricKeys);
+			params.put("qualifiers", "FIL");
+			params.put("p", Integer.toString(page));
+			params.put("ps", Integer.toString(TREE_PAGE_SIZE));
+			final LocalResponse tree = connector.call(new GetRequest("api/measures/component_tree", withBranch(params, branch)));
+			if (tree.getStatus() != 200) {
+				forward(tree, response);
+				return Optional.empty();
+			}
+			final JsonObject data = JsonParser.parseString(new String(tree.getBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+			for (final JsonElement element : data.getAsJsonArray("components")) {
+				final JsonObject item = element.getAsJsonObject();
+				if (Ttcn3Language.KEY.equals(getString(item, "language"))) {
+					modules.add(toModule(item));
+				}
+			}
+			total = data.getAsJsonObject("paging").get("total").getAsInt();
+			page++;
+		} while ((page - 1) * TREE_PAGE_SIZE < total);
+
+		final List<Module> result = List.copyOf(modules);
+		cache.put(cacheKey, new Snapshot(analysisDate, result));
+		return Optional.of(result);
+	}
+
+	private static Module toModule(final JsonObject item) {
+		final Map<String, String> values = new HashMap<>();
+		final JsonArray measures = item.getAsJsonArray("measures");
+		if (measures != null) {
+			for (final JsonElement element : measures) {
+				final JsonObject measure = element.getAsJsonObject();
+				final String value = getString(measure, "value");
+				if (value != null) {
+					values.put(getString(measure, "metric"), value);
+				}
+			}
+		}
+		final String path = getString(item, "path");
+		return new Module(getString(item, "key"), path != null ? path : getString(item, "name"), values);
+	}
+
+	/**
+	 * Filters the modules by path and sorts them. Modules without a value for the sort metric come last.
+	 */
+	private static List<Module> select(final List<Module> modules, final String query, final String sort,
+			final boolean ascending) {
+		final List<Module> selected = new ArrayList<>(modules.size());
+		final String needle = query == null ? null : query.toLowerCase(Locale.ROOT);
+		for (final Module module : modules) {
+			if (needle == null || module.path().toLowerCase(Locale.ROOT).contains(needle)) {
+				selected.add(module);
+			}
+		}
+
+		final Comparator<Module> byPath = Comparator.comparing(Module::path);
+		Comparator<Module> order;
+		if (SORT_PATH.equals(sort)) {
+			order = ascending ? byPath : byPath.reversed();
+		} else {
+			final Comparator<Module> byValue = Comparator.comparingDouble(module -> module.numericValue(sort));
+			order = Comparator.<Module, Boolean>comparing(module -> Double.isNaN(module.numericValue(sort)))
+				.thenComparing(ascending ? byValue : byValue.reversed())
+				.thenComparing(byPath);
+		}
+		selected.sort(order);
+		return selected;
+	}
+
+	private static String etag(final Object... parts) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (final Object part : parts) {
+				digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			final StringBuilder tag = new StringBuilder("\"");
+			final byte[] hash = digest.digest();
+			for (int i = 0; i < 12; i++) {
+				tag.append(String.format("%02x", hash[i]));
+			}
+			return tag.append('"').toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Map<String, String> withBranch(final Map<String, String> params, final String branch) {
+		if (branch == null) {
+			return params;
+		}
+		final Map<String, String> result = new HashMap<>(params);
+		result.put(PARAM_BRANCH, branch);
+		return result;
+	}
+
+	private static String getString(final JsonObject object, final String member) {
+		final JsonElement element = object.get(member);
+		return element == null || element.isJsonNull() ? null : element.getAsString();
+	}
+
+	private static void forward(final LocalResponse from, final Response to) throws IOException {
+		final Response.Stream stream = to.stream();
+		stream.setStatus(from.getStatus());
+		stream.setMediaType(from.getMediaType());
+		try (final OutputStream output = stream.output()) {
+			output.write(from.getBytes());
+		}
+	}
+
+	/**
+	 * A GET request to another web service of the server
+	 */
+	private static final class GetRequest implements LocalRequest {
+		private final String path;
+		private final Map<String, String> params;
+
+		GetRequest(final String path, final Map<String, String> params) {
+			this.path = path;
+			this.params = params;
+		}
+
+		@Override
+		public String getPath() {
+			return path;
+		}
+
+		@Override
+		public String getMediaType() {
+			return "application/json";
+		}
+
+		@Override
+		public String getMethod() {
+			return "GET";
+		}
+
+		@Override
+		public boolean hasParam(final String key) {
+			return params.containsKey(key);
+		}
+
+		@Override
+		public String getParam(final String key) {
+			return params.get(key);
+		}
+
+		@Override
+		public List<String> getMultiParam(final String key) {
+			final String value = params.get(key);
+			return value == null ? List.of() : List.of(value);
+		}
+
+		@Override
+		public Optional<String> getHeader(final String name) {
+			return Optional.empty();
+		}
+
+		@Override
+		public Map<String, String[]> getParameterMap() {
+			final Map<String, String[]> map = new HashMap<>();
+			params.forEach((key, value) -> map.put(key, new String[] { value }));
+			return map;
+		}
+	}
+}
@@ -1,9 +1,12 @@
 const uiPageSize = 10;
 let uiCurrentPage = 1;
 let totalPages = 0;
-let allComponents = [];
+let pageComponents = [];
 let handlersSet = false;
 let projectKey;
+let sortKey = 'path';
+let sortAscending = true;
+let pathFilter = '';
 
 const metrics = new Map([
     [ 'NOF_STATEMENTS', 'Number of statements' ],
@@ -48,6 +51,28 @@ buttonContainer.appendChild(pageText);
 buttonContainer.appendChild(buttonForward);
 container.appendChild(titleContainer);
 
+const controls = document.createElement('div');
+controls.style.marginBottom = '8px';
+const filterInput = document.createElement('input');
+filterInput.type = 'search';
+filterInput.placeholder = 'Filter by path';
+filterInput.style.marginRight = '8px';
+const sortSelect = document.createElement('select');
+sortSelect.style.marginRight = '8px';
+[ [ 'path', 'Path' ], ...metrics ].forEach(([ key, name ]) => {
+    const option = document.createElement('option');
+    option.value = key;
+    option.textContent = `Sort by ${name}`;
+    sortSelect.appendChild(option);
+});
+const buttonOrder = document.createElement('button');
+setButtonStyle(buttonOrder);
+buttonOrder.textContent = 'Ascending';
+controls.appendChild(filterInput);
+controls.appendChild(sortSelect);
+controls.appendChild(buttonOrder);
+container.appendChild(controls);
+
 const table = document.createElement('table');
 table.style.borderCollapse = 'collapse';
 table.style.width = '800px';
@@ -119,28 +144,34 @@ function getProjectKey() {
     return params.get('id') || params.get('project');
 }
 
+/**
+ * Loads the current page of the module table. Filtering, sorting and paging are done by the
+ * api/ttcn3/module_metrics web service, which answers repeated requests with 304 Not Modified.
+ *
+ * @returns the response, or undefined on error
+ */
 async function loadMetrics() {
-    allComponents = [];
-    let p = 1;
-    const ps = 100;
     projectKey = getProjectKey();
-    let count = 0;
-
-    do {
-        const res = await fetch(
-            `/api/measures/component_tree?component=${projectKey}&metricKeys=${[...metrics.keys()].join(',')}&qualifiers=FIL&p=${p}&ps=${ps}`
-        );
-
-        const data = await res.json();
-        allComponents = allComponents.concat(
-            data.components.filter(comp => comp.language === 'ttcn3')
-        );
+    const params = new URLSearchParams({
+        component: projectKey,
+        metricKeys: [...metrics.keys()].join(','),
+        s: sortKey,
+        asc: sortAscending,
+        p: uiCurrentPage,
+        ps: uiPageSize
+    });
+    if (pathFilter) {
+        params.set('q', pathFilter);
+    }
 
-        total = data.paging.total;
-        count += ps;
-        p++;
-    } while (count < total);
-    totalPages = Math.ceil(allComponents.length / uiPageSize);
+    const res = await fetch(`/api/ttcn3/module_metrics?${params}`);
+    if (!res.ok) {
+        return undefined;
+    }
+    const data = await res.json();
+    pageComponents = data.components;
+    totalPages = Math.max(1, Math.ceil(data.paging.total / uiPageSize));
+    return data;
 }
 
 function renderTable(components) {
@@ -203,11 +234,6 @@ function renderTable(components) {
     return container.outerHTML;
 }
 
-function getComponentPage() {
-    const first = (uiCurrentPage - 1) * uiPageSize;
-    return allComponents.slice(first, first + uiPageSize);
-}
-
 function setButtonStyle(button) {
     button.style.background = "#0052CC";
     button.style.color = "white";
@@ -225,42 +251,30 @@ function setPagingButtonState() {
     buttonForward.disabled = uiCurrentPage === totalPages;
 }
 
+async function showPage() {
+    await loadMetrics();
+    renderTable(pageComponents);
+    setPagingButtonState();
+}
+
 async function loadAndShowMetricsPage(pageElement) {
-    const qps = await fetch(
-        `/api/qualityprofiles/search?language=ttcn3`
-    );
-    const data = await qps.json();
-    if (!data.profiles) {
-        pageElement.innerHTML = `<h2>Error fetching quality profiles</h2>`;
+    uiCurrentPage = 1;
+    const data = await loadMetrics();
+    if (!data) {
+        pageElement.innerHTML = `<h2>Error fetching module metrics</h2>`;
         return;
     }
-
-    let hasTtcn3 = false;
-    let pk = getProjectKey();
-    for (const profile of data.profiles) {
-        const projects = await fetch(
-            `/api/qualityprofiles/projects?key=${profile.key}`
-        );
-        const data = await projects.json();
-        if (!data.results) {
-            continue;
-        }
-        if (data.results.find(proj => proj.key === pk)) {
-            hasTtcn3 = true;
-            break;
-        }
-    };
-    if (!hasTtcn3) {
-        pageElement.innerHTML = `<h2>Not a TTCN3 project</h2>`;
+    if (!data.analysisDate) {
+        pageElement.innerHTML = `<h2>No measures available (missing analysis?)</h2>`;
         return;
     }
-    await loadMetrics();
-    if (allComponents.length === 0) {
-        pageElement.innerHTML = `<h2>No measures available (missing analysis?)</h2>`;
+    if (!data.ttcn3) {
+        pageElement.innerHTML = `<h2>Not a TTCN3 project</h2>`;
         return;
     }
-    renderTable(getComponentPage() || []);
-    
+    renderTable(pageComponents);
+    setPagingButtonState();
+
     pageElement.innerHTML = '';
     pageElement.appendChild(container);
 }
@@ -272,16 +286,34 @@ window.registerExtension('ttcn3/module_metrics', async function (options) {
         buttonForward.addEventListener('click', () => {
             if (uiCurrentPage < totalPages) {
                 uiCurrentPage++;
-                renderTable(getComponentPage() || []);        
+                showPage();
             }
-            setPagingButtonState();
         });
         buttonBack.addEventListener('click', () => {
             if (uiCurrentPage > 1) {
                 uiCurrentPage--;
-                renderTable(getComponentPage() || []);        
+                showPage();
             }
-            setPagingButtonState();
+        });
+        sortSelect.addEventListener('change', () => {
+            sortKey = sortSelect.value;
+            uiCurrentPage = 1;
+            showPage();
+        });
+        buttonOrder.addEventListener('click', () => {
+            sortAscending = !sortAscending;
+            buttonOrder.textContent = sortAscending ? 'Ascending' : 'Descending';
+            uiCurrentPage = 1;
+            showPage();
+        });
+        let filterTimer;
+        filterInput.addEventListener('input', () => {
+            clearTimeout(filterTimer);
+            filterTimer = setTimeout(() => {
+                pathFilter = filterInput.value.trim();
+                uiCurrentPage = 1;
+                showPage();
+            }, 300);
         });
 
         new IntersectionObserver(async e => {
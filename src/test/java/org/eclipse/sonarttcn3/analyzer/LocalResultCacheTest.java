@@ -0,0 +1,71 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalResultCacheTest {
+	@TempDir
+	Path root;
+
+	@Test
+	void keepsOtherVersionsWhenOpened() throws IOException {
+		final Path other = entry("titan-1.0", "ab/recent.bin", 0);
+		LocalResultCache.open(root, "2.0", 1 << 20);
+		assertTrue(Files.exists(other));
+		assertTrue(Files.isDirectory(root.resolve("titan-2.0")));
+	}
+
+	@Test
+	void evictsUnusedEntriesOfOtherVersions() throws IOException {
+		final Path recent = entry("titan-1.0", "ab/recent.bin", 0);
+		final Path unused = entry("titan-1.0", "cd/unused.bin", 8);
+		final Path unusedOwn = entry("titan-2.0", "ef/unused.bin", 8);
+		final Path abandoned = entry("titan-0.9", "01/unused.bin", 30);
+
+		LocalResultCache.open(root, "2.0", 1 << 20).evict();
+
+		assertTrue(Files.exists(recent));
+		assertFalse(Files.exists(unused));
+		assertFalse(Files.exists(unused.getParent()));
+		assertTrue(Files.exists(unusedOwn));
+		assertFalse(Files.exists(abandoned.getParent().getParent()));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedEntriesOfAllVersions() throws IOException {
+		final Path oldest = entry("titan-1.0", "ab/oldest.bin", 3);
+		final Path old = entry("titan-2.0", "cd/old.bin", 2);
+		final Path recent = entry("titan-2.0", "ef/recent.bin", 1);
+
+		/** 3 entries of 100 bytes, evicted to 80% of 200 bytes */
+		LocalResultCache.open(root, "2.0", 200).evict();
+
+		assertFalse(Files.exists(oldest));
+		assertFalse(Files.exists(old));
+		assertTrue(Files.exists(recent));
+	}
+
+	private Path entry(final String version, final String name, final int daysUnused) throws IOException {
+		final Path entry = root.resolve(version).resolve(name);
+		Files.createDirectories(entry.getParent());
+		Files.write(entry, new byte[100]);
+		Files.setLastModifiedTime(entry,
+			FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysUnused)));
+		return entry;
+	}
+}
@@ -0,0 +1,91 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.eclipse.sonarttcn3.analyzer.ModuleGraph.Module;
+import org.eclipse.sonarttcn3.languages.Ttcn3Language;
+import org.eclipse.sonarttcn3.report.InputFileIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+class ModuleGraphTest {
+	@TempDir
+	Path baseDir;
+
+	private DefaultFileSystem fs;
+
+	@BeforeEach
+	void setUp() {
+		fs = new DefaultFileSystem(baseDir);
+	}
+
+	@Test
+	void linksTtcn3ImportsOfAsn1Modules() {
+		add("asn/S1AP-PDU-Contents.asn", """
+			S1AP-PDU-Contents { itu-t (0) } DEFINITIONS AUTOMATIC TAGS ::=
+			BEGIN
+			IMPORTS Criticality FROM S1AP-CommonDataTypes;
+			END
+			""");
+		add("asn/S1AP-CommonDataTypes.asn", """
+			S1AP-CommonDataTypes DEFINITIONS ::= BEGIN END
+			""");
+		add("src/S1AP_Types.ttcn", "module S1AP_Types { import from S1AP_PDU_Contents all; }");
+		add("src/S1AP_Tests.ttcn", "module S1AP_Tests { import from S1AP_Types all; }");
+
+		final ModuleGraph graph = ModuleGraph.build(new InputFileIndex(fs));
+		assertEquals(Set.of("asn/S1AP-PDU-Contents.asn"), paths(module(graph, "src/S1AP_Types.ttcn").getImports()));
+		assertEquals(Set.of("asn/S1AP-CommonDataTypes.asn"), paths(module(graph, "asn/S1AP-PDU-Contents.asn").getImports()));
+		assertEquals(Set.of("src/S1AP_Types.ttcn", "src/S1AP_Tests.ttcn", "asn/S1AP-PDU-Contents.asn",
+			"asn/S1AP-CommonDataTypes.asn"), paths(ModuleGraph.importClosure(List.of(module(graph, "src/S1AP_Tests.ttcn")))));
+		assertEquals(Set.of("asn/S1AP-CommonDataTypes.asn", "asn/S1AP-PDU-Contents.asn", "src/S1AP_Types.ttcn",
+			"src/S1AP_Tests.ttcn"), paths(ModuleGraph.dependentClosure(List.of(module(graph, "asn/S1AP-CommonDataTypes.asn")))));
+	}
+
+	@Test
+	void ignoresUnknownAndSelfImports() {
+		add("A.ttcn", "module A { import from A all; import from External all; /* import from B all; */ }");
+		add("B.ttcn", "module B { import from A all; }");
+
+		final ModuleGraph graph = ModuleGraph.build(new InputFileIndex(fs));
+		assertEquals(Set.of(), paths(module(graph, "A.ttcn").getImports()));
+		assertEquals(Set.of("B.ttcn"), paths(module(graph, "A.ttcn").getImporters()));
+	}
+
+	private void add(final String relativePath, final String contents) {
+		fs.add(TestInputFileBuilder.create("module", relativePath)
+			.setModuleBaseDir(baseDir)
+			.setLanguage(Ttcn3Language.KEY)
+			.setCharset(StandardCharsets.UTF_8)
+			.setContents(contents)
+			.initMetadata(contents)
+			.build());
+	}
+
+	private static Module module(final ModuleGraph graph, final String relativePath) {
+		return graph.getModules().stream()
+			.filter(module -> module.getFile().getRelativePath().equals(relativePath))
+			.findFirst()
+			.orElseThrow();
+	}
+
+	private static Set<String> paths(final java.util.Collection<Module> modules) {
+		return modules.stream().map(Module::toString).collect(Collectors.toCollection(TreeSet::new));
+	}
+}
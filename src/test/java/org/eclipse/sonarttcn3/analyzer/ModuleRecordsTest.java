@@ -0,0 +1,59 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.junit.jupiter.api.Test;
+
+class ModuleRecordsTest {
+	@Test
+	void roundTripsLongAndNonAsciiMessages() throws IOException {
+		final String longMessage = "x".repeat(200_000);
+		final ModuleRecords records = new ModuleRecords();
+		records.addIssue(3, "rule", longMessage);
+		records.addIssue(4, "rule", "\u00e1rv\u00edzt\u0171r\u0151");
+		records.addMetric("LINES_OF_CODE", 42);
+
+		final List<String> replayed = replay(ModuleRecords.read(new ByteArrayInputStream(records.toBytes())));
+		assertEquals(List.of("a.ttcn|3|rule|" + longMessage, "a.ttcn|4|rule|\u00e1rv\u00edzt\u0171r\u0151",
+			"a.ttcn|LINES_OF_CODE|42"), replayed);
+	}
+
+	@Test
+	void rejectsTruncatedData() {
+		final ModuleRecords records = new ModuleRecords();
+		records.addIssue(3, "rule", "message");
+		final byte[] bytes = records.toBytes();
+		assertThrows(IOException.class,
+			() -> ModuleRecords.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 2))));
+	}
+
+	private static List<String> replay(final ModuleRecords records) {
+		final List<String> replayed = new ArrayList<>();
+		records.replay("a.ttcn", new ReportRecordSink() {
+			@Override
+			public void issue(final String file, final int line, final String ruleKey, final String message) {
+				replayed.add(file + "|" + line + "|" + ruleKey + "|" + message);
+			}
+
+			@Override
+			public void metric(final String file, final String metric, final int value) {
+				replayed.add(file + "|" + metric + "|" + value);
+			}
+		});
+		return replayed;
+	}
+}
@@ -0,0 +1,130 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.sonarttcn3.languages.Ttcn3Language;
+import org.eclipse.sonarttcn3.report.InputFileIndex;
+import org.eclipse.sonarttcn3.report.ReportManifest;
+import org.eclipse.sonarttcn3.report.ReportRecordSink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+class ReportFreshnessTest {
+	@TempDir
+	Path baseDir;
+
+	private SensorContextTester context;
+	private InputFileIndex index;
+	private ReportFreshness freshness;
+	private final List<String> records = new ArrayList<>();
+
+	/**
+	 * B changed since the report was produced and A imports it, C is unaffected.
+	 */
+	@BeforeEach
+	void setUp() throws IOException {
+		context = SensorContextTester.create(baseDir);
+		context.fileSystem().setWorkDir(Files.createDirectories(baseDir.resolve(".scannerwork")));
+		add("A.ttcn", "module A { import from B all; }");
+		add("B.ttcn", "module B { }");
+		add("C.ttcn", "module C { }");
+		index = new InputFileIndex(context.fileSystem());
+
+		final Path report = baseDir.resolve("report.txt");
+		Files.writeString(report, "");
+		new ReportManifest(Map.of(
+			"A.ttcn", ReportManifest.hash(baseDir.resolve("A.ttcn")),
+			"B.ttcn", "0000",
+			"C.ttcn", ReportManifest.hash(baseDir.resolve("C.ttcn")))).write(report);
+		freshness = ReportFreshness.check(index, List.of(report), 1.0);
+		assertEquals(ReportFreshness.Decision.PARTIAL, freshness.getDecision());
+
+		final ReportRecordSink reportSink = freshness.skipRegenerated(recorder());
+		reportSink.issue("A.ttcn", 0, "Titanium", "old A");
+		reportSink.issue("B.ttcn", 0, "Titanium", "old B");
+		reportSink.issue("C.ttcn", 0, "Titanium", "old C");
+		reportSink.metric("", "NOF_TTCN3_MODULES", 2);
+		assertEquals(List.of("issue C.ttcn|old C"), records);
+		records.clear();
+	}
+
+	@Test
+	void replacesTheReportRecordsOfTheAffectedModules() {
+		assertTrue(freshness.regenerate(context, analyzer(true, "A.ttcn", "B.ttcn"), recorder()));
+		assertEquals(List.of("issue A.ttcn|new A", "issue B.ttcn|new B"), issues());
+		assertEquals(0, freshness.getStaleFallbackCount());
+	}
+
+	@Test
+	void keepsTheReportRecordsOfTheModulesTheAnalyzerFailedOn() {
+		assertFalse(freshness.regenerate(context, analyzer(false, "A.ttcn"), recorder()));
+		assertEquals(List.of("issue A.ttcn|new A", "issue B.ttcn|old B"), issues());
+		assertEquals(1, freshness.getStaleFallbackCount());
+		assertTrue(records.contains("metric |NOF_TTCN3_MODULES|3"));
+	}
+
+	private Analyzer analyzer(final boolean success, final String... reported) {
+		return new Analyzer() {
+			@Override
+			public String getSettingsKey() {
+				return "";
+			}
+
+			@Override
+			public boolean analyze(final Path rootFolder, final ReportRecordSink sink) {
+				for (final String file : reported) {
+					sink.issue(rootFolder.resolve(file).toString(), 0, "Titanium", "new " + file.substring(0, 1));
+				}
+				return success;
+			}
+		};
+	}
+
+	private ReportRecordSink recorder() {
+		return new ReportRecordSink() {
+			@Override
+			public void issue(final String file, final int line, final String ruleKey, final String message) {
+				records.add("issue " + baseDir.relativize(baseDir.resolve(file)) + "|" + message);
+			}
+
+			@Override
+			public void metric(final String file, final String metric, final int value) {
+				records.add("metric " + file + "|" + metric + "|" + value);
+			}
+		};
+	}
+
+	private List<String> issues() {
+		return records.stream().filter(record -> record.startsWith("issue ")).sorted().toList();
+	}
+
+	private void add(final String relativePath, final String contents) throws IOException {
+		Files.writeString(baseDir.resolve(relativePath), contents);
+		context.fileSystem().add(TestInputFileBuilder.create("module", relativePath)
+			.setModuleBaseDir(baseDir)
+			.setLanguage(Ttcn3Language.KEY)
+			.setCharset(StandardCharsets.UTF_8)
+			.setContents(contents)
+			.initMetadata(contents)
+			.build());
+	}
+}
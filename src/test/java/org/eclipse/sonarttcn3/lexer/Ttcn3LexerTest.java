@@ -0,0 +1,126 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class Ttcn3LexerTest {
+	@Test
+	void skipsTheByteOrderMark() {
+		final LexedFile file = lex("\uFEFFmodule A {}", false);
+
+		assertEquals(List.of(
+			"KEYWORD 1:0-1:6 module",
+			"IDENTIFIER 1:7-1:8 A",
+			"PUNCTUATOR 1:9-1:10 {",
+			"PUNCTUATOR 1:10-1:11 }"), tokens(file));
+		assertEquals(1, file.getCodeLines());
+	}
+
+	@Test
+	void breaksLinesOnCrLfCrAndLf() {
+		final LexedFile file = lex("module A {\r\n  const integer x;\r}\n// end", false);
+
+		assertEquals(List.of(
+			"KEYWORD 1:0-1:6 module",
+			"IDENTIFIER 1:7-1:8 A",
+			"PUNCTUATOR 1:9-1:10 {",
+			"KEYWORD 2:2-2:7 const",
+			"KEYWORD 2:8-2:15 integer",
+			"IDENTIFIER 2:16-2:17 x",
+			"PUNCTUATOR 2:17-2:18 ;",
+			"PUNCTUATOR 3:0-3:1 }",
+			"COMMENT 4:0-4:6 null"), tokens(file));
+		assertEquals(3, file.getCodeLines());
+		assertEquals(1, file.getCommentLines());
+	}
+
+	@Test
+	void highlightsCommentsAndStringsOverSeveralLines() {
+		final LexedFile file = lex("/* first\n * second\n */ module A {\n  var charstring s := \"a\r\nb\";\n}\n"
+			+ "/** doc */ /**/", false);
+
+		assertEquals(List.of(
+			"COMMENT 1:0-3:3 null",
+			"KEYWORD 3:4-3:10 module",
+			"IDENTIFIER 3:11-3:12 A",
+			"PUNCTUATOR 3:13-3:14 {",
+			"KEYWORD 4:2-4:5 var",
+			"KEYWORD 4:6-4:16 charstring",
+			"IDENTIFIER 4:17-4:18 s",
+			"PUNCTUATOR 4:19-4:20 :",
+			"PUNCTUATOR 4:20-4:21 =",
+			"STRING 4:22-5:2 \"a\r\nb\"",
+			"PUNCTUATOR 5:2-5:3 ;",
+			"PUNCTUATOR 6:0-6:1 }",
+			"DOC_COMMENT 7:0-7:10 null",
+			"COMMENT 7:11-7:15 null"), tokens(file));
+		assertEquals(4, file.getCodeLines());
+		assertEquals(3, file.getCommentLines());
+	}
+
+	@Test
+	void countsTtcn3CodeAndCommentLines() {
+		final LexedFile file = lex(String.join("\n",
+			"// header",
+			"module A {",
+			"",
+			"  /* --- */",
+			"  const integer x := 1; // one",
+			"  #define X",
+			"}"), false);
+
+		assertEquals(4, file.getCodeLines());
+		assertEquals(2, file.getCommentLines());
+		assertEquals("PREPROCESSOR 6:2-6:11 #define X", tokens(file).get(tokens(file).size() - 2));
+	}
+
+	@Test
+	void countsAsn1CodeAndCommentLines() {
+		final LexedFile file = lex(String.join("\n",
+			"A DEFINITIONS ::= BEGIN -- inline -- Int ::= INTEGER",
+			"-- whole line",
+			"my-type ::= SEQUENCE { a-b INTEGER } --",
+			"/* block",
+			"   comment */",
+			"END"), true);
+
+		final List<String> tokens = tokens(file);
+		assertEquals(List.of(
+			"IDENTIFIER 1:0-1:1 A",
+			"KEYWORD 1:2-1:13 DEFINITIONS",
+			"PUNCTUATOR 1:14-1:15 :",
+			"PUNCTUATOR 1:15-1:16 :",
+			"PUNCTUATOR 1:16-1:17 =",
+			"KEYWORD 1:18-1:23 BEGIN",
+			"COMMENT 1:24-1:36 null",
+			"IDENTIFIER 1:37-1:40 Int"), tokens.subList(0, 8));
+		assertEquals("IDENTIFIER 3:0-3:7 my-type", tokens.get(13));
+		assertEquals("IDENTIFIER 3:23-3:26 a-b", tokens.get(19));
+		assertEquals(3, file.getCodeLines());
+		assertEquals(4, file.getCommentLines());
+	}
+
+	private static LexedFile lex(final String text, final boolean asn1) {
+		final char[] chars = text.toCharArray();
+		return Ttcn3Lexer.lex(chars, chars.length, asn1);
+	}
+
+	private static List<String> tokens(final LexedFile file) {
+		final List<String> tokens = new ArrayList<>();
+		for (int i = 0; i < file.getTokenCount(); i++) {
+			tokens.add(file.getType(i) + " " + file.getStartLine(i) + ":" + file.getStartOffset(i) + "-"
+				+ file.getEndLine(i) + ":" + file.getEndOffset(i) + " " + file.getImage(i));
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,83 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryReportReaderTest {
+	private static final int STRING_COUNT = 8;
+	private static final int ISSUE_COUNT = 12;
+	private static final int FIRST_STRING = BinaryReportFormat.HEADER_SIZE;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readsWrittenReport() throws IOException {
+		final RecordingSink sink = new RecordingSink();
+		BinaryReportReader.read(write(), sink);
+		assertEquals(List.of("issue src/a-b.ttcn|3|rule|msg", "metric src/a-b.ttcn|LINES_OF_CODE|10", "metric |NUMBER_OF_MODULES|1"),
+			sink.records);
+	}
+
+	@Test
+	void rejectsNegativeOrHugeCounts() throws IOException {
+		assertMalformed(STRING_COUNT, -1);
+		assertMalformed(STRING_COUNT, Integer.MAX_VALUE);
+		assertMalformed(ISSUE_COUNT, -1);
+		assertMalformed(ISSUE_COUNT, Integer.MAX_VALUE);
+	}
+
+	@Test
+	void rejectsNegativeOrHugeStringLength() throws IOException {
+		assertMalformed(FIRST_STRING, -1);
+		assertMalformed(FIRST_STRING, Integer.MAX_VALUE);
+	}
+
+	@Test
+	void rejectsStringIndexOutOfRange() throws IOException {
+		final ByteBuffer report = write();
+		/** the file of the only issue, the first record after the strings */
+		report.putInt(report.limit() - 2 * BinaryReportFormat.METRIC_RECORD_SIZE - BinaryReportFormat.ISSUE_RECORD_SIZE, 99);
+		assertThrows(IOException.class, () -> BinaryReportReader.read(report, new RecordingSink()));
+	}
+
+	@Test
+	void rejectsTruncatedReport() throws IOException {
+		final ByteBuffer report = write();
+		report.limit(report.limit() - 1);
+		assertThrows(IOException.class, () -> BinaryReportReader.read(report, new RecordingSink()));
+	}
+
+	private void assertMalformed(final int offset, final int value) throws IOException {
+		final ByteBuffer report = write();
+		report.putInt(offset, value);
+		final IOException e = assertThrows(IOException.class, () -> BinaryReportReader.read(report, new RecordingSink()));
+		assertTrue(e.getMessage().startsWith("Malformed binary report"), e.getMessage());
+	}
+
+	private ByteBuffer write() throws IOException {
+		final BinaryReportWriter writer = new BinaryReportWriter();
+		writer.issue("src/a-b.ttcn", 3, "rule", "msg");
+		writer.metric("src/a-b.ttcn", "LINES_OF_CODE", 10);
+		writer.metric("", "NUMBER_OF_MODULES", 1);
+		final Path report = dir.resolve("report.bin");
+		writer.write(report);
+		return ByteBuffer.wrap(Files.readAllBytes(report));
+	}
+}
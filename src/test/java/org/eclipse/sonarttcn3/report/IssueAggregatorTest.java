@@ -0,0 +1,57 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+
+class IssueAggregatorTest {
+	@TempDir
+	Path baseDir;
+
+	private final RecordingSink sink = new RecordingSink();
+
+	@Test
+	void countsExactDuplicatesAsOccurrences() {
+		final IssueAggregator aggregator = aggregator(true);
+		aggregator.issue("a.ttcn", 3, "rule", "magic number 7");
+		aggregator.issue("a.ttcn", 3, "rule", "magic number 7");
+		aggregator.issue("a.ttcn", 3, "rule", "magic number 9");
+		aggregator.issue("a.ttcn", 4, "rule", "magic number 7");
+		aggregator.flush();
+
+		assertEquals(List.of(
+			"issue a.ttcn|3|rule|magic number 7 (3 occurrences)",
+			"issue a.ttcn|4|rule|magic number 7"), sink.records);
+	}
+
+	@Test
+	void collapsesExactDuplicatesOfTheCurrentFile() {
+		final IssueAggregator aggregator = aggregator(false);
+		aggregator.issue("a.ttcn", 3, "rule", "magic number 7");
+		aggregator.issue("a.ttcn", 3, "rule", "magic number 7");
+		aggregator.issue("a.ttcn", 3, "rule", "magic number 9");
+		aggregator.issue("b.ttcn", 3, "rule", "magic number 7");
+		aggregator.issue("b.ttcn", 3, "rule", "magic number 7");
+		aggregator.flush();
+
+		assertEquals(List.of(
+			"issue a.ttcn|3|rule|magic number 7",
+			"issue a.ttcn|3|rule|magic number 9",
+			"issue b.ttcn|3|rule|magic number 7"), sink.records);
+	}
+
+	private IssueAggregator aggregator(final boolean mergeSameLine) {
+		return new IssueAggregator(new InputFileIndex(new DefaultFileSystem(baseDir)), mergeSameLine, 0, 0, sink);
+	}
+}
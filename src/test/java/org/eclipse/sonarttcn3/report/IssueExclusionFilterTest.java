@@ -0,0 +1,96 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.eclipse.sonarttcn3.rules.RuleCatalog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Only the generic rule is assumed to be in the catalog, the others depend on the Titan version built against.
+ */
+class IssueExclusionFilterTest {
+	private static final String GENERIC = RuleCatalog.GENERIC_RULE;
+
+	@TempDir
+	Path baseDir;
+
+	private final RecordingSink sink = new RecordingSink();
+
+	@Test
+	void matchesAnyNumberOfDirectories() {
+		final IssueExclusionFilter filter = filter(GENERIC + ":**/gen/**");
+		filter.issue("gen/a.ttcn", 1, GENERIC, "dropped");
+		filter.issue("src/gen/deep/b.ttcn", 1, GENERIC, "dropped");
+		filter.issue("src/general/c.ttcn", 1, GENERIC, "kept");
+		filter.issue("gen.ttcn", 1, GENERIC, "kept");
+
+		assertEquals(List.of(
+			"issue src/general/c.ttcn|1|Titanium|kept",
+			"issue gen.ttcn|1|Titanium|kept"), sink.records);
+		assertEquals(2, filter.getExcludedCount());
+	}
+
+	@Test
+	void matchesWildcardsWithinOneSegment() {
+		final IssueExclusionFilter filter = filter(GENERIC + ":src/*_test.ttcn", GENERIC + ":lib/mod?.ttcn");
+		filter.issue("src/a_test.ttcn", 1, GENERIC, "dropped");
+		filter.issue("src/sub/a_test.ttcn", 1, GENERIC, "kept");
+		filter.issue("lib/mod1.ttcn", 1, GENERIC, "dropped");
+		filter.issue("lib/mod12.ttcn", 1, GENERIC, "kept");
+		filter.issue("lib/mod.ttcn", 1, GENERIC, "kept");
+
+		assertEquals(List.of(
+			"issue src/sub/a_test.ttcn|1|Titanium|kept",
+			"issue lib/mod12.ttcn|1|Titanium|kept",
+			"issue lib/mod.ttcn|1|Titanium|kept"), sink.records);
+		assertEquals(2, filter.getExcludedCount());
+	}
+
+	@Test
+	void matchesAbsoluteAndRelativeReportedPaths() {
+		final IssueExclusionFilter filter = filter(GENERIC + ":src/a.ttcn");
+		filter.issue(baseDir.resolve("src/a.ttcn").toString(), 1, GENERIC, "absolute");
+		filter.issue(baseDir.resolve("other/../src/a.ttcn").toString(), 1, GENERIC, "not normalized");
+		filter.issue("src/a.ttcn", 1, GENERIC, "relative");
+		filter.issue("./src/a.ttcn", 1, GENERIC, "dot relative");
+		filter.issue("src\\a.ttcn", 1, GENERIC, "backslashes");
+		final String outside = baseDir.getParent().resolve("elsewhere/src/a.ttcn").toString();
+		filter.issue(outside, 1, GENERIC, "outside");
+
+		assertEquals(List.of("issue " + outside + "|1|Titanium|outside"), sink.records);
+		assertEquals(5, filter.getExcludedCount());
+	}
+
+	@Test
+	void excludesUnknownRulesWithTheGenericRule() {
+		final IssueExclusionFilter filter = filter(GENERIC + ":**");
+		filter.issue("a.ttcn", 1, "NotInTheCatalog", "dropped");
+		filter.metric("a.ttcn", "LINES_OF_CODE", 7);
+
+		assertEquals(List.of("metric a.ttcn|LINES_OF_CODE|7"), sink.records);
+		assertEquals(1, filter.getExcludedCount());
+	}
+
+	@Test
+	void ignoresInvalidExclusionsAndThoseMatchingNoRule() {
+		final IssueExclusionFilter filter = filter("NotInTheCatalog*:**", "no separator", ":a.ttcn", GENERIC + ":");
+		filter.issue("a.ttcn", 1, GENERIC, "kept");
+
+		assertEquals(List.of("issue a.ttcn|1|Titanium|kept"), sink.records);
+		assertEquals(0, filter.getExcludedCount());
+	}
+
+	private IssueExclusionFilter filter(final String... exclusions) {
+		return IssueExclusionFilter.create(exclusions, baseDir, sink);
+	}
+}
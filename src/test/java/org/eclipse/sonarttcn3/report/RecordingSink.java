@@ -0,0 +1,27 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the received records as text, {@code issue file|line|ruleKey|message} or {@code metric file|metric|value}.
+ */
+final class RecordingSink implements ReportRecordSink {
+	final List<String> records = new ArrayList<>();
+
+	@Override
+	public void issue(final String file, final int line, final String ruleKey, final String message) {
+		records.add("issue " + file + "|" + line + "|" + ruleKey + "|" + message);
+	}
+
+	@Override
+	public void metric(final String file, final String metric, final int value) {
+		records.add("metric " + file + "|" + metric + "|" + value);
+	}
+}
@@ -0,0 +1,81 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ReportLineParserTest {
+	private final RecordingSink sink = new RecordingSink();
+	private final ReportLineParser parser = new ReportLineParser(sink);
+
+	@Test
+	void parsesIssue() {
+		parser.parseLine("src/module.ttcn:::3:::Unused variable:::UnusedLocalDefinition");
+		assertEquals(List.of("issue src/module.ttcn|4|UnusedLocalDefinition|Unused variable"), sink.records);
+	}
+
+	@Test
+	void parsesIssueWithDashedPath() {
+		parser.parseLine("src/my-module.ttcn:::3:::msg:::rule");
+		parser.parseLine("my---odd/x.ttcn:::0:::msg:::rule");
+		assertEquals(List.of("issue src/my-module.ttcn|4|rule|msg", "issue my---odd/x.ttcn|1|rule|msg"), sink.records);
+	}
+
+	@Test
+	void parsesIssueWithWindowsPath() {
+		parser.parseLine("C:\\work\\my-project\\module.ttcn:::12:::msg:::rule");
+		assertEquals(List.of("issue C:\\work\\my-project\\module.ttcn|13|rule|msg"), sink.records);
+	}
+
+	@Test
+	void parsesIssueWithDelimitersInMessage() {
+		parser.parseLine("a.ttcn:::1:::x---y - z:::w:::rule");
+		assertEquals(List.of("issue a.ttcn|2|rule|x---y - z:::w"), sink.records);
+	}
+
+	@Test
+	void parsesMetrics() {
+		parser.parseLine("src/module.ttcn---LINES_OF_CODE---42");
+		parser.parseLine("---NUMBER_OF_MODULES---7");
+		assertEquals(List.of("metric src/module.ttcn|LINES_OF_CODE|42", "metric |NUMBER_OF_MODULES|7"), sink.records);
+	}
+
+	@Test
+	void parsesMetricWithDashedOrWindowsPath() {
+		parser.parseLine("src/my-module.ttcn---LINES_OF_CODE---42");
+		parser.parseLine("C:\\my-project\\a---b.ttcn---LINES_OF_CODE---5\r");
+		assertEquals(List.of("metric src/my-module.ttcn|LINES_OF_CODE|42", "metric C:\\my-project\\a---b.ttcn|LINES_OF_CODE|5"),
+			sink.records);
+	}
+
+	@Test
+	void countsUnmatchedLines() {
+		parser.parseLine("");
+		parser.parseLine("Analysis finished");
+		parser.parseLine("a.ttcn:::x:::msg:::rule");
+		parser.parseLine("a.ttcn:::1:::msg:::");
+		parser.parseLine("a.ttcn---LINES_OF_CODE---");
+		parser.parseLine("a.ttcn---LINES_OF_CODE---99999999999");
+		parser.parseLine("a.ttcn------5");
+		assertEquals(List.of(), sink.records);
+		assertEquals(0, parser.getIssueLines());
+		assertEquals(0, parser.getMetricLines());
+	}
+
+	@Test
+	void parsesText() {
+		parser.parseText("a-b.ttcn:::0:::m:::r\r\nnoise\na-b.ttcn---LINES_OF_CODE---3\n");
+		assertEquals(List.of("issue a-b.ttcn|1|r|m", "metric a-b.ttcn|LINES_OF_CODE|3"), sink.records);
+		assertEquals(1, parser.getIssueLines());
+		assertEquals(1, parser.getMetricLines());
+		assertEquals(1, parser.getUnmatchedLines());
+	}
+}
@@ -0,0 +1,44 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ReportLineWriterTest {
+	@Test
+	void keepsEveryRecordOnOneLine() {
+		final StringWriter out = new StringWriter();
+		final ReportLineWriter writer = new ReportLineWriter(out);
+		writer.issue("dir\\a.ttcn", 3, "rule", "first line\nsecond line\r\nEND OK");
+		writer.metric("dir\\a.ttcn", "LINES_OF_CODE", 7);
+
+		final String[] lines = out.toString().split("\n");
+		assertEquals(2, lines.length);
+		assertEquals("dir\\\\a.ttcn:::2:::first line\\nsecond line\\r\\nEND OK:::rule", lines[0]);
+
+		final RecordingSink sink = new RecordingSink();
+		final ReportLineParser parser = new ReportLineParser(ReportLineWriter.unescaping(sink));
+		for (final String line : lines) {
+			parser.parseLine(line);
+		}
+		assertEquals(List.of(
+			"issue dir\\a.ttcn|3|rule|first line\nsecond line\r\nEND OK",
+			"metric dir\\a.ttcn|LINES_OF_CODE|7"), sink.records);
+	}
+
+	@Test
+	void leavesPlainTextAsItIs() {
+		assertEquals("a.ttcn", ReportLineWriter.escape("a.ttcn"));
+		assertEquals("a\\b", ReportLineWriter.unescape(ReportLineWriter.escape("a\\b")));
+		assertEquals("trailing\\", ReportLineWriter.unescape("trailing\\"));
+	}
+}
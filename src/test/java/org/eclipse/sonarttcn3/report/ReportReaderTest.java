@@ -0,0 +1,92 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportReaderTest {
+	private static final String REPORT = "a.ttcn:::0:::msg:::rule\nnoise\na.ttcn---LINES_OF_CODE---3\n";
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readsTextReportLineByLine() throws IOException {
+		assertReadTimed(new ReportReader(null, Long.MAX_VALUE, 1));
+	}
+
+	@Test
+	void readsTextReportInChunks() throws IOException {
+		assertReadTimed(new ReportReader(null, 0, 2));
+	}
+
+	@Test
+	void readsBinaryReport() throws IOException {
+		final BinaryReportWriter writer = new BinaryReportWriter();
+		writer.issue("a.ttcn", 1, "rule", "msg");
+		final Path report = dir.resolve("report.bin");
+		writer.write(report);
+
+		final ReportReader reader = new ReportReader(null, Long.MAX_VALUE, 1);
+		final RecordingSink sink = new RecordingSink();
+		assertEquals(0, reader.read(report, sink));
+		assertEquals(1, sink.records.size());
+		assertTrue(reader.getReadNanos() > 0);
+	}
+
+	@Test
+	void replacesAndCountsMalformedBytesOnEveryPath() throws IOException {
+		final ByteArrayOutputStream text = new ByteArrayOutputStream();
+		text.write("a.ttcn:::0:::bad ".getBytes(StandardCharsets.UTF_8));
+		text.write(new byte[] { (byte) 0xC3, '!' });
+		text.write(" caf\u00e9 \uFFFD:::rule\n".getBytes(StandardCharsets.UTF_8));
+		text.write("b.ttcn:::1:::cut ".getBytes(StandardCharsets.UTF_8));
+		text.write(new byte[] { (byte) 0xE2, (byte) 0x82 });
+		text.write(":::rule\n".getBytes(StandardCharsets.UTF_8));
+		final Path plain = Files.write(dir.resolve("bad.txt"), text.toByteArray());
+		final Path compressed = dir.resolve("bad.txt.gz");
+		try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+			out.write(text.toByteArray());
+		}
+
+		final List<String> expected = List.of(
+			"issue a.ttcn|1|rule|bad \uFFFD! caf\u00e9 \uFFFD",
+			"issue b.ttcn|2|rule|cut \uFFFD");
+		for (final ReportReader reader : List.of(new ReportReader(null, Long.MAX_VALUE, 1), new ReportReader(null, 0, 2))) {
+			final RecordingSink sink = new RecordingSink();
+			reader.read(plain, sink);
+			assertEquals(expected, sink.records);
+			assertEquals(2, reader.getReplacementCount());
+		}
+		final ReportReader reader = new ReportReader(null, 0, 2);
+		final RecordingSink sink = new RecordingSink();
+		reader.read(compressed, sink);
+		assertEquals(expected, sink.records);
+		assertEquals(2, reader.getReplacementCount());
+	}
+
+	private void assertReadTimed(final ReportReader reader) throws IOException {
+		final Path report = Files.writeString(dir.resolve("report.txt"), REPORT, StandardCharsets.UTF_8);
+		final RecordingSink sink = new RecordingSink();
+		assertEquals(1, reader.read(report, sink));
+		assertEquals(2, sink.records.size());
+		assertTrue(reader.getReadNanos() > 0);
+	}
+}
@@ -0,0 +1,59 @@
+/******************************************************************************
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-2.0/EPL-2.0.html
+ ******************************************************************************/
+package org.eclipse.sonarttcn3.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+class SymbolTableTest {
+	private final SymbolTable symbols = new SymbolTable();
+
+	@Test
+	void internsRangesAndStringsToTheSameId() {
+		final String line = "src/a.ttcn:::rule";
+		final int id = symbols.intern(line, 0, 10);
+		assertEquals(id, symbols.intern("src/a.ttcn"));
+		assertEquals(id, symbols.intern(new StringBuilder(line), 0, 10));
+		assertEquals("src/a.ttcn", symbols.get(id));
+		assertEquals(1, symbols.size());
+	}
+
+	@Test
+	void internsUtf8PathsOnce() {
+		final String path = "src/m\u00e9r\u00e9s/modul_\u0151.ttcn";
+		final byte[] bytes = (path + ":::" + path).getBytes(StandardCharsets.UTF_8);
+		final int length = path.getBytes(StandardCharsets.UTF_8).length;
+		final ByteCharSequence text = new ByteCharSequence(ByteBuffer.wrap(bytes), 0, bytes.length, new LongAdder());
+
+		final int first = symbols.intern(text, 0, length);
+		final int second = symbols.intern(text, length + 3, bytes.length);
+		assertEquals(first, second);
+		assertEquals(first, symbols.intern(path));
+		assertEquals(first, symbols.intern(path, 0, path.length()));
+		assertEquals(path, symbols.get(first));
+		assertEquals(1, symbols.size());
+	}
+
+	@Test
+	void keepsIdsAcrossRehash() {
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i, symbols.intern("symbol" + i));
+		}
+		for (int i = 0; i < 1000; i++) {
+			final String symbol = "symbol" + i;
+			assertEquals(i, symbols.intern(symbol, 0, symbol.length()));
+		}
+		assertSame(symbols.get(7), symbols.get(symbols.intern("symbol7")));
+		assertEquals(1000, symbols.size());
+	}
+}